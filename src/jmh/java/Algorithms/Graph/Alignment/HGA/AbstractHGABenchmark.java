@@ -0,0 +1,65 @@
+package Algorithms.Graph.Alignment.HGA;
+
+import Tools.BenchmarkData;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Topology adjustment and scoring of one HGA iteration. The mapping is taken from the Hungarian result of the
+ * input matrix; addAllTopology overwrites the matrix in place, so every invocation does the same amount of work.
+ * <p>
+ * The inputs and the form of the topology are the params of the subclasses, since the open form is only practical
+ * on small inputs.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public abstract class AbstractHGABenchmark {
+    // stream, csr or gpu
+    @Param({"csr"})
+    public String kernel;
+
+    private BenchmarkData data;
+    private HGA<String, DefaultWeightedEdge> hga;
+    private HashMap<String, String> mapping;
+
+    protected abstract String input();
+
+    protected abstract boolean closedForm();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        HGA.debugOut = false;
+        HGA.GPU = kernel.equals("gpu");
+        HGA.CSR = kernel.equals("csr");
+        HGA.closedForm = closedForm();
+        data = BenchmarkData.load(input());
+        hga = new HGA<>(data.getSimMat(), data.graph1, data.graph2, 0.5, false, 0.5, 0.01);
+        mapping = hga.getMappingFromHA(hga.simMat);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        data.cleanUp();
+    }
+
+    @Benchmark
+    public double addAllTopology() {
+        hga.addAllTopology();
+        return hga.simMat.getVal(0, 0);
+    }
+
+    @Benchmark
+    public double scoreMapping() {
+        hga.scoreMapping(mapping);
+        return hga.getScore();
+    }
+}
@@ -0,0 +1,24 @@
+package Algorithms.Graph.Alignment.HGA;
+
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * HGA iteration with the closed-form topology on every input, see {@link HGAOpenFormBenchmark} for the open form.
+ * <p>
+ * The per-pair stream path is quadratic in the pairs, use it only with small inputs: -p kernel=stream
+ * </p>
+ */
+public class HGABenchmark extends AbstractHGABenchmark {
+    @Param({"random:100:0.05", "random:500:0.01", "Human-YeastSub38N"})
+    public String input;
+
+    @Override
+    protected String input() {
+        return input;
+    }
+
+    @Override
+    protected boolean closedForm() {
+        return true;
+    }
+}
@@ -0,0 +1,22 @@
+package Algorithms.Graph.Alignment.HGA;
+
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * HGA iteration with the open-form topology, on the synthetic inputs only: it never finishes on
+ * Human-YeastSub38N in practice.
+ */
+public class HGAOpenFormBenchmark extends AbstractHGABenchmark {
+    @Param({"random:100:0.05", "random:500:0.01"})
+    public String input;
+
+    @Override
+    protected String input() {
+        return input;
+    }
+
+    @Override
+    protected boolean closedForm() {
+        return false;
+    }
+}
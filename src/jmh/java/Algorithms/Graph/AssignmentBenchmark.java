@@ -0,0 +1,58 @@
+package Algorithms.Graph;
+
+import Algorithms.Graph.Alignment.HGA.HGA;
+import DS.Matrix.SimMat;
+import Tools.BenchmarkData;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assignment on the similarity matrix of the input by the solvers HGA can choose from, the matrix is dense
+ * as it is in HGA.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AssignmentBenchmark {
+    @Param({"random:100:0.05", "random:500:0.01", "Human-YeastSub38N"})
+    public String input;
+    @Param({"hungarian", "lapjv", "auction"})
+    public HGA.Solver solver;
+
+    private BenchmarkData data;
+    private SimMat<String> simMat;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        data = BenchmarkData.load(input);
+        simMat = data.getSimMat().toDense();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        data.cleanUp();
+    }
+
+    @Benchmark
+    public int[] run() {
+        switch (solver) {
+            case lapjv:
+                LAPJV<String> lapjv = new LAPJV<>(simMat, Hungarian.ProblemType.maxLoc);
+                lapjv.run();
+                return lapjv.getResult();
+            case auction:
+                Auction<String> auction = new Auction<>(simMat, Hungarian.ProblemType.maxLoc);
+                auction.run();
+                return auction.getResult();
+            default:
+                Hungarian<String> hungarian = new Hungarian<>(simMat, Hungarian.ProblemType.maxLoc);
+                hungarian.run();
+                return hungarian.getResult();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package Algorithms.Graph.Dynamic.Diffusion_Kernel;
+
+import DS.Matrix.StatisticsMatrix;
+import Tools.BenchmarkData;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Diffusion kernel on the first graph of the input, queried by its first nodes. The construction(adjacency
+ * and degree matrices) is measured together with run().
+ * <p>
+ * The human PPI of COV19 is left out of the defaults, since the dense inverse of 11k nodes takes GBs:
+ * -p input=COV19-human -p solver=cg,series
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DKBenchmark {
+    @Param({"random:200:0.02", "random:1000:0.005", "COV19"})
+    public String input;
+    @Param({"10"})
+    public int querySize;
+    @Param({"0.5"})
+    public double loss;
+    @Param({"inverse", "cg", "cholesky", "series"})
+    public DK.Solver solver;
+    // query sets of runBatch()
+    @Param({"32"})
+    public int batchSize;
+
+    private BenchmarkData data;
+    private Set<String> query;
+    private List<Set<String>> queries;
+    private DiffusionModel<String> model;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        data = BenchmarkData.load(input);
+        query = data.query(querySize);
+        List<String> nodes = new ArrayList<>(data.graph1.vertexSet());
+        queries = new ArrayList<>();
+        for (int c = 0; c < batchSize; c++) {
+            int from = c * querySize % nodes.size();
+            queries.add(new HashSet<>(nodes.subList(from, Math.min(nodes.size(), from + querySize))));
+        }
+        DK.solver = solver;
+        model = new DiffusionModel<>(data.graph1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        data.cleanUp();
+        DK.solver = DK.Solver.inverse;
+    }
+
+    @Benchmark
+    public StatisticsMatrix run() {
+        DK<String, DefaultWeightedEdge> dk = new DK<>(query, data.graph1, loss);
+        dk.run();
+        return dk.getResult();
+    }
+
+    /**
+     * A query on the model of the graph built in the setup, whose solver is cached after the first call.
+     */
+    @Benchmark
+    public StatisticsMatrix runShared() {
+        DK<String, DefaultWeightedEdge> dk = new DK<>(query, model, loss);
+        dk.run();
+        return dk.getResult();
+    }
+
+    /**
+     * All the query sets in one call, against run() once per set.
+     */
+    @Benchmark
+    public StatisticsMatrix runBatch() {
+        return new DK<String, DefaultWeightedEdge>(data.graph1, loss).run(queries);
+    }
+}
@@ -0,0 +1,61 @@
+package Algorithms.Graph;
+
+import DS.Matrix.SimMat;
+import Tools.BenchmarkData;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Neighborhood adjustment on a copy of the input matrix for the Hungarian mapping, the copy is taken
+ * before every invocation since the adjustment accumulates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NBMBenchmark {
+    @Param({"random:100:0.05", "random:500:0.01", "Human-YeastSub38N"})
+    public String input;
+
+    private BenchmarkData data;
+    private SimMat<String> original;
+    private SimMat<String> simMat;
+    private HashMap<String, String> mapping;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        data = BenchmarkData.load(input);
+        original = data.getSimMat().toDense();
+        Hungarian<String> hungarian = new Hungarian<>(original, Hungarian.ProblemType.maxLoc);
+        hungarian.run();
+        int[] res = hungarian.getResult();
+        mapping = new HashMap<>();
+        for (int i = 0; i < res.length; i++) {
+            if (res[i] != -1) {
+                mapping.put(original.getRowIndex().get(i), original.getColIndex().get(res[i]));
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void copy() {
+        simMat = original.dup();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        data.cleanUp();
+    }
+
+    @Benchmark
+    public SimMat<String> neighborSimAdjust() {
+        new NBM<String, DefaultWeightedEdge>(data.graph1, data.graph2, simMat, mapping).neighborSimAdjust();
+        return simMat;
+    }
+}
@@ -0,0 +1,53 @@
+package IO.Reader;
+
+import DS.Matrix.SimMat;
+import DS.Network.UndirectedGraph;
+import Tools.BenchmarkData;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing the second graph and the similarity list of the input, the files stay in the page cache after the
+ * warmup, so this is the parsing cost rather than the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReaderBenchmark {
+    @Param({"random:1000:0.01", "Human-YeastSub38N"})
+    public String input;
+
+    private BenchmarkData data;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        data = BenchmarkData.load(input);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        data.cleanUp();
+    }
+
+    @Benchmark
+    public UndirectedGraph<String, DefaultWeightedEdge> readToUndirectedGraph() throws IOException {
+        return new GraphFileReader<>(String.class, DefaultWeightedEdge.class).readToUndirectedGraph(data.graph2Path, true);
+    }
+
+    @Benchmark
+    public UndirectedGraph<String, DefaultWeightedEdge> readToUndirectedGraphParallel() throws IOException {
+        return new GraphFileReader<>(String.class, DefaultWeightedEdge.class).readToUndirectedGraphParallel(data.graph2Path);
+    }
+
+    @Benchmark
+    public SimMat<String> readToSimMat() throws IOException {
+        return new SimMatReader<>(data.graph1.vertexSet(), data.graph2.vertexSet(), String.class)
+                .readToSimMat(data.simMatPath, true);
+    }
+}
@@ -0,0 +1,192 @@
+package Tools;
+
+import DS.Matrix.SimMat;
+import DS.Network.UndirectedGraph;
+import IO.Reader.GraphFileReader;
+import IO.Reader.SimMatReader;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Inputs of the JMH benchmarks, described by a string so that they can be passed by -p input=...
+ * <ul>
+ *     <li>random:size:density - two random graphs G(n,m) with n = size and m = density * n * (n - 1) / 2,
+ *     and a similarity matrix with density * n non-zero entries(0,1] in every row</li>
+ *     <li>Human-YeastSub38N - net-38n, HumanNet and their similarity list in resources/TestModule</li>
+ *     <li>COV19 - the host network and the human network in resources/TestModule, without a similarity matrix</li>
+ *     <li>COV19-human - the same with the human network first, 11k nodes with hubs</li>
+ * </ul>
+ * Synthetic inputs are generated by a fixed seed and written to a temporary directory, so the readers are
+ * measured on exactly the same graphs and matrix as the algorithms. Benchmarks run from the project root.
+ */
+public class BenchmarkData {
+    public static final String TEST_MODULE = "src/test/java/resources/TestModule/";
+    public static final String HUMAN_YEAST = TEST_MODULE + "HGATestData/Human-YeastSub38N/";
+    public static final String COV19 = TEST_MODULE + "COV19/";
+    private static final long SEED = 42;
+
+    public final String graph1Path;
+    public final String graph2Path;
+    // null if the input has no similarity matrix
+    public final String simMatPath;
+    public final UndirectedGraph<String, DefaultWeightedEdge> graph1;
+    public final UndirectedGraph<String, DefaultWeightedEdge> graph2;
+    private final SimMat<String> simMat;
+    // temporary files of a synthetic input
+    private final Path tmpDir;
+
+    private BenchmarkData(String graph1Path, String graph2Path, String simMatPath, Path tmpDir) throws IOException {
+        this.graph1Path = graph1Path;
+        this.graph2Path = graph2Path;
+        this.simMatPath = simMatPath;
+        this.tmpDir = tmpDir;
+        GraphFileReader<String, DefaultWeightedEdge> reader = new GraphFileReader<>(String.class, DefaultWeightedEdge.class);
+        graph1 = reader.readToUndirectedGraph(graph1Path, true);
+        graph2 = reader.readToUndirectedGraph(graph2Path, true);
+        simMat = simMatPath == null ? null :
+                new SimMatReader<>(graph1.vertexSet(), graph2.vertexSet(), String.class).readToSimMat(simMatPath, true);
+    }
+
+    public static BenchmarkData load(String input) throws IOException {
+        if (input.startsWith("random:")) {
+            String[] tokens = input.split(":");
+            if (tokens.length != 3) {
+                throw new IllegalArgumentException("Random input should be random:size:density, but got " + input);
+            }
+            return random(Integer.parseInt(tokens[1]), Double.parseDouble(tokens[2]));
+        }
+        switch (input) {
+            case "Human-YeastSub38N":
+                return new BenchmarkData(HUMAN_YEAST + "net-38n.txt", HUMAN_YEAST + "HumanNet.txt",
+                        HUMAN_YEAST + "fasta/yeastHumanSimList_EvalueLessThan1e-10.txt", null);
+            case "COV19":
+                return new BenchmarkData(COV19 + "host_cf_greater_0.7", COV19 + "human_cf_greater_0.7.txt",
+                        null, null);
+            case "COV19-human":
+                return new BenchmarkData(COV19 + "human_cf_greater_0.7.txt", COV19 + "host_cf_greater_0.7",
+                        null, null);
+            default:
+                throw new IllegalArgumentException("Unknown benchmark input " + input);
+        }
+    }
+
+    /**
+     * Generate two random graphs and a similarity list, nodes are named "a0", "a1"... and "b0", "b1"...
+     */
+    public static BenchmarkData random(int size, double density) throws IOException {
+        if (size < 2 || density <= 0 || density > 1) {
+            throw new IllegalArgumentException("Size should be at least 2 and density in (0,1].");
+        }
+        Random random = new Random(SEED);
+        Path tmpDir = Files.createTempDirectory("benchmark");
+        Path graph1 = tmpDir.resolve("graph1.txt");
+        Path graph2 = tmpDir.resolve("graph2.txt");
+        Path simList = tmpDir.resolve("simList.txt");
+        writeRandomGraph(graph1, "a", size, density, random);
+        writeRandomGraph(graph2, "b", size, density, random);
+        writeRandomSimList(simList, size, density, random);
+        return new BenchmarkData(graph1.toString(), graph2.toString(), simList.toString(), tmpDir);
+    }
+
+    /**
+     * G(n,m): m distinct edges uniformly at random, isolated nodes can not be written and are left out.
+     */
+    private static void writeRandomGraph(Path path, String prefix, int n, double density, Random random) throws IOException {
+        long m = Math.max(1, Math.round(density * n * (n - 1) / 2.));
+        List<Set<Integer>> adj = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            adj.add(new LinkedHashSet<>());
+        }
+        long edges = 0;
+        while (edges < m) {
+            int u = random.nextInt(n);
+            int v = random.nextInt(n);
+            if (u == v) {
+                continue;
+            }
+            // kept by the smaller end only
+            if (adj.get(Math.min(u, v)).add(Math.max(u, v))) {
+                edges++;
+            }
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            for (int i = 0; i < n; i++) {
+                if (adj.get(i).isEmpty()) {
+                    continue;
+                }
+                StringBuilder line = new StringBuilder(prefix).append(i);
+                for (int j : adj.get(i)) {
+                    line.append(' ').append(prefix).append(j).append(' ').append(1);
+                }
+                writer.write(line.toString());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Similarity list: row col val col val ...
+     */
+    private static void writeRandomSimList(Path path, int n, double density, Random random) throws IOException {
+        int perRow = (int) Math.max(1, Math.round(density * n));
+        List<Integer> cols = new ArrayList<>(n);
+        for (int j = 0; j < n; j++) {
+            cols.add(j);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            for (int i = 0; i < n; i++) {
+                Collections.shuffle(cols, random);
+                StringBuilder line = new StringBuilder("a").append(i);
+                for (int k = 0; k < perRow; k++) {
+                    line.append(" b").append(cols.get(k)).append(' ').append(1 - random.nextDouble());
+                }
+                writer.write(line.toString());
+                writer.newLine();
+            }
+        }
+    }
+
+    public SimMat<String> getSimMat() {
+        if (simMat == null) {
+            throw new IllegalStateException("No similarity matrix for the input.");
+        }
+        return simMat;
+    }
+
+    /**
+     * @return the first nodes of graph1 in the iteration order
+     */
+    public Set<String> query(int size) {
+        Set<String> res = new LinkedHashSet<>();
+        for (String node : graph1.vertexSet()) {
+            if (res.size() == size) {
+                break;
+            }
+            res.add(node);
+        }
+        return res;
+    }
+
+    /**
+     * Delete the temporary files of a synthetic input.
+     */
+    public void cleanUp() throws IOException {
+        if (tmpDir == null) {
+            return;
+        }
+        for (String path : new String[]{graph1Path, graph2Path, simMatPath}) {
+            Files.deleteIfExists(Path.of(path));
+        }
+        Files.deleteIfExists(tmpDir);
+    }
+}
@@ -0,0 +1,301 @@
+package Algorithms.Graph.Alignment.HGA;
+
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * The CPU counterpart of {@link GPUKernelForHGA}: neighbors of both graphs are packed into
+ * CSR arrays once per run, and the topology information of all node pairs is computed
+ * straight from the row-major matrix data, so no boxing or hashing is involved in the hot loops.
+ * <p>
+ * neighbors of row i -> nei_x[start_x[i],start_x[i+1]), neighbors of col j -> nei_y[start_y[j],start_y[j+1])
+ * </p>
+ * <p>
+ * (i,j) in simMat -> data[i * n2 + j]
+ * </p>
+ * <p>
+ * With the closed form, the non-neighbor sum of (i,j) is derived from the total sum, row sums and column sums
+ * of the matrix and the block of the closed neighborhoods N[i] x N[j]:
+ * </p>
+ * <p>
+ * sum(non-neighbors) = total - sum(rows in N[i]) - sum(cols in N[j]) + sum(N[i] x N[j])
+ * </p>
+ * so the cost of a pair drops from O(n1*n2) to O(deg1*deg2).
+ * <p>
+ * ori can be null, then only the topological part is written to out.
+ * </p>
+ */
+public class CPUKernelForHGA {
+
+    private final double[] pre;
+    private final double[] ori;
+    private final double[] out;
+    private final double bio;
+    private final int[] nei_x;
+    private final int[] nei_y;
+    private final int[] sx;
+    private final int[] sy;
+    private final int n1;
+    private final int n2;
+    private final double preSum;
+    private final boolean closedForm;
+    //---------------closed form------------
+    private double total;
+    // sum of rows within the closed neighborhood of each row
+    private double[] closedRowSum;
+    // sum of cols within the closed neighborhood of each col
+    private double[] closedColSum;
+
+    public CPUKernelForHGA(double[] pre, double[] ori, double[] out,
+                           int[] nei_x, int[] start_x,
+                           int[] nei_y, int[] start_y,
+                           double preSum,
+                           double bioFactor) {
+        this(pre, ori, out, nei_x, start_x, nei_y, start_y, preSum, bioFactor, false);
+    }
+
+    public CPUKernelForHGA(double[] pre, double[] ori, double[] out,
+                           int[] nei_x, int[] start_x,
+                           int[] nei_y, int[] start_y,
+                           double preSum,
+                           double bioFactor,
+                           boolean closedForm) {
+        this.pre = pre;
+        this.ori = ori;
+        this.out = out;
+        this.bio = bioFactor;
+        this.nei_x = nei_x;
+        this.nei_y = nei_y;
+        this.sx = start_x;
+        this.sy = start_y;
+        this.n1 = start_x.length - 1;
+        this.n2 = start_y.length - 1;
+        this.preSum = preSum;
+        this.closedForm = closedForm;
+    }
+
+    /**
+     * Compute all node pairs, rows are handled in parallel.
+     */
+    public void execute() {
+        if (closedForm) {
+            initClosedSums();
+            IntStream.range(0, n1).parallel().forEach(this::runRowClosedForm);
+        } else {
+            IntStream.range(0, n1).parallel().forEach(this::runRow);
+        }
+    }
+
+    /**
+     * Same as execute(), and every row is handed to beforeRow right before it is written and to afterRow right
+     * after it is written(still in cache), on the same thread.
+     */
+    public void execute(IntConsumer beforeRow, IntConsumer afterRow) {
+        if (closedForm) {
+            initClosedSums();
+        }
+        IntStream.range(0, n1).parallel().forEach(r -> {
+            beforeRow.accept(r);
+            if (closedForm) {
+                runRowClosedForm(r);
+            } else {
+                runRow(r);
+            }
+            afterRow.accept(r);
+        });
+    }
+
+    /**
+     * Row sums, column sums and their aggregation over closed neighborhoods, O(n1*n2 + |E1| + |E2|)
+     */
+    private void initClosedSums() {
+        double[] rowSum = rowSums(pre, n1, n2);
+        double[] colSum = colSums(pre, n1, n2);
+        total = 0;
+        for (double sum : rowSum) {
+            total += sum;
+        }
+        closedRowSum = closedSums(rowSum, sx, nei_x);
+        closedColSum = closedSums(colSum, sy, nei_y);
+    }
+
+    static double[] rowSums(double[] data, int n1, int n2) {
+        double[] rowSum = new double[n1];
+        IntStream.range(0, n1).parallel().forEach(r -> {
+            double sum = 0;
+            int offset = r * n2;
+            for (int c = 0; c < n2; c++) {
+                sum += data[offset + c];
+            }
+            rowSum[r] = sum;
+        });
+        return rowSum;
+    }
+
+    static double[] colSums(double[] data, int n1, int n2) {
+        double[] colSum = new double[n2];
+        for (int r = 0; r < n1; r++) {
+            int offset = r * n2;
+            for (int c = 0; c < n2; c++) {
+                colSum[c] += data[offset + c];
+            }
+        }
+        return colSum;
+    }
+
+    /**
+     * Aggregate sums over the closed neighborhood N[l] = N(l) + {l} of every node l.
+     */
+    static double[] closedSums(double[] sums, int[] s, int[] nei) {
+        double[] res = new double[sums.length];
+        for (int l = 0; l < sums.length; l++) {
+            double sum = isOut(l, s, nei) ? sums[l] : 0;
+            for (int j = s[l]; j < s[l + 1]; j++) {
+                sum += sums[nei[j]];
+            }
+            res[l] = sum;
+        }
+        return res;
+    }
+
+    private void runRowClosedForm(int r) {
+        int nei1Size = sx[r + 1] - sx[r];
+        boolean rOut = isOut(r, sx, nei_x);
+        int non1Size = n1 - nei1Size - (rOut ? 1 : 0);
+        for (int c = 0; c < n2; c++) {
+            int nei2Size = sy[c + 1] - sy[c];
+            boolean cOut = isOut(c, sy, nei_y);
+            int non2Size = n2 - nei2Size - (cOut ? 1 : 0);
+            // neighbor block N(r) x N(c)
+            double block = 0;
+            for (int i = sx[r]; i < sx[r + 1]; i++) {
+                int offset = nei_x[i] * n2;
+                for (int j = sy[c]; j < sy[c + 1]; j++) {
+                    block += pre[offset + nei_y[j]];
+                }
+            }
+            double eNeighbors;
+            if (nei1Size != 0 && nei2Size != 0) {
+                eNeighbors = block / ((double) nei1Size * nei2Size);
+            } else if (nei1Size == 0 && nei2Size == 0) {
+                eNeighbors = preSum / ((double) n1 * n2);
+            } else {
+                eNeighbors = 0;
+            }
+            double eNonNeighbors;
+            if (non1Size != 0 && non2Size != 0) {
+                // closed block N[r] x N[c] = N(r) x N(c) + {r} x N(c) + N(r) x {c} + (r,c)
+                double closedBlock = block;
+                if (rOut) {
+                    int offset = r * n2;
+                    for (int j = sy[c]; j < sy[c + 1]; j++) {
+                        closedBlock += pre[offset + nei_y[j]];
+                    }
+                }
+                if (cOut) {
+                    for (int i = sx[r]; i < sx[r + 1]; i++) {
+                        closedBlock += pre[nei_x[i] * n2 + c];
+                    }
+                }
+                if (rOut && cOut) {
+                    closedBlock += pre[r * n2 + c];
+                }
+                double sum = total - closedRowSum[r] - closedColSum[c] + closedBlock;
+                eNonNeighbors = sum / ((double) non1Size * non2Size);
+            } else if (non1Size == 0 && non2Size == 0) {
+                eNonNeighbors = preSum / ((double) n1 * n2);
+            } else {
+                eNonNeighbors = 0;
+            }
+            double eTP = (eNeighbors + eNonNeighbors) / 2;
+            int index = r * n2 + c;
+            out[index] = (ori == null ? 0 : ori[index] * bio) + eTP * (1 - bio);
+        }
+    }
+
+    private void runRow(int r) {
+        // closed neighborhood masks, the node itself is not a non-neighbor
+        boolean[] mask1 = new boolean[n1];
+        boolean[] mask2 = new boolean[n2];
+        int closed1Size = mark(mask1, r, sx, nei_x, true);
+        for (int c = 0; c < n2; c++) {
+            int closed2Size = mark(mask2, c, sy, nei_y, true);
+            double eNeighbors = getNeighborTopologyInfo(r, c);
+            double eNonNeighbors = getNonNeighborTopologyInfo(mask1, n1 - closed1Size, mask2, n2 - closed2Size);
+            mark(mask2, c, sy, nei_y, false);
+            double eTP = (eNeighbors + eNonNeighbors) / 2;
+            int index = r * n2 + c;
+            out[index] = (ori == null ? 0 : ori[index] * bio) + eTP * (1 - bio);
+        }
+    }
+
+    private double getNeighborTopologyInfo(int r, int c) {
+        int nei1Size = sx[r + 1] - sx[r];
+        int nei2Size = sy[c + 1] - sy[c];
+        if (nei1Size != 0 && nei2Size != 0) {
+            double sum = 0;
+            for (int i = sx[r]; i < sx[r + 1]; i++) {
+                int offset = nei_x[i] * n2;
+                for (int j = sy[c]; j < sy[c + 1]; j++) {
+                    sum += pre[offset + nei_y[j]];
+                }
+            }
+            return sum / ((double) nei1Size * nei2Size);
+        }
+        if (nei1Size == 0 && nei2Size == 0) {
+            return preSum / ((double) n1 * n2);
+        }
+        return 0;
+    }
+
+    private double getNonNeighborTopologyInfo(boolean[] mask1, int non1Size, boolean[] mask2, int non2Size) {
+        if (non1Size != 0 && non2Size != 0) {
+            double sum = 0;
+            for (int i = 0; i < n1; i++) {
+                if (mask1[i]) {
+                    continue;
+                }
+                int offset = i * n2;
+                for (int j = 0; j < n2; j++) {
+                    if (!mask2[j]) {
+                        sum += pre[offset + j];
+                    }
+                }
+            }
+            return sum / ((double) non1Size * non2Size);
+        }
+        if (non1Size == 0 && non2Size == 0) {
+            return preSum / ((double) n1 * n2);
+        }
+        return 0;
+    }
+
+    /**
+     * @return true if node l is not one of its own neighbors(no self-loop)
+     */
+    private static boolean isOut(int l, int[] s, int[] nei) {
+        for (int j = s[l]; j < s[l + 1]; j++) {
+            if (nei[j] == l) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Set or clear the closed neighborhood of node l in the mask.
+     *
+     * @return the size of the closed neighborhood
+     */
+    private static int mark(boolean[] mask, int l, int[] s, int[] nei, boolean val) {
+        int size = mask[l] == val ? 0 : 1;
+        mask[l] = val;
+        for (int j = s[l]; j < s[l + 1]; j++) {
+            if (mask[nei[j]] != val) {
+                mask[nei[j]] = val;
+                size++;
+            }
+        }
+        return size;
+    }
+}
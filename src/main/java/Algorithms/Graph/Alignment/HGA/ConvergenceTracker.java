@@ -0,0 +1,228 @@
+package Algorithms.Graph.Alignment.HGA;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Convergence check of HGA on scalars({@link HGA#streamingCheck} and {@link HGA#doubleBuffer}): the max-abs
+ * differences of the new matrix to the last two ones, taken row by row while addAllTopology writes the rows, and
+ * the score of every iteration. No difference matrix or snapshot of a matrix is kept, the history is the deltas
+ * and the scores.
+ * <p>
+ * S(t) is the matrix the topology is computed from, and the back buffer written by addAllTopology still holds
+ * S(t-1) until a row is overwritten, so every row of S(t-1) is copied to a reusable row right before it is
+ * written. The few entries touched by the neighbor adjustment in between are compared with their values before
+ * the adjustment, kept in primitive arrays. Since the differences of S(t+1) are known right after
+ * addAllTopology, the check passes one iteration earlier than the snapshots of {@link HGA#checkPassed(double)}
+ * under the same conditions: S(t+1) - S(t) or S(t+1) - S(t-1) is less than the tolerance, or the scores of three
+ * continuous iterations are the same.
+ * </p>
+ */
+public class ConvergenceTracker {
+    private final List<Double> dif1s = new ArrayList<>();
+    private final List<Double> dif2s = new ArrayList<>();
+    private final List<Double> scores = new ArrayList<>();
+    //---------------entries adjusted after the record------------
+    // cell << 32 | order, so the first value of a cell sorts first, order -> adjustedValues[order]
+    private long[] adjustedKeys = new long[16];
+    private double[] adjustedValues = new double[16];
+    private int adjustedSize;
+    //---------------the adjusted cells in order and their values before the adjustments------------
+    // adjusted in S(t), compared instead of pre
+    private long[] cells = new long[0];
+    private double[] values = new double[0];
+    private int cellCount;
+    // adjusted in S(t-1), compared instead of the rows of the back buffer
+    private long[] olderCells = new long[0];
+    private double[] olderValues = new double[0];
+    private int olderCount;
+    //---------------the current pass------------
+    private double[] out;
+    private double[] pre;
+    private int cols;
+    // out holds S(t-1) before the rows are written
+    private boolean older;
+    private double[] rowDif1;
+    private double[] rowDif2;
+    // S(t-1) of the row being written by the thread
+    private final ThreadLocal<double[]> olderRow = new ThreadLocal<>();
+
+    /**
+     * Record the score of a new iteration, the matrix of the iteration is the current one.
+     */
+    public void addScore(double score) {
+        scores.add(score);
+        adjustedSize = 0;
+    }
+
+    /**
+     * Keep the value of an entry adjusted outside addAllTopology, only the first value of a cell is used.
+     *
+     * @param cell i * cols + j
+     */
+    void adjusted(long cell, double value) {
+        if (adjustedSize == adjustedKeys.length) {
+            adjustedKeys = Arrays.copyOf(adjustedKeys, 2 * adjustedSize);
+            adjustedValues = Arrays.copyOf(adjustedValues, 2 * adjustedSize);
+        }
+        adjustedKeys[adjustedSize] = cell << 32 | adjustedSize;
+        adjustedValues[adjustedSize++] = value;
+    }
+
+    /**
+     * Start a pass of addAllTopology writing out from pre, then every row should be handed to before(int) right
+     * before it is written and to row(int) once it is written, on the same thread.
+     *
+     * @param older out is the back buffer holding S(t-1) and the rows are handed to before(int), otherwise
+     *              only S(t+1) - S(t) is taken
+     */
+    void begin(double[] out, double[] pre, int rows, int cols, boolean older) {
+        this.out = out;
+        this.pre = pre;
+        this.cols = cols;
+        this.older = older && !dif1s.isEmpty();
+        if (rowDif1 == null || rowDif1.length != rows) {
+            rowDif1 = new double[rows];
+            rowDif2 = new double[rows];
+        }
+        // the adjusted cells of S(t) become the ones of S(t-1)
+        long[] tmpCells = olderCells;
+        double[] tmpValues = olderValues;
+        olderCells = cells;
+        olderValues = values;
+        olderCount = cellCount;
+        cells = tmpCells;
+        values = tmpValues;
+        // the first value of every adjusted cell
+        Arrays.sort(adjustedKeys, 0, adjustedSize);
+        if (cells.length < adjustedSize) {
+            cells = new long[adjustedKeys.length];
+            values = new double[adjustedKeys.length];
+        }
+        cellCount = 0;
+        for (int k = 0; k < adjustedSize; k++) {
+            long cell = adjustedKeys[k] >>> 32;
+            if (cellCount == 0 || cells[cellCount - 1] != cell) {
+                cells[cellCount] = cell;
+                values[cellCount++] = adjustedValues[(int) adjustedKeys[k]];
+            }
+        }
+    }
+
+    /**
+     * Copy S(t-1) of row r before the row is overwritten.
+     */
+    void before(int r) {
+        if (!older) {
+            return;
+        }
+        double[] row = olderRow.get();
+        if (row == null || row.length != cols) {
+            row = new double[cols];
+            olderRow.set(row);
+        }
+        long from = (long) r * cols;
+        System.arraycopy(out, (int) from, row, 0, cols);
+        for (int p = firstCell(olderCells, olderCount, from); p < olderCount && olderCells[p] < from + cols; p++) {
+            row[(int) (olderCells[p] - from)] = olderValues[p];
+        }
+    }
+
+    /**
+     * Differences of row r. Rows can be handed in parallel.
+     */
+    void row(int r) {
+        long from = (long) r * cols;
+        int p = firstCell(cells, cellCount, from);
+        double dif1 = 0;
+        for (int k = (int) from, to = k + cols; k < to; k++) {
+            double before = pre[k];
+            if (p < cellCount && cells[p] == k) {
+                before = values[p++];
+            }
+            dif1 = Math.max(dif1, Math.abs(out[k] - before));
+        }
+        rowDif1[r] = dif1;
+        rowDif2[r] = older ? maxAbsDelta(out, (int) from, olderRow.get()) : Double.NaN;
+    }
+
+    /**
+     * Finish the pass and record the differences.
+     */
+    void end() {
+        double dif1 = 0;
+        double dif2 = 0;
+        for (int r = 0; r < rowDif1.length; r++) {
+            dif1 = Math.max(dif1, rowDif1[r]);
+            dif2 = Math.max(dif2, rowDif2[r]);
+        }
+        dif1s.add(dif1);
+        dif2s.add(older ? dif2 : Double.NaN);
+        adjustedSize = 0;
+        out = null;
+        pre = null;
+    }
+
+    /**
+     * @return the position of the first cell not less than from
+     */
+    private static int firstCell(long[] cells, int count, long from) {
+        int p = Arrays.binarySearch(cells, 0, count, from);
+        return p < 0 ? -p - 1 : p;
+    }
+
+    public boolean passed(double tolerance) {
+        int last = dif1s.size() - 1;
+        if (last >= 0 && (dif1s.get(last) < tolerance || dif2s.get(last) < tolerance)) {
+            return true;
+        }
+        int size = scores.size();
+        if (size < 3) {
+            return false;
+        }
+        double score = scores.get(size - 1);
+        double score1 = scores.get(size - 2);
+        double score2 = scores.get(size - 3);
+        return score == score1 && score1 == score2;
+    }
+
+    /**
+     * @return max|S(t+1) - S(t)| of every addAllTopology
+     */
+    public List<Double> getDif1s() {
+        return Collections.unmodifiableList(dif1s);
+    }
+
+    /**
+     * @return max|S(t+1) - S(t-1)| of every addAllTopology, NaN for the first one
+     */
+    public List<Double> getDif2s() {
+        return Collections.unmodifiableList(dif2s);
+    }
+
+    /**
+     * @return score of every iteration
+     */
+    public List<Double> getScores() {
+        return Collections.unmodifiableList(scores);
+    }
+
+    @Override
+    public String toString() {
+        int last = dif1s.size() - 1;
+        return last < 0 ? "dif_1 NaN\tdif_2 NaN" : "dif_1 " + dif1s.get(last) + "\tdif_2 " + dif2s.get(last);
+    }
+
+    /**
+     * max|a[from + i] - row[i]| for i in [0, row.length)
+     */
+    private static double maxAbsDelta(double[] a, int from, double[] row) {
+        double max = 0;
+        for (int i = 0; i < row.length; i++) {
+            max = Math.max(max, Math.abs(a[from + i] - row[i]));
+        }
+        return max;
+    }
+}
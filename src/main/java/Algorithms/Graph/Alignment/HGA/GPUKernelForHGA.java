@@ -22,78 +22,140 @@ public class GPUKernelForHGA extends Kernel {
     private final int n1;
     private final int n2;
     private final double preSum;
+    //---------------closed form(see CPUKernelForHGA)------------
+    private final boolean closedForm;
+    private final double total;
+    private final double[] closedRowSum;
+    private final double[] closedColSum;
 
     public GPUKernelForHGA(double[] pre, double[] ori, double[] out,
                            Vector<Integer> nei_x, int[] start_x,
                            Vector<Integer> nei_y, int[] start_y,
                            double preSum,
                            double bioFactor) {
+        this(pre, ori, out, toPrimitive(nei_x), start_x, toPrimitive(nei_y), start_y, preSum, bioFactor, false);
+    }
+
+    public GPUKernelForHGA(double[] pre, double[] ori, double[] out,
+                           int[] nei_x, int[] start_x,
+                           int[] nei_y, int[] start_y,
+                           double preSum,
+                           double bioFactor,
+                           boolean closedForm) {
         this.pre = pre;
         this.ori = ori;
         this.out = out;
         this.bio = bioFactor;
-        Object[] neix = nei_x.toArray();
-        Object[] neiy = nei_y.toArray();
-        this.nei_x = ArrayUtils.toPrimitive(Arrays.copyOf(neix, neix.length, Integer[].class));
-        this.nei_y = ArrayUtils.toPrimitive(Arrays.copyOf(neiy, neiy.length, Integer[].class));
+        this.nei_x = nei_x;
+        this.nei_y = nei_y;
         this.sx = start_x;
         this.sy = start_y;
         this.n1 = start_x.length - 1;
         this.n2 = start_y.length - 1;
         this.preSum = preSum;
+        this.closedForm = closedForm;
+        // prepared on the host, a single element is enough when the closed form is off
+        if (closedForm) {
+            double[] rowSum = CPUKernelForHGA.rowSums(pre, n1, n2);
+            double[] colSum = CPUKernelForHGA.colSums(pre, n1, n2);
+            this.total = Arrays.stream(rowSum).sum();
+            this.closedRowSum = CPUKernelForHGA.closedSums(rowSum, start_x, nei_x);
+            this.closedColSum = CPUKernelForHGA.closedSums(colSum, start_y, nei_y);
+        } else {
+            this.total = 0;
+            this.closedRowSum = new double[1];
+            this.closedColSum = new double[1];
+        }
         setExplicit(true);
     }
 
+    private static int[] toPrimitive(Vector<Integer> neighbors) {
+        Object[] nei = neighbors.toArray();
+        return ArrayUtils.toPrimitive(Arrays.copyOf(nei, nei.length, Integer[].class));
+    }
+
 
     @Override
     public void run() {
         int id = getGlobalId();
-        int c = id / n1;
-        int r = id - c * n1;
+        // row-major, (r,c) -> r * n2 + c
+        int r = id / n2;
+        int c = id - r * n2;
         double eNeighbors = 0;
         double eNonNeighbors = 0;
         // sum
         int nei1Size = sx[r + 1] - sx[r];
         int nei2Size = sy[c + 1] - sy[c];
         // neighbors
-        if (nei1Size != 0 && nei2Size != 0) {
-            for (int i = sx[r]; i < sx[r + 1]; i++) {
-                for (int j = sy[c]; j < sy[c + 1]; j++) {
-                    int index = nei_x[i] + nei_y[j] * n1;
-                    eNeighbors = eNeighbors + pre[index];
-                }
+        double block = 0;
+        for (int i = sx[r]; i < sx[r + 1]; i++) {
+            for (int j = sy[c]; j < sy[c + 1]; j++) {
+                block = block + pre[nei_x[i] * n2 + nei_y[j]];
             }
-            eNeighbors = eNeighbors / (nei1Size * nei2Size);
+        }
+        if (nei1Size != 0 && nei2Size != 0) {
+            eNeighbors = block / (nei1Size * nei2Size);
         } else if (nei1Size == 0 && nei2Size == 0) {
             eNeighbors = preSum / (n1 * n2);
         } else {
             eNeighbors = 0;
         }
-        int non1Size = n1 - 1 - nei1Size;
-        int non2Size = n2 - 1 - nei2Size;
+        int rOut = isOut(r, sx, nei_x);
+        int cOut = isOut(c, sy, nei_y);
+        int non1Size = n1 - rOut - nei1Size;
+        int non2Size = n2 - cOut - nei2Size;
         // non-neighbors
         if (non1Size != 0 && non2Size != 0) {
-            for (int i = 0; i < n1; i++) {
-                if (isIn(i, sx, nei_x, r)) {
-                    for (int j = 0; j < n2; j++) {
-                        if (isIn(j, sy, nei_y, c)) {
-                            int index = i + j * n1;
-                            eNonNeighbors = eNonNeighbors + pre[index];
+            if (closedForm) {
+                // closed block N[r] x N[c] = N(r) x N(c) + {r} x N(c) + N(r) x {c} + (r,c)
+                double closedBlock = block;
+                if (rOut == 1) {
+                    for (int j = sy[c]; j < sy[c + 1]; j++) {
+                        closedBlock = closedBlock + pre[r * n2 + nei_y[j]];
+                    }
+                }
+                if (cOut == 1) {
+                    for (int i = sx[r]; i < sx[r + 1]; i++) {
+                        closedBlock = closedBlock + pre[nei_x[i] * n2 + c];
+                    }
+                }
+                if (rOut == 1 && cOut == 1) {
+                    closedBlock = closedBlock + pre[r * n2 + c];
+                }
+                eNonNeighbors = total - closedRowSum[r] - closedColSum[c] + closedBlock;
+            } else {
+                for (int i = 0; i < n1; i++) {
+                    if (isIn(i, sx, nei_x, r)) {
+                        for (int j = 0; j < n2; j++) {
+                            if (isIn(j, sy, nei_y, c)) {
+                                eNonNeighbors = eNonNeighbors + pre[i * n2 + j];
+                            }
                         }
                     }
                 }
             }
             eNonNeighbors = eNonNeighbors / (non1Size * non2Size);
         } else if (non1Size == 0 && non2Size == 0) {
-            eNeighbors = preSum / (n1 * n2);
+            eNonNeighbors = preSum / (n1 * n2);
         } else {
-            eNeighbors = 0;
+            eNonNeighbors = 0;
         }
 
         double eTP = (eNeighbors + eNonNeighbors) / 2;
-        out[r + n1 * c] = (double) (ori[r + n1 * c] * bio + eTP * (1 - bio));
+        out[r * n2 + c] = (double) (ori[r * n2 + c] * bio + eTP * (1 - bio));
     }
 
+    /**
+     * @return 1 if node l is not one of its own neighbors(no self-loop), or 0
+     */
+    private static int isOut(int l, int[] s, int[] nei) {
+        for (int j = s[l]; j < s[l + 1]; j++) {
+            if (l == nei[j]) {
+                return 0;
+            }
+        }
+        return 1;
+    }
 
     private static boolean isIn(int i, int[] s, int[] nei, int l) {
         if (i == l) {
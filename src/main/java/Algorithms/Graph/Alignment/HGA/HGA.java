@@ -1,27 +1,33 @@
 package Algorithms.Graph.Alignment.HGA;
 
 
+import Algorithms.Graph.Auction;
+import Algorithms.Graph.GreedyMatcher;
 import Algorithms.Graph.Hungarian;
+import Algorithms.Graph.LAPJV;
 import Algorithms.Graph.NBM;
 import DS.Matrix.SimMat;
+import DS.Matrix.SparseSimMat;
 import DS.Matrix.StatisticsMatrix;
+import DS.Network.BitAdjacency;
 import DS.Network.Graph;
+import DS.Network.NodeIndex;
 import DS.Network.UndirectedGraph;
 import IO.Writer.AbstractFileWriter;
 import com.aparapi.Range;
 import org.apache.commons.io.FileUtils;
+import org.ejml.dense.row.CommonOps_DDRM;
 import org.jgrapht.alg.util.Pair;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.FileHandler;
 import java.util.logging.Logger;
 import java.util.logging.SimpleFormatter;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Refer to An Adaptive Hybrid Algorithm for Global Network Algorithms.Alignment
@@ -35,6 +41,31 @@ import java.util.stream.Collectors;
 
 public class HGA<V, E> {
     public static boolean GPU = false;
+    // use the CSR-indexed CPU kernel for addAllTopology instead of the per-pair path
+    public static boolean CSR = false;
+    // compute the non-neighbor term from row, column and block sums(CSR and GPU kernels)
+    public static boolean closedForm = false;
+    // assignment solver for the H matrix
+    public static Solver solver = Solver.hungarian;
+    // warm start the LAPJV solver by the previous iteration when the H matrix keeps its rows and cols
+    public static boolean warmStart = false;
+    // swap two preallocated matrices in addAllTopology instead of dup() per iteration,
+    // and check the convergence as streamingCheck does, no matrix is recorded
+    public static boolean doubleBuffer = false;
+    // check the convergence by the max-abs differences taken within addAllTopology, exit one iteration earlier,
+    // it swaps the matrices as doubleBuffer does(S(t+1) - S(t-1) is not taken by the GPU kernel)
+    public static boolean streamingCheck = false;
+    // write the debug output on a background thread, matrices are dumped in binary(see TraceSink)
+    public static boolean asyncTrace = false;
+    // debug output of every k-th iteration, 0 for the result only
+    public static int traceEvery = 1;
+
+    /**
+     * Assignment solvers: Munkres by {@link Hungarian}, shortest augmenting paths by {@link LAPJV},
+     * and the epsilon-scaling auction with parallel bidding by {@link Auction}
+     */
+    public enum Solver {hungarian, lapjv, auction}
+
     private final int LimitOfIndexGraph = 60;
 
     protected SimMat<V> simMat;
@@ -63,6 +94,9 @@ public class HGA<V, E> {
     protected double score;
     //---------------mapping for iteration---------
     protected SimMat<V> originalMat;
+    // dense copy of a sparse originalMat for the GPU kernel, made once for the matrix it was copied from
+    private double[] originalDense;
+    private SimMat<V> originalDenseOf;
     protected Stack<StatisticsMatrix> stackMat;
     protected Stack<Double> stackScore;
 
@@ -76,10 +110,28 @@ public class HGA<V, E> {
     public Logger logger;
     private AbstractFileWriter writer;
     public static boolean debugOut = true;
+    private TraceSink traceSink;
     protected double tolerance;
     public int iter_res;
     private Vector<Pair<E, E>> mappingEdges;
     private double sumPreSimMat;
+    //--------------CSR neighbors(simMat order), built once per run---------
+    private int[] nei_x;
+    private int[] start_x;
+    private int[] nei_y;
+    private int[] start_y;
+    // greedy matcher for the G matrix, reused across iterations
+    private GreedyMatcher greedyMatcher;
+    //--------------previous assignment for the warm start---------
+    private LAPJV<V> lastSolver;
+    // adjacency of the target graph for the edge correctness
+    private BitAdjacency<V> targetAdj;
+    private List<V> lastRows;
+    private List<V> lastCols;
+    //--------------preallocated matrices(doubleBuffer and streamingCheck)---------
+    private MatBuffers<V> buffers;
+    //--------------differences and scores(doubleBuffer and streamingCheck)---------
+    private ConvergenceTracker tracker;
 
 
     /**
@@ -103,8 +155,12 @@ public class HGA<V, E> {
         this.index = index;
         this.target = target;
         // allow null
-        if (simMat != null)
+        if (simMat != null) {
+            // a sparse input stays sparse as the original matrix, but the working matrix becomes dense
+            // after the first topology adjustment
             this.originalMat = simMat.dup();
+            simMat = simMat.toDense();
+        }
         this.simMat = simMat;
         this.forcedMappingForSame = forcedMappingForSame;
         this.tolerance = tolerance;
@@ -125,21 +181,47 @@ public class HGA<V, E> {
      * @return the mapping result
      */
     protected HashMap<V, V> getMappingFromHA(SimMat<V> simMat) {
-        logInfo("Hungarian mapping...");
-        Hungarian<V> hungarian = new Hungarian<>(simMat, Hungarian.ProblemType.maxLoc);
-        hungarian.setLogger(logger);
-        hungarian.run();
-        int[] res = hungarian.getResult();
+        int[] res;
+        if (solver == Solver.lapjv) {
+            logInfo("LAPJV mapping...");
+            LAPJV<V> lapjv = new LAPJV<>(simMat, Hungarian.ProblemType.maxLoc);
+            lapjv.setLogger(logger);
+            List<V> rows = simMat.getRowIndex().nodes();
+            List<V> cols = simMat.getColIndex().nodes();
+            if (warmStart && rows.equals(lastRows) && cols.equals(lastCols)) {
+                lapjv.warmStart(lastSolver);
+            }
+            lapjv.run();
+            res = lapjv.getResult();
+            if (warmStart) {
+                lastSolver = lapjv;
+                lastRows = rows;
+                lastCols = cols;
+            }
+        } else if (solver == Solver.auction) {
+            logInfo("Auction mapping...");
+            Auction<V> auction = new Auction<>(simMat, Hungarian.ProblemType.maxLoc);
+            auction.setLogger(logger);
+            auction.run();
+            res = auction.getResult();
+            logInfo("Auction duality gap: " + auction.getGap());
+        } else {
+            logInfo("Hungarian mapping...");
+            Hungarian<V> hungarian = new Hungarian<>(simMat, Hungarian.ProblemType.maxLoc);
+            hungarian.setLogger(logger);
+            hungarian.run();
+            res = hungarian.getResult();
+        }
         // map
-        HashMap<Integer, V> rowIndexNameMap = simMat.getRowIndexNameMap();
-        HashMap<Integer, V> colIndexNameMap = simMat.getColIndexNameMap();
+        NodeIndex<V> rowIndex = simMat.getRowIndex();
+        NodeIndex<V> colIndex = simMat.getColIndex();
         HashMap<V, V> initMap = new HashMap<>();
         for (int i = 0; i < res.length; i++) {
             int j = res[i];
             if (j == -1) {
                 continue;
             }
-            initMap.put(rowIndexNameMap.get(i), colIndexNameMap.get(j));
+            initMap.put(rowIndex.get(i), colIndex.get(j));
         }
         return initMap;
     }
@@ -174,20 +256,33 @@ public class HGA<V, E> {
      * Greedily map the maximum value for each rows in the G matrix.
      */
     protected void greedyMap(SimMat<V> toMap, HashMap<V, V> preMap) {
-        HashMap<Integer, V> rowMap = toMap.getRowIndexNameMap();
-        HashSet<V> assign = new HashSet<>(preMap.values());
-        // no parallel here, assign is stateful
-        rowMap.keySet().forEach(i -> {
-            V tgt = rowMap.get(i);
-            if (!preMap.containsKey(tgt)) {
-                V mapStr = toMap.getMax(i, assign);
-                preMap.put(tgt, mapStr);
-                // graph mapping finished
-                if (mapStr != null) {
-                    assign.add(mapStr);
-                }
+        NodeIndex<V> rowIndex = toMap.getRowIndex();
+        NodeIndex<V> colIndex = toMap.getColIndex();
+        BitSet assigned = new BitSet(colIndex.size());
+        preMap.values().forEach(tgt -> {
+            int j = colIndex.indexOf(tgt);
+            if (j != -1) {
+                assigned.set(j);
             }
         });
+        BitSet mapped = new BitSet(rowIndex.size());
+        for (int i = 0; i < rowIndex.size(); i++) {
+            if (preMap.containsKey(rowIndex.get(i))) {
+                mapped.set(i);
+            }
+        }
+        // candidates are re-ranked rather than rebuilt across iterations
+        if (greedyMatcher == null) {
+            greedyMatcher = new GreedyMatcher();
+        }
+        greedyMatcher.update(toMap);
+        int[] res = greedyMatcher.match(assigned, mapped);
+        for (int i = 0; i < res.length; i++) {
+            if (!mapped.get(i)) {
+                // null for all nodes have been assigned
+                preMap.put(rowIndex.get(i), res[i] == -1 ? null : colIndex.get(res[i]));
+            }
+        }
     }
 
 
@@ -212,6 +307,9 @@ public class HGA<V, E> {
     protected void updatePairNeighbors(HashMap<V, V> mapping) {
         logInfo("adjust neighborhood similarity based on mapping result...");
         NBM<V, E> nbm = new NBM<>(index, target, simMat, mapping);
+        if (scalarCheck()) {
+            nbm.recordBefore(tracker()::adjusted);
+        }
         nbm.neighborSimAdjust();
     }
 
@@ -309,77 +407,147 @@ public class HGA<V, E> {
      * Notice: the result would be different when
      */
     protected void addAllTopology() {
-        Set<V> nodes1 = simMat.getRowMap().keySet();
-        Set<V> nodes2 = simMat.getColMap().keySet();
+        List<V> nodes1 = simMat.getRowIndex().nodes();
+        List<V> nodes2 = simMat.getColIndex().nodes();
         // parallel the rows
         // https://docs.oracle.com/javase/tutorial/collections/streams/parallelism.html
         // similarity matrix after the neighborhood adjustment
-        SimMat<V> preSimMat = simMat.dup();
-        sumPreSimMat = preSimMat.getMat().elementSum();
+        // the streaming check reads S(t-1) from the back buffer, so it swaps as well
+        SimMat<V> preSimMat = scalarCheck() ? buffers().swap(simMat) : simMat.dup();
+        sumPreSimMat = CommonOps_DDRM.elementSum(preSimMat.getMatView());
         // when index graph nodes scale is less than LIMIT then HGA uses parallel CPU instead
         // && nodes1.size() > LimitOfIndexGraph
+        // differences to the last two matrices are taken row by row while the rows are written,
+        // the GPU kernel writes all rows at once
+        ConvergenceTracker track = scalarCheck() ? tracker() : null;
+        if (track != null) {
+            track.begin(simMat.getDataView(), preSimMat.getDataView(), nodes1.size(), nodes2.size(), !GPU);
+        }
         if (GPU) {
             logInfo("AddTopology for all nodes pairs in two graphs with the GPU programming:");
             gpuForHGA(preSimMat);
+            if (track != null) {
+                IntStream.range(0, nodes1.size()).parallel().forEach(track::row);
+            }
+        } else if (CSR) {
+            logInfo("AddTopology for all nodes pairs in two graphs with the CSR-indexed CPU kernel:");
+            cpuForHGA(preSimMat, track);
+        } else if (track != null) {
+            logInfo("AddTopology for all nodes pairs in two graphs with the CPU parallel programming:");
+            IntStream.range(0, nodes1.size()).parallel().forEach(i -> {
+                V n1 = nodes1.get(i);
+                track.before(i);
+                nodes2.forEach(n2 -> addTopology(n1, n2, preSimMat));
+                track.row(i);
+            });
         } else {
             logInfo("AddTopology for all nodes pairs in two graphs with the CPU parallel programming:");
             nodes1.parallelStream().forEach(n1 -> nodes2.forEach(n2 -> addTopology(n1, n2, preSimMat)));
         }
-
+        if (track != null) {
+            track.end();
+        }
     }
 
     private void gpuForHGA(SimMat<V> preMat) {
-        // get nodes in order that double[] out can be visit by out[i,j]
-        Set<V> nodes1 = preMat.getRowMap().keySet();
-        Set<V> nodes2 = preMat.getColMap().keySet();
-        // prepare the input indexes for all neighbors and all non neighbors
-        // map
-        HashMap<V, Integer> rowMap = preMat.getRowMap();
-        HashMap<V, Integer> colMap = preMat.getColMap();
-        // positions for neighbors, non neighbors make a complement
-        Vector<Integer> nei_x = new Vector<>();
-        Vector<Integer> nei_y = new Vector<>();
-        // every node possibly share various number of neighbors, record the start
-        final int[] start_x = new int[nodes1.size() + 1];
-        final int[] start_y = new int[nodes2.size() + 1];
+        if (nei_x == null) {
+            initCSR(preMat);
+        }
         // so (i,j) in simMat -> int[] neighbors = nei_x[start_x[i],start_x[i+1]) and nei_y[start_y[j],start_y[j+1])
         // int[] non-neighbors = [0,n-1]-nei_x[start_x[i],start_x[i+1]) and [0,m-1]-nei_y[start_y[j],start_y[j+1])
-        // result to be polished
-        double[] out = simMat.getMat().data();
+        // result to be polished in place, every entry will be overwritten
+        double[] out = simMat.getDataForWrite();
         // preMat data
-        final double[] pre = preMat.getMat().data();
-        // original data
-        final double[] ori = originalMat.getMat().data();
-        // initialize nei_x
-        initNeighborToArray(nodes1, index, rowMap, nei_x, start_x);
-        // initialize nei_y
-        initNeighborToArray(nodes2, target, colMap, nei_y, start_y);
+        final double[] pre = preMat.getDataView();
+        // original data, densified once for the transfer if it is sparse
+        final double[] ori = originalData();
 
         GPUKernelForHGA kernel = new GPUKernelForHGA(
                 pre, ori, out, // 3 matrix
                 nei_x, start_x, // graph1 neighbors
                 nei_y, start_y, // graph2 neighbors
                 sumPreSimMat, // sum of mat
-                bioFactor);
-        Range range = Range.create(nodes1.size() * nodes2.size(), 1);
+                bioFactor,
+                closedForm);
+        Range range = Range.create((start_x.length - 1) * (start_y.length - 1), 1);
         kernel.execute(range).get(out);
-        simMat.setData(out);
         kernel.dispose();
     }
 
-    private void initNeighborToArray(Set<V> nodes, Graph<V, E> g,
-                                     HashMap<V, Integer> map, Vector<Integer> neighbors,
-                                     int[] starts) {
-        starts[0] = 0;
-        AtomicInteger c = new AtomicInteger(1);
-        nodes.forEach(n1 -> {
-            Set<V> nei = g.getNeb(n1);
-            nei.forEach(n -> neighbors.add(map.get(n)));
-            starts[c.get()] = nei.size() + starts[c.get() - 1];
-            c.getAndIncrement();
-        });
+    /**
+     * @return row-major data of the original matrix, a sparse one is densified on the first call only
+     */
+    private double[] originalData() {
+        if (!(originalMat instanceof SparseSimMat)) {
+            return originalMat.getDataView();
+        }
+        if (originalDenseOf != originalMat) {
+            originalDense = originalMat.getDataView();
+            originalDenseOf = originalMat;
+        }
+        return originalDense;
     }
 
+    /**
+     * @param track rows are handed to the tracker before they are written and once they are final,
+     *              null if not tracked
+     */
+    private void cpuForHGA(SimMat<V> preMat, ConvergenceTracker track) {
+        if (nei_x == null) {
+            initCSR(preMat);
+        }
+        // result to be polished in place, every entry will be overwritten
+        double[] out = simMat.getDataForWrite();
+        // preMat data
+        final double[] pre = preMat.getDataView();
+        // original data, a sparse one will be added after the kernel
+        final double[] ori = originalMat instanceof SparseSimMat ? null : originalMat.getDataView();
+        CPUKernelForHGA kernel = new CPUKernelForHGA(
+                pre, ori, out, // 3 matrix
+                nei_x, start_x, // graph1 neighbors
+                nei_y, start_y, // graph2 neighbors
+                sumPreSimMat, // sum of mat
+                bioFactor,
+                closedForm);
+        if (track != null) {
+            kernel.execute(track::before, r -> {
+                if (ori == null) {
+                    originalMat.scaleAddRowTo(r, out, bioFactor);
+                }
+                track.row(r);
+            });
+            return;
+        }
+        kernel.execute();
+        if (ori == null) {
+            originalMat.scaleAddTo(out, bioFactor);
+        }
+    }
+
+    /**
+     * Pack neighbors of index and target into CSR arrays following the row and column order of the matrix.
+     */
+    private void initCSR(SimMat<V> mat) {
+        start_x = new int[mat.getRowIndex().size() + 1];
+        start_y = new int[mat.getColIndex().size() + 1];
+        nei_x = initNeighborToCSR(index, mat.getRowIndex(), start_x);
+        nei_y = initNeighborToCSR(target, mat.getColIndex(), start_y);
+    }
+
+    private int[] initNeighborToCSR(Graph<V, E> g, NodeIndex<V> nodeIndex, int[] starts) {
+        int size = nodeIndex.size();
+        int[][] neighbors = new int[size][];
+        starts[0] = 0;
+        for (int i = 0; i < size; i++) {
+            neighbors[i] = nodeIndex.indexesOf(g.getNeb(nodeIndex.get(i)));
+            starts[i + 1] = starts[i] + neighbors[i].length;
+        }
+        int[] res = new int[starts[size]];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(neighbors[i], 0, res, starts[i], neighbors[i].length);
+        }
+        return res;
+    }
 
     /**
      * This step is used to score current mapping to indicate whether there's
@@ -415,19 +583,24 @@ public class HGA<V, E> {
     }
 
     private double getES(Vector<Pair<E, E>> mappingEdges) {
-        AtomicReference<Double> ES = new AtomicReference<>((double) 0);
+        NodeIndex<V> rowIndex = simMat.getRowIndex();
+        NodeIndex<V> colIndex = simMat.getColIndex();
+        double ES = 0;
         for (Iterator<Pair<E, E>> iterator = mappingEdges.iterator(); iterator.hasNext(); ) {
             Pair<E, E> map = iterator.next();
             E edge1 = map.getFirst();
             E edge2 = map.getSecond();
-            if (simMat.getVal(index.getEdgeSource(edge1), target.getEdgeSource(edge2)) > 0 &&
-                    simMat.getVal(index.getEdgeTarget(edge1), target.getEdgeTarget(edge2)) > 0) {
-                ES.updateAndGet(v -> v + edgeScore);
+            int n1_1 = rowIndex.indexOf(index.getEdgeSource(edge1));
+            int n1_2 = rowIndex.indexOf(index.getEdgeTarget(edge1));
+            int n2_1 = colIndex.indexOf(target.getEdgeSource(edge2));
+            int n2_2 = colIndex.indexOf(target.getEdgeTarget(edge2));
+            if (simMat.getVal(n1_1, n2_1) > 0 && simMat.getVal(n1_2, n2_2) > 0) {
+                ES += edgeScore;
             } else {
                 iterator.remove();
             }
         }
-        return ES.get();
+        return ES;
     }
 
     /**
@@ -436,17 +609,17 @@ public class HGA<V, E> {
     protected double getPS(Vector<Pair<E, E>> mappingEdges) {
         // parallel here there is no interference and no stateful lambda
         //https://docs.oracle.com/javase/tutorial/collections/streams/parallelism.html
-        AtomicReference<Double> PS = new AtomicReference<>((double) 0);
-        mappingEdges.parallelStream().forEach(map -> {
+        NodeIndex<V> rowIndex = simMat.getRowIndex();
+        NodeIndex<V> colIndex = simMat.getColIndex();
+        return mappingEdges.parallelStream().mapToDouble(map -> {
             E edge1 = map.getFirst();
             E edge2 = map.getSecond();
-            V n1_1 = index.getEdgeSource(edge1);
-            V n1_2 = index.getEdgeTarget(edge1);
-            V n2_1 = target.getEdgeSource(edge2);
-            V n2_2 = target.getEdgeTarget(edge2);
-            PS.updateAndGet(v -> v + simMat.getVal(n1_1, n2_1) + simMat.getVal(n1_2, n2_2));
-        });
-        return PS.get();
+            int n1_1 = rowIndex.indexOf(index.getEdgeSource(edge1));
+            int n1_2 = rowIndex.indexOf(index.getEdgeTarget(edge1));
+            int n2_1 = colIndex.indexOf(target.getEdgeSource(edge2));
+            int n2_2 = colIndex.indexOf(target.getEdgeTarget(edge2));
+            return simMat.getVal(n1_1, n2_1) + simMat.getVal(n1_2, n2_2);
+        }).sum();
     }
 
 
@@ -455,36 +628,50 @@ public class HGA<V, E> {
      */
     public Vector<Pair<E, E>> setEC(HashMap<V, V> mapping) {
         mappingEdges = new Vector<>();
-        // toMap will decrease when nodes have been checked
-        HashSet<V> toMap = new HashSet<>(mapping.keySet());
-        AtomicInteger count = new AtomicInteger();
-        for (Iterator<V> iterator = toMap.iterator(); iterator.hasNext(); ) {
-            V n1 = iterator.next();
+        // null if the target graph is too large for the bits, then its edges are looked up in the hash sets
+        BitAdjacency<V> adj2 = targetAdjacency();
+        NodeIndex<V> nodes2 = adj2 == null ? null : adj2.getNodeIndex();
+        // every edge of graph1 is checked once, from its end of the smaller order
+        NodeIndex<V> toMap = new NodeIndex<>(mapping.keySet());
+        int count = 0;
+        for (int a = 0; a < toMap.size(); a++) {
+            V n1 = toMap.get(a);
             V n1_ = mapping.get(n1);
-            iterator.remove();
-            Set<V> neighbors = index.getNeb(n1);
-            // parallel here there is no interference and no stateful lambda
-            //https://docs.oracle.com/javase/tutorial/collections/streams/parallelism.html
-            // overlap -> one edge in graph1(contains n1 as one node)
-            Collection<V> edge1s = neighbors.parallelStream().filter(toMap::contains).collect(Collectors.toList());
-            if (edge1s.size() == 0) {
+            if (n1_ == null || !target.containsVertex(n1_)) {
                 continue;
             }
-            // parallel here there is no interference and no stateful lambda
-            //https://docs.oracle.com/javase/tutorial/collections/streams/parallelism.html
-            // check graph2 -> have the corresponding "edge"
-            edge1s.parallelStream().forEach(n2 -> {
+            int a2 = nodes2 == null ? -1 : nodes2.indexOf(n1_);
+            for (V n2 : index.getNeb(n1)) {
+                if (toMap.indexOf(n2) <= a) {
+                    continue;
+                }
                 V n2_ = mapping.get(n2);
-                if (target.getNeb(n1_).contains(n2_)) {
-                    count.getAndIncrement();
+                if (n2_ == null || !target.containsVertex(n2_)) {
+                    continue;
+                }
+                // check graph2 -> have the corresponding "edge"
+                boolean connected = adj2 == null
+                        ? target.containsEdge(n1_, n2_) : adj2.get(a2, nodes2.indexOf(n2_));
+                if (connected) {
+                    count++;
                     mappingEdges.add(new Pair<>(index.getEdge(n1, n2), target.getEdge(n1_, n2_)));
                 }
-            });
+            }
         }
-        EC = (double) count.get() / index.edgeSet().size();
+        EC = (double) count / index.edgeSet().size();
         return mappingEdges;
     }
 
+    /**
+     * @return adjacency of the target graph in bits, built once, or null if the graph is too large for the bits
+     */
+    private BitAdjacency<V> targetAdjacency() {
+        if (targetAdj == null && BitAdjacency.fits(target.vertexSet().size())) {
+            targetAdj = target.getBitAdjMat();
+        }
+        return targetAdj;
+    }
+
 
     /**
      * Step 4: - check if the condition is passed
@@ -496,9 +683,15 @@ public class HGA<V, E> {
      * || -> determinant of matrix
      * ------------------------------------------
      * r = 0.01 to allow 1% error
+     * <p>
+     * With doubleBuffer or streamingCheck, the check is on scalars only, see {@link ConvergenceTracker}.
+     * </p>
      */
     protected boolean checkPassed(double tolerance) {
-
+        if (scalarCheck()) {
+            logInfo("Iteration:" + iterCount + "\t" + tracker());
+            return iterCount > iterMax || tracker.passed(tolerance);
+        }
         if (stackMat.size() == 3) {
             if (iterCount > iterMax) {
                 return true;
@@ -531,6 +724,56 @@ public class HGA<V, E> {
         return false;
     }
 
+    /**
+     * Clear the convergence history before iterating.
+     */
+    protected void initHistory() {
+        stackMat = new Stack<>();
+        stackScore = new Stack<>();
+        buffers = null;
+        tracker = null;
+    }
+
+    /**
+     * Record the matrix and the score of the current iteration for the convergence check.
+     */
+    protected void recordIteration() {
+        if (scalarCheck()) {
+            tracker().addScore(score);
+            return;
+        }
+        stackMat.push(simMat.getMat());
+        stackScore.push(score);
+    }
+
+    /**
+     * @return true if the convergence is checked by the {@link ConvergenceTracker} instead of the recorded matrices
+     */
+    private static boolean scalarCheck() {
+        return doubleBuffer || streamingCheck;
+    }
+
+    private ConvergenceTracker tracker() {
+        if (tracker == null) {
+            tracker = new ConvergenceTracker();
+        }
+        return tracker;
+    }
+
+    /**
+     * @return deltas and scores of the iterations, only recorded when doubleBuffer or streamingCheck is on
+     */
+    public ConvergenceTracker getTracker() {
+        return tracker();
+    }
+
+    private MatBuffers<V> buffers() {
+        if (buffers == null) {
+            buffers = new MatBuffers<>();
+        }
+        return buffers;
+    }
+
     public void run() {
         if (debugOut) {
             cleanDebugResult();
@@ -551,8 +794,7 @@ public class HGA<V, E> {
         this.simMat = simMat;
         this.iterCount = iterCount;
 
-        stackMat = new Stack<>();
-        stackScore = new Stack<>();
+        initHistory();
         boolean checkPassed;
         do {
             // log if needed
@@ -562,8 +804,7 @@ public class HGA<V, E> {
             // step 2 score the mapping
             scoreMapping(this.mapping);
             // record
-            stackMat.push(this.simMat.getMat().copy());
-            stackScore.push(score);
+            recordIteration();
             outDebug();
             // step 3 update based on mapped nodes
             updatePairNeighbors(this.mapping);
@@ -630,7 +871,19 @@ public class HGA<V, E> {
 
 
     public void outDebug() {
-        if (debugOut) {
+        if (!debugOut || traceEvery <= 0 || iterCount % traceEvery != 0) {
+            return;
+        }
+        if (asyncTrace) {
+            TraceSink sink = traceSink();
+            sink.matrix("matrix/matrix_" + iterCount, simMat.getDataView(),
+                    simMat.getRowIndex().size(), simMat.getColIndex().size());
+            int iter = iterCount;
+            double[] scores = {score, PE, EC, ES, PS};
+            HashMap<V, V> mappingCopy = new HashMap<>(mapping);
+            sink.text("scoring/scoring_" + iter, () -> scoringLines(iter, scores));
+            sink.text("mapping/mapping_" + iter, () -> mappingLines(mappingCopy));
+        } else {
             outPutMatrix(simMat.getMat(), false);
             outPutScoring(false, score, PE, EC, ES, PS);
             outPutMapping(mapping, false);
@@ -662,13 +915,7 @@ public class HGA<V, E> {
         logInfo("output scores");
         String path = debugOutputPath + "scoring/";
         Vector<String> scoreVec = new Vector<>();
-
-        scoreVec.add("Iteration: " + iterCount + "\n");
-        scoreVec.add("Score: " + scores[0] + "\n");
-        scoreVec.add("PE: " + scores[1] + "\n");
-        scoreVec.add("EC: " + scores[2] + "\n");
-        scoreVec.add("ES: " + scores[3] + "\n");
-        scoreVec.add("PS: " + scores[4] + "\n");
+        scoringLines(iterCount, scores).forEach(line -> scoreVec.add(line + "\n"));
         try {
             if (isResult) {
                 writer.setPath(path + "scoringResult_" + iter_res + ".txt");
@@ -685,7 +932,7 @@ public class HGA<V, E> {
         logInfo("output mapping");
         String path = debugOutputPath + "mapping/";
         Vector<String> mappingVec = new Vector<>();
-        mapping.forEach((k, v) -> mappingVec.add(k + " " + v + "\n"));
+        mappingLines(mapping).forEach(line -> mappingVec.add(line + "\n"));
         try {
             if (isResult) {
                 writer.setPath(path + "mappingResult_" + iter_res + ".txt");
@@ -698,6 +945,24 @@ public class HGA<V, E> {
         writer.write(mappingVec, false);
     }
 
+    private static List<String> scoringLines(int iter, double... scores) {
+        return Arrays.asList("Iteration: " + iter, "Score: " + scores[0], "PE: " + scores[1],
+                "EC: " + scores[2], "ES: " + scores[3], "PS: " + scores[4]);
+    }
+
+    private static <V> List<String> mappingLines(HashMap<V, V> mapping) {
+        List<String> lines = new ArrayList<>(mapping.size());
+        mapping.forEach((k, v) -> lines.add(k + " " + v));
+        return lines;
+    }
+
+    private TraceSink traceSink() {
+        if (traceSink == null) {
+            traceSink = new TraceSink(debugOutputPath, 2);
+        }
+        return traceSink;
+    }
+
     void cleanDebugResult() {
         debugOutputPath = System.getProperty("user.dir").replace('/', '\\') + "\\" + debugOutputPath;
         // use '\' to fit with linux
@@ -727,7 +992,7 @@ public class HGA<V, E> {
 
         score_res = score;
         mappingResult = new HashMap<>(mapping);
-        matrix_res = simMat.getMat().copy();
+        matrix_res = doubleBuffer ? buffers().keepResult(simMat) : simMat.getMat();
     }
 
     protected void initScores(double... scores) {
@@ -739,7 +1004,22 @@ public class HGA<V, E> {
     }
 
     public void outPutResult() {
-        if (debugOut) {
+        if (!debugOut) {
+            return;
+        }
+        if (asyncTrace) {
+            TraceSink sink = traceSink();
+            HashMap<V, V> result = mappingResult;
+            int iter = iterCount;
+            double[] scores = {score_res, PE_res, EC_res, ES_res, PS_res};
+            sink.text("mapping/mappingResult_" + iter_res, () -> mappingLines(result));
+            sink.matrix("matrix/matrixResult_" + iter_res, matrix_res.getDDRM().data,
+                    matrix_res.numRows(), matrix_res.numCols());
+            sink.text("scoring/scoringResult_" + iter_res, () -> scoringLines(iter, scores));
+            // the result is on disk once the run returns, a failure of the writer is thrown here
+            traceSink = null;
+            sink.close();
+        } else {
             outPutMapping(mappingResult, true);
             outPutMatrix(matrix_res, true);
             outPutScoring(true, score_res, PE_res, EC_res, ES_res, PS_res);
@@ -812,10 +1092,13 @@ public class HGA<V, E> {
 
     public void setIndex(Graph<V, E> index) {
         this.index = index;
+        this.nei_x = null;
     }
 
     public void setTarget(Graph<V, E> target) {
         this.target = target;
+        this.nei_x = null;
+        this.targetAdj = null;
     }
 
     public void setBioFactor(double bioFactor) {
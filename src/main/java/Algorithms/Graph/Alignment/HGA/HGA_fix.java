@@ -10,7 +10,6 @@ import org.jgrapht.alg.util.Pair;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Stack;
 import java.util.Vector;
 import java.util.logging.Logger;
 
@@ -49,7 +48,7 @@ public class HGA_fix<V, E> extends HGA<V, E> {
         this.index = udG1;
         this.target = udG2;
         this.originalMat = simMat.dup();
-        this.simMat = simMat;
+        this.simMat = simMat.toDense();
         this.forcedMappingForSame = forcedMappingForSame;
         this.tolerance = tolerance;
         // set up preferences
@@ -110,8 +109,7 @@ public class HGA_fix<V, E> extends HGA<V, E> {
         this.simMat = simMat;
         this.iterCount = iterCount;
 
-        stackMat = new Stack<>();
-        stackScore = new Stack<>();
+        initHistory();
         // only select once for rows which have more than 5 non-zero items
         this.mapping = initMapping(toRemap, forcedPart, splitLimit);
 
@@ -122,8 +120,7 @@ public class HGA_fix<V, E> extends HGA<V, E> {
             // step 1 score the mapping
             scoreMapping(this.mapping);
             // record
-            stackMat.push(this.simMat.getMat().copy());
-            stackScore.push(score);
+            recordIteration();
             outDebug();
             // step 2 update based on mapped nodes
             updatePairNeighbors(this.mapping);
@@ -153,9 +150,9 @@ public class HGA_fix<V, E> extends HGA<V, E> {
     protected HashMap<V, V> remap(HashMap<V, V> forced) {
         logInfo("Remap based on the updated matrix.");
         // G matrix -> left rows
-        SimMat<V> Gmatrix = simMat.getPart(simMat.getHungRowsLeft(), simMat.getColSet());
+        SimMat<V> Gmatrix = simMat.getPart(simMat.getHungRowsLeft(), simMat.getColSetView());
         // H matrix
-        SimMat<V> Hmatrix = simMat.getPart(simMat.getHungRows(), simMat.getColSet());
+        SimMat<V> Hmatrix = simMat.getPart(simMat.getHungRows(), simMat.getColSetView());
 
         // hungarian
         HashMap<V, V> mapping = getMappingFromHA(Hmatrix);
@@ -0,0 +1,48 @@
+package Algorithms.Graph.Alignment.HGA;
+
+import DS.Matrix.DenseMatrix;
+import DS.Matrix.SimMat;
+import DS.Matrix.StatisticsMatrix;
+
+/**
+ * Preallocated matrices of HGA in the double-buffer mode({@link HGA#doubleBuffer}), so no matrix is allocated
+ * after the first iterations no matter how many iterations are run:
+ * <ol>
+ *     <li>back: the previous similarity matrix for addAllTopology, it swaps its data with the working matrix
+ *     every iteration instead of a dup()</li>
+ *     <li>result: the best matrix so far, overwritten in place</li>
+ * </ol>
+ * No other matrix is recorded, the convergence is checked on the scalars of {@link ConvergenceTracker}.
+ */
+class MatBuffers<V> {
+    private SimMat<V> back;
+    private DenseMatrix result;
+
+    /**
+     * Swap the data of the working matrix with the back buffer, every entry of the working matrix
+     * has to be overwritten afterwards.
+     *
+     * @return the back buffer holding the values of the working matrix
+     */
+    SimMat<V> swap(SimMat<V> mat) {
+        if (back == null) {
+            back = mat.dup();
+        } else {
+            mat.swapMat(back);
+        }
+        return back;
+    }
+
+    /**
+     * Keep a copy of the matrix as the best result, the returned matrix is overwritten by the next call.
+     */
+    StatisticsMatrix keepResult(SimMat<V> mat) {
+        double[] data = mat.getDataView();
+        if (result == null) {
+            result = mat.getMat();
+        } else {
+            System.arraycopy(data, 0, result.data(), 0, data.length);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,207 @@
+package Algorithms.Graph.Alignment.HGA;
+
+import DS.Matrix.DenseMatrix;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Debug output of HGA written on a background thread({@link HGA#asyncTrace}), the iteration loop only copies
+ * the matrix data into a pooled snapshot buffer and goes on.
+ * <p>
+ * Matrices are dumped in binary instead of one string per entry:
+ * </p>
+ * <p>
+ * int rows, int cols, rows * cols doubles in row-major order, all little-endian
+ * </p>
+ * so a dump can be read back by {@link #readMatrix(String)}, or by numpy.fromfile(path, '&lt;f8', offset=8).
+ * Scores and mappings are small, they are still written as text.
+ * <p>
+ * The loop waits only when the writer is behind by all the snapshot buffers, so the memory is bounded. A matrix
+ * is written in chunks through one reused buffer, so its size is not limited by a ByteBuffer.
+ * </p>
+ * <p>
+ * The first failure of the writer is kept and thrown to the loop by the next call or by {@link #close()}.
+ * </p>
+ */
+public class TraceSink implements Closeable {
+    private static final int HEADER = 2 * Integer.BYTES;
+    // bytes written per channel.write
+    static final int CHUNK = 1 << 20;
+    private final String path;
+    private final ExecutorService executor;
+    // snapshots being written, the loop blocks when they are used up
+    private final Semaphore permits;
+    private final ConcurrentLinkedQueue<double[]> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    // only used by the writer thread
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * @param path    directory of the output, names of the dumps are relative to it
+     * @param buffers snapshots allowed to be pending
+     */
+    public TraceSink(String path, int buffers) {
+        this.path = path;
+        this.permits = new Semaphore(buffers);
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "HGA-trace");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Snapshot the matrix data and dump it to name + ".bin" in the background.
+     *
+     * @param data row-major matrix data, it can be modified once this method returns
+     */
+    public void matrix(String name, double[] data, int rows, int cols) {
+        rethrow();
+        permits.acquireUninterruptibly();
+        double[] snapshot = pool.poll();
+        if (snapshot == null || snapshot.length != data.length) {
+            snapshot = new double[data.length];
+        }
+        System.arraycopy(data, 0, snapshot, 0, data.length);
+        double[] toWrite = snapshot;
+        executor.execute(() -> {
+            try {
+                writeMatrix(resolve(name + ".bin"), toWrite, rows, cols);
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                pool.offer(toWrite);
+                permits.release();
+            }
+        });
+    }
+
+    /**
+     * Write the lines to name + ".txt" in the background, they are also formatted there, so the supplier
+     * should only capture copies.
+     */
+    public void text(String name, Supplier<List<String>> lines) {
+        rethrow();
+        executor.execute(() -> {
+            try {
+                Files.write(resolve(name + ".txt"), lines.get(), StandardCharsets.UTF_8);
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+        });
+    }
+
+    /**
+     * Throw the first failure of the writer if there is one, an IOException is wrapped.
+     */
+    private void rethrow() {
+        Throwable e = failure.getAndSet(null);
+        if (e == null) {
+            return;
+        }
+        if (e instanceof IOException) {
+            throw new UncheckedIOException("The trace could not be written.", (IOException) e);
+        }
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        }
+        throw (Error) e;
+    }
+
+    private Path resolve(String name) throws IOException {
+        Path file = Paths.get(path, name);
+        Files.createDirectories(file.getParent());
+        return file;
+    }
+
+    private void writeMatrix(Path file, double[] data, int rows, int cols) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            bytes.clear();
+            bytes.putInt(rows).putInt(cols);
+            int from = 0;
+            do {
+                int count = Math.min(data.length - from, bytes.remaining() / Double.BYTES);
+                // the view starts at the position of the buffer
+                bytes.asDoubleBuffer().put(data, from, count);
+                bytes.position(bytes.position() + count * Double.BYTES);
+                from += count;
+                bytes.flip();
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                bytes.clear();
+            } while (from < data.length);
+        }
+    }
+
+    /**
+     * Wait until all the pending output is written.
+     *
+     * @throws UncheckedIOException if some output could not be written
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rethrow();
+    }
+
+    /**
+     * Read a matrix dumped by {@link #matrix(String, double[], int, int)}.
+     */
+    public static DenseMatrix readMatrix(String file) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.limit(HEADER);
+            readFully(channel, buffer);
+            int rows = buffer.getInt();
+            int cols = buffer.getInt();
+            DenseMatrix mat = new DenseMatrix(rows, cols);
+            double[] data = mat.data();
+            for (int from = 0; from < data.length; ) {
+                int count = Math.min(data.length - from, CHUNK / Double.BYTES);
+                buffer.clear();
+                buffer.limit(count * Double.BYTES);
+                readFully(channel, buffer);
+                buffer.asDoubleBuffer().get(data, from, count);
+                from += count;
+            }
+            return mat;
+        }
+    }
+
+    /**
+     * Fill the buffer up to its limit and flip it.
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("The matrix dump ends early.");
+            }
+        }
+        buffer.flip();
+    }
+}
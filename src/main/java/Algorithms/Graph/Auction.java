@@ -0,0 +1,307 @@
+package Algorithms.Graph;
+
+import DS.Matrix.SimMat;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.logging.Logger;
+
+/**
+ * Auction algorithm for the assignment problem with epsilon-scaling, please refer to
+ * D. P. Bertsekas, "The auction algorithm: A distributed relaxation method for the assignment problem",
+ * Annals of Operations Research 14, 105-123 (1988).
+ * <p>
+ * Unassigned rows(persons) bid for their best columns(objects) at the same time(Jacobi version), so bids are
+ * computed in parallel on a ForkJoinPool and then resolved in row order, which keeps the result deterministic.
+ * Each phase solves the problem to epsilon-optimality starting from the prices of the previous phase, and epsilon
+ * shrinks until the final one.
+ * </p>
+ * <p>
+ * Rectangular matrices are solved by transposing the longer side(no copy) and padding the rows with dummy
+ * ones of value 0. The result has the same format as {@link Hungarian#getResult()}, and getGap() gives
+ * its duality gap, which is no more than epsilon * (max - min) of the values.
+ * </p>
+ */
+public class Auction<T> {
+    // final epsilon relative to the value range
+    public static final double DEFAULT_EPSILON = 1e-6;
+    // epsilon shrinks by this factor between phases
+    private static final double THETA = 5;
+    // rows to bid within a task
+    private static final int THRESHOLD = 64;
+
+    //---------------problem in original orientation------------
+    private final int rows;
+    private final int cols;
+    private final double sign;
+    //---------------problem to solve, n real rows padded to m------------
+    private final boolean transposed;
+    private final int n;
+    private final int m;
+    // value(i,j) = sign * data[i * rowStride + j * colStride] for real rows
+    private final double[] data;
+    private final int rowStride;
+    private final int colStride;
+
+    // final epsilon relative to the value range
+    private final double epsilon;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    //---------------auction------------
+    private double[] price;
+    private int[] owner;
+    private int[] object;
+    // bids of the current round
+    private double[] bid;
+    private int[] bidObject;
+
+    private int[] result;
+    private double gap;
+    // debug
+    public Logger logger;
+
+    public Auction(SimMat<T> mat, Hungarian.ProblemType type) {
+        this(mat, type, DEFAULT_EPSILON);
+    }
+
+    /**
+     * @param epsilon final epsilon relative to the value range(max - min), the result is within
+     *                epsilon * range of the optimum
+     */
+    public Auction(SimMat<T> mat, Hungarian.ProblemType type, double epsilon) {
+        this(mat.getDataView(), mat.getRowIndex().size(), mat.getColIndex().size(), type, epsilon);
+    }
+
+    /**
+     * @param data row-major dense matrix, it will not be modified
+     */
+    public Auction(double[] data, int rows, int cols, Hungarian.ProblemType type) {
+        this(data, rows, cols, type, DEFAULT_EPSILON);
+    }
+
+    /**
+     * @param data    row-major dense matrix, it will not be modified
+     * @param epsilon final epsilon relative to the value range(max - min), the result is within
+     *                epsilon * range of the optimum
+     */
+    public Auction(double[] data, int rows, int cols, Hungarian.ProblemType type, double epsilon) {
+        assert (data.length == rows * cols);
+        if (epsilon <= 0) {
+            throw new IllegalArgumentException("Epsilon should be positive.");
+        }
+        this.epsilon = epsilon;
+        this.rows = rows;
+        this.cols = cols;
+        this.sign = type == Hungarian.ProblemType.maxLoc ? 1 : -1;
+        this.transposed = rows > cols;
+        this.n = Math.min(rows, cols);
+        this.m = Math.max(rows, cols);
+        this.data = data;
+        this.rowStride = transposed ? 1 : cols;
+        this.colStride = transposed ? cols : 1;
+    }
+
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    private double value(int i, int j) {
+        return i < n ? sign * data[i * rowStride + j * colStride] : 0;
+    }
+
+    public void run() {
+        price = new double[m];
+        owner = new int[m];
+        object = new int[m];
+        bid = new double[m];
+        bidObject = new int[m];
+        if (m == 0) {
+            result = finish();
+            return;
+        }
+        double min = 0;
+        double max = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < m; j++) {
+                double v = value(i, j);
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+        }
+        double range = Math.max(max - min, Double.MIN_NORMAL);
+        double finalEps = epsilon * range / m;
+        double eps = Math.max(range / THETA, finalEps);
+        int phase = 0;
+        while (true) {
+            int rounds = auction(eps);
+            logInfo("Auction phase " + phase++ + ": epsilon = " + eps + ", " + rounds + " rounds");
+            if (eps <= finalEps) {
+                break;
+            }
+            eps = Math.max(eps / THETA, finalEps);
+        }
+        gap = dualityGap();
+        result = finish();
+    }
+
+    /**
+     * One epsilon phase from the current prices, all assignments are cleared first.
+     *
+     * @return bidding rounds
+     */
+    private int auction(double eps) {
+        Arrays.fill(owner, -1);
+        Arrays.fill(object, -1);
+        int[] unassigned = new int[m];
+        int[] next = new int[m];
+        for (int i = 0; i < m; i++) {
+            unassigned[i] = i;
+        }
+        int size = m;
+        // highest bidder of every object within a round
+        int[] bidder = new int[m];
+        Arrays.fill(bidder, -1);
+        int rounds = 0;
+        while (size > 0) {
+            rounds++;
+            pool.invoke(new BidTask(unassigned, 0, size, eps));
+            // resolve in row order
+            for (int k = 0; k < size; k++) {
+                int i = unassigned[k];
+                int j = bidObject[i];
+                if (bidder[j] == -1 || bid[i] > bid[bidder[j]]) {
+                    bidder[j] = i;
+                }
+            }
+            int nextSize = 0;
+            for (int k = 0; k < size; k++) {
+                int i = unassigned[k];
+                int j = bidObject[i];
+                if (bidder[j] != i) {
+                    // lost the bid
+                    next[nextSize++] = i;
+                    continue;
+                }
+                price[j] = bid[i];
+                if (owner[j] != -1) {
+                    object[owner[j]] = -1;
+                    next[nextSize++] = owner[j];
+                }
+                owner[j] = i;
+                object[i] = j;
+            }
+            for (int k = 0; k < size; k++) {
+                bidder[bidObject[unassigned[k]]] = -1;
+            }
+            int[] tmp = unassigned;
+            unassigned = next;
+            next = tmp;
+            size = nextSize;
+        }
+        return rounds;
+    }
+
+    /**
+     * Every row bids for its best object, raising the price by the margin to the second best plus epsilon.
+     */
+    private class BidTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int[] persons;
+        private final int from;
+        private final int to;
+        private final double eps;
+
+        BidTask(int[] persons, int from, int to, double eps) {
+            this.persons = persons;
+            this.from = from;
+            this.to = to;
+            this.eps = eps;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BidTask(persons, from, mid, eps), new BidTask(persons, mid, to, eps));
+                return;
+            }
+            for (int k = from; k < to; k++) {
+                int i = persons[k];
+                double best = Double.NEGATIVE_INFINITY;
+                double second = Double.NEGATIVE_INFINITY;
+                int bestJ = -1;
+                for (int j = 0; j < m; j++) {
+                    double w = value(i, j) - price[j];
+                    if (w > best) {
+                        second = best;
+                        best = w;
+                        bestJ = j;
+                    } else if (w > second) {
+                        second = w;
+                    }
+                }
+                // a single object
+                if (second == Double.NEGATIVE_INFINITY) {
+                    second = best;
+                }
+                bid[i] = price[bestJ] + best - second + eps;
+                bidObject[i] = bestJ;
+            }
+        }
+    }
+
+    /**
+     * dual(prices and profits) - primal(assignment), no less than 0.
+     */
+    private double dualityGap() {
+        double dual = 0;
+        double primal = 0;
+        for (int j = 0; j < m; j++) {
+            dual += price[j];
+        }
+        for (int i = 0; i < m; i++) {
+            double best = Double.NEGATIVE_INFINITY;
+            for (int j = 0; j < m; j++) {
+                best = Math.max(best, value(i, j) - price[j]);
+            }
+            dual += best;
+            primal += value(i, object[i]);
+        }
+        return Math.max(0, dual - primal);
+    }
+
+    private int[] finish() {
+        int[] result = new int[rows];
+        Arrays.fill(result, -1);
+        for (int i = 0; i < n; i++) {
+            if (transposed) {
+                result[object[i]] = i;
+            } else {
+                result[i] = object[i];
+            }
+        }
+        return result;
+    }
+
+    public int[] getResult() {
+        assert (result != null);
+        return result;
+    }
+
+    /**
+     * @return the duality gap of the result, the result is within the gap of the optimum
+     */
+    public double getGap() {
+        return gap;
+    }
+
+    public void setLogger(Logger logger) {
+        this.logger = logger;
+    }
+
+    private void logInfo(String message) {
+        if (logger != null) {
+            logger.info(message);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package Algorithms.Graph.Dynamic.Diffusion_Kernel;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Jacobi preconditioned Conjugate Gradient for the diffusion kernel system L x = q, L = D + loss*I - A, which is
+ * what DK computes by G = (I-G0A)^(-1)G0 = L^(-1).
+ * <p>
+ * L is symmetric and strictly diagonally dominant for loss > 0, hence positive definite, so CG converges
+ * without forming L: a product L x is computed from the CSC adjacency in O(|V| + |E|), and the memory is the
+ * adjacency plus a few vectors.
+ * </p>
+ * <p>
+ * A is symmetric, so column i of the CSC adjacency is row i as well.
+ * </p>
+ * <p>
+ * The solver holds no state of a solve, the statistics are returned in a {@link Result}, so it can be shared by
+ * threads.
+ * </p>
+ */
+public class ConjugateGradient {
+    // columns solved together
+    public static final int BLOCK = 8;
+    private final DMatrixSparseCSC adj;
+    // D + loss*I
+    private final double[] shift;
+    // 1 / L(i,i)
+    private final double[] jacobi;
+
+    /**
+     * @param adj     symmetric adjacency matrix
+     * @param degrees diagonal of D
+     * @param loss    a positive constant, the fluid loss out of each node
+     */
+    public ConjugateGradient(DMatrixSparseCSC adj, double[] degrees, double loss) {
+        if (loss <= 0) {
+            throw new IllegalArgumentException("The loss should be positive to keep the Laplacian definite.");
+        }
+        this.adj = adj;
+        int n = degrees.length;
+        this.shift = new double[n];
+        this.jacobi = new double[n];
+        for (int i = 0; i < n; i++) {
+            shift[i] = degrees[i] + loss;
+            jacobi[i] = 1 / (shift[i] - adj.get(i, i));
+        }
+    }
+
+    /**
+     * y = L x
+     */
+    public void mult(double[] x, double[] y) {
+        mult(x, y, 1);
+    }
+
+    /**
+     * Y = L X for a block of b vectors interleaved by rows, X(i,c) -> x[i * b + c], so the adjacency is
+     * traversed once for the whole block.
+     */
+    private void mult(double[] x, double[] y, int b) {
+        int[] colIdx = adj.col_idx;
+        int[] rows = adj.nz_rows;
+        double[] values = adj.nz_values;
+        for (int i = 0; i < shift.length; i++) {
+            int yi = i * b;
+            for (int c = 0; c < b; c++) {
+                y[yi + c] = shift[i] * x[yi + c];
+            }
+            for (int k = colIdx[i]; k < colIdx[i + 1]; k++) {
+                double v = values[k];
+                int xj = rows[k] * b;
+                for (int c = 0; c < b; c++) {
+                    y[yi + c] -= v * x[xj + c];
+                }
+            }
+        }
+    }
+
+    /**
+     * Solve L x = b, x is the initial guess and the solution.
+     *
+     * @param tolerance     stop when ||b - Lx|| <= tolerance * ||b||
+     * @param maxIterations the maximum number of iterations
+     * @return the statistics of the solve
+     */
+    public Result solve(double[] b, double[] x, double tolerance, int maxIterations) {
+        int[] its = new int[1];
+        double[] res = new double[1];
+        boolean converged = solve(b, x, 1, tolerance, maxIterations, its, res);
+        return new Result(converged, its[0], res[0], null);
+    }
+
+    /**
+     * Solve L X = B for all the columns of a sparse B, the preconditioner is shared and the columns are solved in
+     * blocks of {@link #BLOCK} in parallel, each block runs CG for its columns together over one traversal of
+     * the adjacency per iteration.
+     *
+     * @param B             right-hand sides, n * k
+     * @param tolerance     stop a column when ||b - Lx|| <= tolerance * ||b||
+     * @param maxIterations the maximum number of iterations
+     * @return the solutions, n * k, with the statistics of the worst column
+     */
+    public Result solve(DMatrixSparseCSC B, double tolerance, int maxIterations) {
+        int n = shift.length;
+        int k = B.numCols;
+        DMatrixRMaj X = new DMatrixRMaj(n, k);
+        int[] its = new int[k];
+        double[] res = new double[k];
+        int blocks = (k + BLOCK - 1) / BLOCK;
+        boolean converged = IntStream.range(0, blocks).parallel().mapToObj(block -> {
+            int from = block * BLOCK;
+            int b = Math.min(BLOCK, k - from);
+            double[] rhs = new double[n * b];
+            for (int c = 0; c < b; c++) {
+                for (int p = B.col_idx[from + c]; p < B.col_idx[from + c + 1]; p++) {
+                    rhs[B.nz_rows[p] * b + c] = B.nz_values[p];
+                }
+            }
+            double[] x = new double[n * b];
+            int[] blockIts = new int[b];
+            double[] blockRes = new double[b];
+            boolean ok = solve(rhs, x, b, tolerance, maxIterations, blockIts, blockRes);
+            for (int i = 0; i < n; i++) {
+                System.arraycopy(x, i * b, X.data, i * k + from, b);
+            }
+            System.arraycopy(blockIts, 0, its, from, b);
+            System.arraycopy(blockRes, 0, res, from, b);
+            return ok;
+        }).reduce(true, Boolean::logicalAnd);
+        return new Result(converged, Arrays.stream(its).max().orElse(0), Arrays.stream(res).max().orElse(0), X);
+    }
+
+    /**
+     * CG for a block of b systems interleaved by rows, every column has its own step sizes and stops on its own.
+     */
+    private boolean solve(double[] rhs, double[] x, int b, double tolerance, int maxIterations,
+                          int[] its, double[] res) {
+        int n = shift.length;
+        double[] r = new double[n * b];
+        double[] z = new double[n * b];
+        double[] p = new double[n * b];
+        double[] lp = new double[n * b];
+        double[] bNorm = new double[b];
+        double[] rz = new double[b];
+        double[] rr = new double[b];
+        double[] pLp = new double[b];
+        double[] alpha = new double[b];
+        double[] rzNew = new double[b];
+        // r = b - Lx, z = M^(-1)r
+        mult(x, lp, b);
+        for (int i = 0; i < n; i++) {
+            for (int c = 0, q = i * b; c < b; c++, q++) {
+                r[q] = rhs[q] - lp[q];
+                z[q] = jacobi[i] * r[q];
+                p[q] = z[q];
+                bNorm[c] += rhs[q] * rhs[q];
+                rz[c] += r[q] * z[q];
+                rr[c] += r[q] * r[q];
+            }
+        }
+        double[] threshold = new double[b];
+        boolean[] active = new boolean[b];
+        int remaining = 0;
+        for (int c = 0; c < b; c++) {
+            threshold[c] = tolerance * tolerance * bNorm[c];
+            active[c] = rr[c] > threshold[c];
+            if (active[c]) {
+                remaining++;
+            }
+        }
+        for (int it = 0; remaining > 0 && it < maxIterations; it++) {
+            mult(p, lp, b);
+            Arrays.fill(pLp, 0);
+            for (int i = 0; i < n; i++) {
+                for (int c = 0, q = i * b; c < b; c++, q++) {
+                    pLp[c] += p[q] * lp[q];
+                }
+            }
+            Arrays.fill(rzNew, 0);
+            for (int c = 0; c < b; c++) {
+                // a converged column keeps its solution
+                alpha[c] = active[c] ? rz[c] / pLp[c] : 0;
+                if (active[c]) {
+                    rr[c] = 0;
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                for (int c = 0, q = i * b; c < b; c++, q++) {
+                    if (!active[c]) {
+                        continue;
+                    }
+                    x[q] += alpha[c] * p[q];
+                    r[q] -= alpha[c] * lp[q];
+                    z[q] = jacobi[i] * r[q];
+                    rr[c] += r[q] * r[q];
+                    rzNew[c] += r[q] * z[q];
+                }
+            }
+            for (int c = 0; c < b; c++) {
+                if (!active[c]) {
+                    continue;
+                }
+                double beta = rzNew[c] / rz[c];
+                rz[c] = rzNew[c];
+                for (int i = 0, q = c; i < n; i++, q += b) {
+                    p[q] = z[q] + beta * p[q];
+                }
+                its[c]++;
+                if (rr[c] <= threshold[c]) {
+                    active[c] = false;
+                    remaining--;
+                }
+            }
+        }
+        for (int c = 0; c < b; c++) {
+            res[c] = bNorm[c] == 0 ? 0 : Math.sqrt(rr[c] / bNorm[c]);
+        }
+        return remaining == 0;
+    }
+
+    public int size() {
+        return shift.length;
+    }
+
+    /**
+     * Statistics of one solve, the most iterations and the largest relative residual of the columns for a batch.
+     */
+    public static final class Result {
+        private final boolean converged;
+        private final int iterations;
+        private final double residual;
+        private final DMatrixRMaj solution;
+
+        private Result(boolean converged, int iterations, double residual, DMatrixRMaj solution) {
+            this.converged = converged;
+            this.iterations = iterations;
+            this.residual = residual;
+            this.solution = solution;
+        }
+
+        /**
+         * @return true if every column converged
+         */
+        public boolean isConverged() {
+            return converged;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        /**
+         * @return relative residual ||b - Lx|| / ||b||
+         */
+        public double getResidual() {
+            return residual;
+        }
+
+        /**
+         * @return the solutions of a batch, n * k, null for a single vector which is solved in place
+         */
+        public DMatrixRMaj getSolution() {
+            return solution;
+        }
+    }
+}
@@ -3,17 +3,19 @@ package Algorithms.Graph.Dynamic.Diffusion_Kernel;
 import DS.Matrix.DenseMatrix;
 import DS.Matrix.SparseMatrix;
 import DS.Matrix.StatisticsMatrix;
+import DS.Matrix.TopScores;
 import DS.Network.Graph;
+import DS.Network.NodeIndex;
 import org.ejml.data.DMatrixRMaj;
 import org.ejml.data.DMatrixSparseCSC;
 import org.ejml.data.Matrix;
+import org.ejml.data.MatrixType;
 import org.ejml.sparse.csc.CommonOps_DSCC;
 
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
-import java.util.Vector;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * DK stands for Graph Diffusion Kernel, which is an algorithm aimed to
@@ -29,18 +31,38 @@ import java.util.concurrent.atomic.AtomicInteger;
  * @Blog www.haotian.life
  */
 public class DK<V, E> {
+    // how the kernel is applied to the query
+    public static Solver solver = Solver.inverse;
+    // relative residual of the iterative solvers
+    public static double tolerance = 1e-10;
+    public static int maxIterations = 10000;
+    // stop the series when the bound of its tail is within this fraction of the scores, or after maxSteps with
+    // the truncated scores, see getSeriesBound()
+    public static double seriesTolerance = 1e-4;
+    // enough for the human PPI of COV19 at loss 0.5, where hubs keep the contraction rate near 1
+    public static int maxSteps = 1000;
+
+    /**
+     * Ways to get the scores L^(-1) * query, L = D + loss*I - A: the dense inverse of the paper,
+     * {@link ConjugateGradient} on the sparse adjacency, which never forms the n*n kernel, or the sparse Cholesky
+     * factor of L cached by the {@link DiffusionModel}, or the truncated power series of the kernel by
+     * {@link NeumannSeries}, an approximation for ranking.
+     */
+    public enum Solver {inverse, cg, cholesky, series}
+
     private final Set<V> nodes; // nodes to propagate
-    private final Graph<V, E> tgtG;
+    private final DiffusionModel<V> model; // shared by the kernels on the same graph
     private final int tgtSize;
-    private Vector<V> tgtNodes; // vector of nodes to propagate
 
     // algorithm's params
     private StatisticsMatrix adjMat; // adjacent matrix of the Graph tgtG
     private StatisticsMatrix query; // a boolean vector to indicate query nodes(introducing the flow)
     private final double loss; // loss fluid within each node
-    private StatisticsMatrix dia; //a diagonal matrix with Sii which is the degree of node i ∈ V
+    private double[] degrees; // Sii which is the degree of node i ∈ V
     private StatisticsMatrix result; // stable system
-    private HashMap<V, Integer> nodesMap;
+    private NodeIndex<V> nodesMap;
+    // bound of ||exact - result||inf of the last run by the series
+    private double seriesBound = Double.NaN;
 
     // internal
 
@@ -51,42 +73,58 @@ public class DK<V, E> {
      *             larger loss leads to faster loss, hence short diffusive paths
      */
     public DK(Set<V> nodes, Graph<V, E> tgtG, double loss) {
+        this(nodes, new DiffusionModel<>(tgtG), loss);
+    }
+
+    /**
+     * Reuse what is built from the target graph, for many queries or losses on the same graph.
+     *
+     * @param nodes nodes in the subgraph
+     * @param model the model of the target graph
+     * @param loss  a constant non-zero value which means the fluid loss out of each node
+     */
+    public DK(Set<V> nodes, DiffusionModel<V> model, double loss) {
         this.nodes = nodes;
-        this.tgtG = tgtG;
-        this.tgtSize = tgtG.vertexSet().size();
+        this.model = model;
+        this.tgtSize = model.size();
         // initialize loss
         this.loss = loss;
-        this.tgtNodes = new Vector<>(tgtG.vertexSet());
         init();
     }
 
     /**
-     * initialize other data in need.
+     * Without a bound query, for {@link #run(List)} only.
+     *
+     * @param tgtG the connections needed to do the dynamic changes, normally a large graph
+     * @param loss a constant non-zero value which means the fluid loss out of each node
+     */
+    public DK(Graph<V, E> tgtG, double loss) {
+        this(Collections.emptySet(), tgtG, loss);
+    }
+
+    /**
+     * Without a bound query, for {@link #run(List)} only.
+     *
+     * @param model the model of the target graph
+     * @param loss  a constant non-zero value which means the fluid loss out of each node
+     */
+    public DK(DiffusionModel<V> model, double loss) {
+        this(Collections.emptySet(), model, loss);
+    }
+
+    /**
+     * initialize other data in need, the graph parts are shared by the model.
      */
     private void init() {
         // get maps of nodes' names to indexes in the matrix
-        initMap();
+        nodesMap = model.getNodeIndex();
         // adjacent matrix
-        initAdj();
+        adjMat = new SparseMatrix();
+        adjMat.setMat(model.getAdjacency());
+        // degrees
+        degrees = model.getDegrees();
         // query nodes vector
         initQry();
-        // diagonal matrix
-        initDia();
-    }
-
-    private void initMap() {
-        this.nodesMap = new HashMap<>();
-        for (int i = 0; i < tgtSize; i++) {
-            nodesMap.put(tgtNodes.get(i), i);
-        }
-    }
-
-    private void initDia() {
-        Set<V> tgtN = tgtG.vertexSet();
-        double[] data = new double[tgtSize];
-        AtomicInteger i = new AtomicInteger(-1);
-        tgtN.forEach(t -> data[i.addAndGet(1)] = tgtG.degreeOf(t));
-        dia = SparseMatrix.createDia(data);
     }
 
     /**
@@ -100,43 +138,29 @@ public class DK<V, E> {
         Arrays.fill(queryArray, 1.);
         // check source
         // prepare col to store the source annotation
-        Vector<Integer> rows = new Vector<>();
-        for (int i = 0; i < tgtNodes.size(); i++) {
-            V t = tgtNodes.get(i);
-            if(nodes.contains(t)){
-                rows.add(i);
-            }
-        }
+        int[] rows = nodes.stream().mapToInt(nodesMap::indexOf).filter(i -> i != -1).sorted().toArray();
         int[] columns = new int[nodes.size()];
-        query = new SparseMatrix(tgtSize, 1,rows.stream().mapToInt(i->i).toArray(), columns, queryArray);
-    }
-
-    /**
-     * Prepare the adjacent matrix using boolean to denote whether
-     * A(i,j) is connected.
-     *
-     * <p>Notice:</p>
-     * <p>
-     * the one dimensional array is organized by
-     * j*rows + i
-     * </p>
-     */
-    private void initAdj() {
-        adjMat = new SparseMatrix(tgtSize, tgtSize, 2*tgtG.edgeSet().size());
-        tgtG.edgeSet().forEach(e->{
-            V v1 = tgtG.getEdgeSource(e);
-            V v2 = tgtG.getEdgeTarget(e);
-            int i = nodesMap.get(v1);
-            int j = nodesMap.get(v2);
-            adjMat.set(i, j, 1.);
-            adjMat.set(j, i, 1.);
-        });
+        query = new SparseMatrix(tgtSize, 1, rows, columns, queryArray);
     }
 
     /**
      * Public interface for users to run Diffusion Kernel
      */
     public void run() {
+        seriesBound = Double.NaN;
+        if (solver == Solver.series) {
+            double[] x = new double[tgtSize];
+            seriesBound = model.solveSeries(loss, model.queryVector(nodes), x);
+            result = new StatisticsMatrix();
+            result.setMat(DMatrixRMaj.wrap(tgtSize, 1, x));
+            return;
+        }
+        if (solver != Solver.inverse) {
+            StatisticsMatrix res = new StatisticsMatrix();
+            res.setMat(DMatrixRMaj.wrap(tgtSize, 1, model.solve(solver, loss, model.queryVector(nodes))));
+            result = res;
+            return;
+        }
         // G is kernel
         StatisticsMatrix G = getG();
         // compute the equilibrium state
@@ -152,6 +176,8 @@ public class DK<V, E> {
      */
     private StatisticsMatrix getSelfItem() {
         SparseMatrix I = SparseMatrix.createIdentity(tgtSize);
+        // a diagonal matrix with Sii which is the degree of node i ∈ V
+        StatisticsMatrix dia = SparseMatrix.createDia(degrees);
         return dia.plus(I.scale(loss)).inverseDig();
     }
     /**
@@ -171,6 +197,53 @@ public class DK<V, E> {
         mat_.setMat(inverse);
         return mat_.mult(G0);
     }
+
+    /**
+     * Scores of many query sets against the same graph, the queries are columns of a sparse n*k right-hand
+     * side: the kernel is inverted once for {@link Solver#inverse}, {@link Solver#cg} shares the
+     * preconditioner and solves the columns in parallel blocks, see {@link ConjugateGradient#solve(DMatrixSparseCSC, double, int)},
+     * and {@link Solver#cholesky} factors L once.
+     *
+     * @param queries query node sets, nodes not in the graph are ignored
+     * @return n*k scores, row i is the node of index i in {@link #getNodeIndex()}, column c is queries[c]
+     */
+    public StatisticsMatrix run(List<? extends Set<V>> queries) {
+        seriesBound = Double.NaN;
+        SparseMatrix Q = new SparseMatrix();
+        Q.setMat(queryMatrix(queries));
+        if (solver == Solver.inverse) {
+            return getG().mult(Q);
+        }
+        StatisticsMatrix res = new StatisticsMatrix();
+        if (solver == Solver.series) {
+            DMatrixRMaj X = new DMatrixRMaj(tgtSize, queries.size());
+            seriesBound = model.solveSeries(loss, (DMatrixSparseCSC) Q.getMatrix(), X);
+            res.setMat(X);
+            return res;
+        }
+        res.setMat(model.solve(solver, loss, (DMatrixSparseCSC) Q.getMatrix()));
+        return res;
+    }
+
+    /**
+     * @return query c -> column c with ones at the rows of its nodes
+     */
+    private DMatrixSparseCSC queryMatrix(List<? extends Set<V>> queries) {
+        int total = queries.stream().mapToInt(Set::size).sum();
+        DMatrixSparseCSC mat = new DMatrixSparseCSC(tgtSize, queries.size(), total);
+        int nz = 0;
+        for (int c = 0; c < queries.size(); c++) {
+            int[] rows = queries.get(c).stream().mapToInt(nodesMap::indexOf).filter(i -> i != -1).sorted().toArray();
+            System.arraycopy(rows, 0, mat.nz_rows, nz, rows.length);
+            Arrays.fill(mat.nz_values, nz, nz + rows.length, 1.);
+            nz += rows.length;
+            mat.col_idx[c + 1] = nz;
+        }
+        mat.nz_length = nz;
+        mat.indicesSorted = true;
+        return mat;
+    }
+
 /**
  * P_ss = Kernel * query vector
  * @return the score vector for every node in the graph
@@ -183,4 +256,49 @@ public class DK<V, E> {
     public StatisticsMatrix getResult() {
         return result;
     }
+
+    /**
+     * The series stops at {@link #maxSteps} with truncated scores if the tolerance is not reached, which still
+     * rank the nodes well, compare the bound with the scores to tell.
+     *
+     * @return bound of the error of the scores of the last run by {@link Solver#series}, the largest of the
+     * queries for {@link #run(List)}, NaN for the other solvers
+     */
+    public double getSeriesBound() {
+        return seriesBound;
+    }
+
+    /**
+     * The best k nodes of the result, see {@link TopScores#nodes(NodeIndex)} with {@link #getNodeIndex()} for
+     * their names.
+     *
+     * @param threshold scores below it are pruned
+     */
+    public TopScores getTop(int k, double threshold) {
+        return getTop(result, 0, k, threshold);
+    }
+
+    /**
+     * The best k nodes of a column of the scores, e.g. a query of {@link #run(List)}. The scores are only read,
+     * a sparse column is read in place.
+     */
+    public static TopScores getTop(StatisticsMatrix scores, int column, int k, double threshold) {
+        if (scores.getType() == MatrixType.DDRM) {
+            return TopScores.of((DMatrixRMaj) scores.getMatrix(), column, k, threshold);
+        }
+        if (scores.getType() == MatrixType.DSCC) {
+            return TopScores.of((DMatrixSparseCSC) scores.getMatrix(), column, k, threshold);
+        }
+        // a dense copy of the other types
+        StatisticsMatrix dense = scores.copy();
+        dense.convertToDense();
+        return TopScores.of((DMatrixRMaj) dense.getMatrix(), column, k, threshold);
+    }
+
+    /**
+     * @return node -> row of the scores
+     */
+    public NodeIndex<V> getNodeIndex() {
+        return nodesMap;
+    }
 }
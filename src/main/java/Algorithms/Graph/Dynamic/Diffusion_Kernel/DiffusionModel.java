@@ -0,0 +1,293 @@
+package Algorithms.Graph.Dynamic.Diffusion_Kernel;
+
+import DS.Matrix.SparseMatrix;
+import DS.Network.Graph;
+import DS.Network.NodeIndex;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.interfaces.linsol.LinearSolverSparse;
+import org.ejml.ops.DConvertMatrixStruct;
+import org.ejml.sparse.FillReducing;
+import org.ejml.sparse.csc.factory.LinearSolverFactory_DSCC;
+
+import java.util.Arrays;
+
+/**
+ * What the diffusion kernel needs from a target graph, built once and shared by every {@link DK} on it: the
+ * interned nodes, the CSC adjacency and the degrees. Sweeping the loss or the queries on the same graph only
+ * solves L x = q, L = D + loss*I - A, again.
+ * <p>
+ * The solvers are cached by the loss of the last solve:
+ * <ul>
+ *     <li>{@link DK.Solver#cg}: the Jacobi preconditioner</li>
+ *     <li>{@link DK.Solver#cholesky}: the sparse Cholesky factor of L, SPD for loss > 0, so a later query costs
+ *     two triangular solves. L keeps the same pattern for every loss, so a new loss only refactors the values
+ *     with the symbolic analysis kept. There is no fill-reducing ordering, so the factor of a large graph with
+ *     hubs can be much denser than L, use cg for those.</li>
+ *     <li>{@link DK.Solver#series}: G0 and the contraction rate of the series</li>
+ * </ul>
+ * The caches are guarded by the model, so it can be shared by threads.
+ * </p>
+ *
+ * @param <V> vertex type
+ */
+public class DiffusionModel<V> {
+    private final NodeIndex<V> nodesMap;
+    private final DMatrixSparseCSC adj;
+    private final double[] degrees;
+    //---------------cached solvers------------
+    private ConjugateGradient cg;
+    private double cgLoss = Double.NaN;
+    // L with the diagonal of column j at diagSlots[j]
+    private DMatrixSparseCSC laplacian;
+    private int[] diagSlots;
+    private LinearSolverSparse<DMatrixSparseCSC, DMatrixRMaj> cholesky;
+    private double choleskyLoss = Double.NaN;
+    private NeumannSeries series;
+    private double seriesLoss = Double.NaN;
+
+    /**
+     * @param tgtG the target graph, nodes are indexed by the iteration order of its vertex set
+     */
+    public DiffusionModel(Graph<V, ?> tgtG) {
+        this.nodesMap = new NodeIndex<>(tgtG.vertexSet());
+        int n = nodesMap.size();
+        // filled by columns from the neighbors, instead of inserting every entry into the CSC
+        adj = new DMatrixSparseCSC(n, n, 2 * tgtG.edgeSet().size());
+        degrees = new double[n];
+        int nz = 0;
+        for (int j = 0; j < n; j++) {
+            V v = nodesMap.get(j);
+            degrees[j] = tgtG.degreeOf(v);
+            int start = nz;
+            for (V u : tgtG.getNeb(v)) {
+                if (nz == adj.nz_rows.length) {
+                    adj.growMaxLength(nz * 2 + 1, true);
+                }
+                adj.nz_rows[nz] = nodesMap.indexOf(u);
+                adj.nz_values[nz++] = 1.;
+            }
+            Arrays.sort(adj.nz_rows, start, nz);
+            adj.col_idx[j + 1] = nz;
+        }
+        adj.nz_length = nz;
+        adj.indicesSorted = true;
+    }
+
+    /**
+     * @return node -> row of the scores
+     */
+    public NodeIndex<V> getNodeIndex() {
+        return nodesMap;
+    }
+
+    /**
+     * @return the symmetric adjacency, which should not be modified
+     */
+    public DMatrixSparseCSC getAdjacency() {
+        return adj;
+    }
+
+    /**
+     * @return diagonal of D, a self-loop is counted twice, which should not be modified
+     */
+    public double[] getDegrees() {
+        return degrees;
+    }
+
+    public int size() {
+        return nodesMap.size();
+    }
+
+    /**
+     * @param nodes query nodes, nodes not in the graph are ignored
+     * @return the query vector, 1 at the rows of the nodes
+     */
+    public double[] queryVector(Iterable<V> nodes) {
+        double[] q = new double[size()];
+        for (V v : nodes) {
+            int i = nodesMap.indexOf(v);
+            if (i != -1) {
+                q[i] = 1.;
+            }
+        }
+        return q;
+    }
+
+    /**
+     * Solve L x = q, approximately by the series, see {@link #solveSeries(double, double[], double[])} for its
+     * bound.
+     *
+     * @param solver {@link DK.Solver#cg}, {@link DK.Solver#cholesky} or {@link DK.Solver#series}
+     * @return the scores of every node
+     */
+    public double[] solve(DK.Solver solver, double loss, double[] q) {
+        if (solver == DK.Solver.series) {
+            double[] x = new double[size()];
+            solveSeries(loss, q, x);
+            return x;
+        }
+        if (solver == DK.Solver.cholesky) {
+            DMatrixRMaj x = new DMatrixRMaj(size(), 1);
+            solveCholesky(loss, DMatrixRMaj.wrap(size(), 1, q.clone()), x);
+            return x.data;
+        }
+        ConjugateGradient cg = conjugateGradient(solver, loss);
+        double[] x = new double[size()];
+        ConjugateGradient.Result result = cg.solve(q, x, DK.tolerance, DK.maxIterations);
+        if (!result.isConverged()) {
+            throw notConverged(result);
+        }
+        return x;
+    }
+
+    /**
+     * Solve L X = Q for every column of Q, approximately by the series.
+     *
+     * @param solver {@link DK.Solver#cg}, {@link DK.Solver#cholesky} or {@link DK.Solver#series}
+     * @return n*k scores
+     */
+    public DMatrixRMaj solve(DK.Solver solver, double loss, DMatrixSparseCSC Q) {
+        if (solver == DK.Solver.series) {
+            DMatrixRMaj X = new DMatrixRMaj(Q.numRows, Q.numCols);
+            solveSeries(loss, Q, X);
+            return X;
+        }
+        if (solver == DK.Solver.cholesky) {
+            DMatrixRMaj B = new DMatrixRMaj(Q.numRows, Q.numCols);
+            DConvertMatrixStruct.convert(Q, B);
+            DMatrixRMaj X = new DMatrixRMaj(Q.numRows, Q.numCols);
+            solveCholesky(loss, B, X);
+            return X;
+        }
+        ConjugateGradient cg = conjugateGradient(solver, loss);
+        ConjugateGradient.Result result = cg.solve(Q, DK.tolerance, DK.maxIterations);
+        if (!result.isConverged()) {
+            throw notConverged(result);
+        }
+        return result.getSolution();
+    }
+
+    private static IllegalStateException notConverged(ConjugateGradient.Result result) {
+        return new IllegalStateException("The diffusion kernel did not converge in " + result.getIterations()
+                + " iterations, relative residual: " + result.getResidual());
+    }
+
+    /**
+     * Sum the series of the kernel for q into x, up to {@link DK#seriesTolerance} or {@link DK#maxSteps}.
+     *
+     * @return the bound of ||G q - x||inf, which may be above the tolerance if the sum is cut at the steps
+     */
+    public double solveSeries(double loss, double[] q, double[] x) {
+        return series(loss).apply(q, x, DK.seriesTolerance, DK.maxSteps);
+    }
+
+    /**
+     * Sum the series of the kernel for every column of Q into X.
+     *
+     * @return the largest bound of the columns, see {@link #solveSeries(double, double[], double[])}
+     */
+    public double solveSeries(double loss, DMatrixSparseCSC Q, DMatrixRMaj X) {
+        // column by column, every product is parallel already
+        NeumannSeries series = series(loss);
+        double[] q = new double[Q.numRows];
+        double[] x = new double[Q.numRows];
+        double bound = 0;
+        for (int c = 0; c < Q.numCols; c++) {
+            Arrays.fill(q, 0);
+            for (int p = Q.col_idx[c]; p < Q.col_idx[c + 1]; p++) {
+                q[Q.nz_rows[p]] = Q.nz_values[p];
+            }
+            bound = Math.max(bound, series.apply(q, x, DK.seriesTolerance, DK.maxSteps));
+            for (int i = 0; i < x.length; i++) {
+                X.unsafe_set(i, c, x[i]);
+            }
+        }
+        return bound;
+    }
+
+    private synchronized ConjugateGradient conjugateGradient(DK.Solver solver, double loss) {
+        if (solver != DK.Solver.cg) {
+            throw new IllegalArgumentException("The model solves by cg, cholesky or series only, but " + solver);
+        }
+        if (cg == null || cgLoss != loss) {
+            cg = new ConjugateGradient(adj, degrees, loss);
+            cgLoss = loss;
+        }
+        return cg;
+    }
+
+    private synchronized NeumannSeries series(double loss) {
+        if (series == null || seriesLoss != loss) {
+            SparseMatrix A = new SparseMatrix();
+            A.setMat(adj);
+            series = new NeumannSeries(A, degrees, loss);
+            seriesLoss = loss;
+        }
+        return series;
+    }
+
+    /**
+     * Factor L for the loss if it is not the cached one, and solve by the factor, the solver is not shared by
+     * threads.
+     */
+    private synchronized void solveCholesky(double loss, DMatrixRMaj B, DMatrixRMaj X) {
+        if (loss <= 0) {
+            throw new IllegalArgumentException("The loss should be positive to keep the Laplacian definite.");
+        }
+        if (cholesky == null || choleskyLoss != loss) {
+            if (laplacian == null) {
+                initLaplacian();
+            }
+            for (int j = 0; j < size(); j++) {
+                laplacian.nz_values[diagSlots[j]] = degrees[j] + loss - adj.get(j, j);
+            }
+            if (cholesky == null) {
+                cholesky = LinearSolverFactory_DSCC.cholesky(FillReducing.NONE);
+                if (!cholesky.setA(laplacian)) {
+                    cholesky = null;
+                    throw new IllegalStateException("The Laplacian can not be factored.");
+                }
+                // the pattern is the same for every loss
+                cholesky.setStructureLocked(true);
+            } else if (!cholesky.setA(laplacian)) {
+                throw new IllegalStateException("The Laplacian can not be factored.");
+            }
+            choleskyLoss = loss;
+        }
+        cholesky.solve(B, X);
+    }
+
+    /**
+     * The pattern of L, which is A with the diagonal, off-diagonal values are -A(i,j).
+     */
+    private void initLaplacian() {
+        int n = size();
+        laplacian = new DMatrixSparseCSC(n, n, adj.nz_length + n);
+        diagSlots = new int[n];
+        int nz = 0;
+        for (int j = 0; j < n; j++) {
+            boolean diag = false;
+            for (int k = adj.col_idx[j]; k < adj.col_idx[j + 1]; k++) {
+                int i = adj.nz_rows[k];
+                if (!diag && i >= j) {
+                    diagSlots[j] = nz;
+                    laplacian.nz_rows[nz++] = j;
+                    diag = true;
+                    if (i == j) {
+                        continue;
+                    }
+                }
+                laplacian.nz_rows[nz] = i;
+                laplacian.nz_values[nz++] = -adj.nz_values[k];
+            }
+            if (!diag) {
+                diagSlots[j] = nz;
+                laplacian.nz_rows[nz++] = j;
+            }
+            laplacian.col_idx[j + 1] = nz;
+        }
+        laplacian.nz_length = nz;
+        laplacian.indicesSorted = true;
+    }
+}
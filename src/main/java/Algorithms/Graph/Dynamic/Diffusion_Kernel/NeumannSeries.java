@@ -0,0 +1,95 @@
+package Algorithms.Graph.Dynamic.Diffusion_Kernel;
+
+import DS.Matrix.SparseMatrix;
+
+/**
+ * Approximate scores by the truncated power series of the kernel in the paper, with G0 = (D + loss*I)^(-1):
+ * <pre>
+ *     G = (I - G0A)^(-1)G0 = sum_t (G0A)^t G0
+ * </pre>
+ * so x = G q is summed by y_0 = G0 q, y_(t+1) = G0 A y_t, one sparse product per step, O(K*|E|) for K steps.
+ * <p>
+ * The series converges since ||G0A||inf = rho = max_i(neighbors_i / (degree_i + loss)) < 1 for loss > 0, and
+ * ||y_(t+1)||inf <= rho * ||y_t||inf, so the tail after step t is bounded by rho / (1 - rho) * ||y_t||inf. The sum
+ * stops once the bound is within the tolerance of the scores, which suits ranking with a loose tolerance; the
+ * bound gets weak when rho is close to 1, i.e. a small loss on a graph of high degrees.
+ * </p>
+ * <p>
+ * The products run in parallel over blocks of rows, see {@link SparseMatrix#multTransA(double[], double[])}.
+ * </p>
+ */
+public class NeumannSeries {
+    private final SparseMatrix adj;
+    // G0
+    private final double[] inverseDia;
+    private final double rho;
+
+    /**
+     * @param adj     symmetric adjacency matrix
+     * @param degrees diagonal of D
+     * @param loss    a positive constant, the fluid loss out of each node
+     */
+    public NeumannSeries(SparseMatrix adj, double[] degrees, double loss) {
+        if (loss <= 0) {
+            throw new IllegalArgumentException("The loss should be positive for the series to converge.");
+        }
+        this.adj = adj;
+        int n = degrees.length;
+        this.inverseDia = new double[n];
+        int[] colIdx = adj.getDSCC().col_idx;
+        double[] values = adj.getDSCC().nz_values;
+        double max = 0;
+        for (int i = 0; i < n; i++) {
+            inverseDia[i] = 1 / (degrees[i] + loss);
+            // row sum, the same as the column sum
+            double sum = 0;
+            for (int k = colIdx[i]; k < colIdx[i + 1]; k++) {
+                sum += Math.abs(values[k]);
+            }
+            max = Math.max(max, sum * inverseDia[i]);
+        }
+        this.rho = max;
+    }
+
+    /**
+     * @return the contraction rate of the series, ||G0A||inf
+     */
+    public double getRho() {
+        return rho;
+    }
+
+    /**
+     * Sum the series for q into x.
+     *
+     * @param tolerance stop when the bound of the tail <= tolerance * ||x||inf
+     * @param maxSteps  the maximum number of terms after the first one
+     * @return the bound of ||G q - x||inf when the sum stops
+     */
+    public double apply(double[] q, double[] x, double tolerance, int maxSteps) {
+        int n = inverseDia.length;
+        double[] y = new double[n];
+        double[] ay = new double[n];
+        double yNorm = 0;
+        for (int i = 0; i < n; i++) {
+            y[i] = inverseDia[i] * q[i];
+            x[i] = y[i];
+            yNorm = Math.max(yNorm, Math.abs(y[i]));
+        }
+        double xNorm = yNorm;
+        double factor = rho / (1 - rho);
+        double bound = factor * yNorm;
+        for (int t = 0; t < maxSteps && bound > tolerance * xNorm; t++) {
+            adj.multTransA(y, ay);
+            yNorm = 0;
+            xNorm = 0;
+            for (int i = 0; i < n; i++) {
+                y[i] = inverseDia[i] * ay[i];
+                x[i] += y[i];
+                yNorm = Math.max(yNorm, Math.abs(y[i]));
+                xNorm = Math.max(xNorm, Math.abs(x[i]));
+            }
+            bound = factor * yNorm;
+        }
+        return bound;
+    }
+}
@@ -0,0 +1,173 @@
+package Algorithms.Graph;
+
+import DS.Matrix.SimMat;
+
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**
+ * Greedy assignment which maps every row to its maximum unassigned column, rows are handled in order.
+ * <p>
+ * Every row keeps its top k columns sorted by value(descending) and column index(ascending), so a row is
+ * matched by skipping assigned candidates with a BitSet look-up, and only falls back to a full row scan
+ * when all of its top k columns have been assigned. The result is the same as {@link SimMat#getMax(int, java.util.HashSet)}
+ * row by row.
+ * </p>
+ * <p>
+ * The matcher is meant to be reused across iterations: update() re-ranks the existing candidates, which are
+ * nearly sorted when the matrix changes only slightly, and replaces them only by columns that become better.
+ * No allocation happens unless the shape of the matrix changes.
+ * </p>
+ */
+public class GreedyMatcher {
+    public static int DEFAULT_K = 16;
+
+    private final int k;
+    private int rows;
+    private int cols;
+    // top k columns of every row
+    private int[][] candidates;
+    // values of the candidates
+    private double[][] values;
+    // candidate numbers of every row, min(k, cols)
+    private int size;
+    private SimMat<?> mat;
+
+    public GreedyMatcher() {
+        this(DEFAULT_K);
+    }
+
+    public GreedyMatcher(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("The candidate number should be a positive integer.");
+        }
+        this.k = k;
+    }
+
+    /**
+     * Rank the candidates of every row in the matrix, rows are handled in parallel.
+     *
+     * @param mat the matrix to match
+     */
+    public void update(SimMat<?> mat) {
+        this.mat = mat;
+        int rows = mat.getRowIndex().size();
+        int cols = mat.getColIndex().size();
+        boolean reset = candidates == null || rows != this.rows || cols != this.cols;
+        if (reset) {
+            this.rows = rows;
+            this.cols = cols;
+            this.size = Math.min(k, cols);
+            this.candidates = new int[rows][size];
+            this.values = new double[rows][size];
+        }
+        IntStream.range(0, rows).parallel().forEach(r -> {
+            if (reset) {
+                for (int i = 0; i < size; i++) {
+                    candidates[r][i] = i;
+                }
+            }
+            rank(r);
+        });
+    }
+
+    /**
+     * Keep the top k columns of a row in order.
+     */
+    private void rank(int r) {
+        int[] cand = candidates[r];
+        double[] val = values[r];
+        // refresh the values and insertion sort, cheap for nearly sorted candidates
+        for (int i = 0; i < size; i++) {
+            int c = cand[i];
+            double v = mat.getVal(r, c);
+            int j = i - 1;
+            while (j >= 0 && better(v, c, val[j], cand[j])) {
+                cand[j + 1] = cand[j];
+                val[j + 1] = val[j];
+                j--;
+            }
+            cand[j + 1] = c;
+            val[j + 1] = v;
+        }
+        if (size == 0) {
+            return;
+        }
+        // columns better than the last candidate replace it
+        for (int c = 0; c < cols; c++) {
+            double v = mat.getVal(r, c);
+            if (!better(v, c, val[size - 1], cand[size - 1]) || contains(cand, c)) {
+                continue;
+            }
+            int j = size - 2;
+            while (j >= 0 && better(v, c, val[j], cand[j])) {
+                cand[j + 1] = cand[j];
+                val[j + 1] = val[j];
+                j--;
+            }
+            cand[j + 1] = c;
+            val[j + 1] = v;
+        }
+    }
+
+    private boolean contains(int[] cand, int c) {
+        for (int i = 0; i < size; i++) {
+            if (cand[i] == c) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if (v1,c1) comes before (v2,c2), larger value first and then smaller column index
+     */
+    private static boolean better(double v1, int c1, double v2, int c2) {
+        return v1 > v2 || (v1 == v2 && c1 < c2);
+    }
+
+    /**
+     * Greedily map rows in order, call update() before matching.
+     *
+     * @param assigned columns assigned already, matched columns will be added
+     * @param skipped  rows not to map, can be null
+     * @return column index for every row, -1 for skipped rows or rows with all columns assigned
+     */
+    public int[] match(BitSet assigned, BitSet skipped) {
+        if (mat == null) {
+            throw new IllegalStateException("The matcher has not been updated by a matrix.");
+        }
+        int[] res = new int[rows];
+        for (int r = 0; r < rows; r++) {
+            res[r] = -1;
+            if (skipped != null && skipped.get(r)) {
+                continue;
+            }
+            int c = pick(r, assigned);
+            if (c != -1) {
+                assigned.set(c);
+                res[r] = c;
+            }
+        }
+        return res;
+    }
+
+    private int pick(int r, BitSet assigned) {
+        for (int i = 0; i < size; i++) {
+            if (!assigned.get(candidates[r][i])) {
+                return candidates[r][i];
+            }
+        }
+        // all top k columns have been assigned, scan the row
+        double max = -Double.MAX_VALUE;
+        int res = -1;
+        for (int c = assigned.nextClearBit(0); c < cols; c = assigned.nextClearBit(c + 1)) {
+            double v = mat.getVal(r, c);
+            if (v > max) {
+                max = v;
+                res = c;
+            }
+        }
+        return res;
+    }
+}
@@ -0,0 +1,543 @@
+package Algorithms.Graph;
+
+import DS.Matrix.RowSparseMatrix;
+import DS.Matrix.SimMat;
+import DS.Matrix.SparseSimMat;
+
+import java.util.Arrays;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * Linear assignment by shortest augmenting paths, in the way of Jonker-Volgenant:
+ * rows are added one by one, and each of them is matched by a Dijkstra search on reduced costs
+ * followed by an update of the dual potentials u(rows) and v(cols).
+ * <p>
+ * Please refer to R. Jonker and A. Volgenant, "A shortest augmenting path algorithm for dense and sparse
+ * linear assignment problems", Computing 38, 325-340 (1987) and D. F. Crouse, "On implementing 2D rectangular
+ * assignment algorithms", IEEE Transactions on Aerospace and Electronic Systems 52(4), 1679-1696 (2016).
+ * </p>
+ * <p>
+ * Rectangular matrices are solved directly(the longer side is transposed, no copy), every row is assigned
+ * when rows <= cols, otherwise every column is assigned. Only primitive arrays are used.
+ * </p>
+ * <p>
+ * A {@link SparseSimMat} is solved on its non-zero entries only: every row gets a private dummy column with
+ * value 0 standing for its zero entries, and rows left on dummies are padded with free columns(zero entries first)
+ * at the end. For maxLoc with non-negative values the result is still optimal, other sparse problems are
+ * rejected by an IllegalArgumentException.
+ * </p>
+ * <p>
+ * A dense problem can be warm started by the solver of the previous problem with the same shape:
+ * the column potentials and the matching are reused, row potentials are recomputed from them, and only rows
+ * whose matched entries are no longer tight(their values moved) are released and augmented again.
+ * When the matrix changes slightly, a solve costs about O(n*m) instead of O(n^2*m).
+ * </p>
+ * <p>
+ * The result has the same format as {@link Hungarian#getResult()}: the column index for every row, -1 for none.
+ * </p>
+ */
+public class LAPJV<T> {
+    private static final double INF = Double.POSITIVE_INFINITY;
+    // relative tolerance of tight entries when warm started
+    private static final double EPS = 1e-10;
+
+    //---------------problem in original orientation------------
+    private final int rows;
+    private final int cols;
+    // max -> negate
+    private final double sign;
+    //---------------problem to solve, n <= realM------------
+    private final boolean transposed;
+    private final int n;
+    private final int realM;
+    // realM + n dummies when sparse
+    private final int m;
+    // dense: cost(i,j) = sign * data[i * rowStride + j * colStride]
+    private double[] data;
+    private int rowStride;
+    private int colStride;
+    // sparse: arcs of row i -> [start[i],start[i+1])
+    private RowSparseMatrix sparse;
+    private int[] start;
+    private int[] arcCol;
+    private double[] arcCost;
+    //---------------duals and matching------------
+    private double[] u;
+    private double[] v;
+    private int[] col4row;
+    private int[] row4col;
+    //---------------shortest path------------
+    private double[] spc;
+    private int[] path;
+    private boolean[] SR;
+    private boolean[] SC;
+
+    private int[] result;
+    // duals and matching are reused from a previous solver
+    private boolean warm;
+    // debug
+    public Logger logger;
+
+    public LAPJV(SimMat<T> mat, Hungarian.ProblemType type) {
+        this(mat.getRowIndex().size(), mat.getColIndex().size(), type,
+                mat instanceof SparseSimMat ? ((SparseSimMat<T>) mat).getSparse() : null,
+                mat instanceof SparseSimMat ? null : mat.getDataView());
+    }
+
+    /**
+     * @param data row-major dense matrix, it will not be modified
+     */
+    public LAPJV(double[] data, int rows, int cols, Hungarian.ProblemType type) {
+        this(rows, cols, type, null, data);
+    }
+
+    /**
+     * @param sparse non-negative values, the zero entries are not stored
+     * @param type   only maxLoc, a zero entry is not the worst for minLoc
+     */
+    public LAPJV(RowSparseMatrix sparse, Hungarian.ProblemType type) {
+        this(sparse.numRows(), sparse.numCols(), type, sparse, null);
+    }
+
+    private LAPJV(int rows, int cols, Hungarian.ProblemType type, RowSparseMatrix sparse, double[] data) {
+        this.rows = rows;
+        this.cols = cols;
+        this.sign = type == Hungarian.ProblemType.maxLoc ? -1 : 1;
+        this.transposed = rows > cols;
+        this.n = Math.min(rows, cols);
+        this.realM = Math.max(rows, cols);
+        if (sparse != null) {
+            if (type != Hungarian.ProblemType.maxLoc) {
+                throw new IllegalArgumentException("A sparse matrix can only be solved for maxLoc.");
+            }
+            this.sparse = sparse;
+            this.m = realM + n;
+            initArcs();
+        } else {
+            assert (data.length == rows * cols);
+            this.data = data;
+            this.m = realM;
+            this.rowStride = transposed ? 1 : cols;
+            this.colStride = transposed ? cols : 1;
+        }
+    }
+
+    /**
+     * Pack non-zero entries into CSR arcs following the solving orientation.
+     */
+    private void initArcs() {
+        start = new int[n + 1];
+        if (!transposed) {
+            for (int i = 0; i < n; i++) {
+                start[i + 1] = start[i] + sparse.nonZeros(i);
+            }
+        } else {
+            for (int r = 0; r < rows; r++) {
+                for (int k = 0; k < sparse.nonZeros(r); k++) {
+                    start[sparse.nonZeroCol(r, k) + 1]++;
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                start[i + 1] += start[i];
+            }
+        }
+        arcCol = new int[start[n]];
+        arcCost = new double[start[n]];
+        int[] fill = Arrays.copyOf(start, n);
+        for (int r = 0; r < rows; r++) {
+            for (int k = 0; k < sparse.nonZeros(r); k++) {
+                int c = sparse.nonZeroCol(r, k);
+                if (sparse.nonZeroVal(r, k) < 0) {
+                    throw new IllegalArgumentException("A sparse matrix should not have negative values, but ("
+                            + r + "," + c + ") is " + sparse.nonZeroVal(r, k));
+                }
+                int i = transposed ? c : r;
+                int idx = fill[i]++;
+                arcCol[idx] = transposed ? r : c;
+                arcCost[idx] = sign * sparse.nonZeroVal(r, k);
+            }
+        }
+    }
+
+    /**
+     * Reuse the duals and the matching of a solved problem, it takes effect only when both problems are dense
+     * and in the same shape. Call it before run().
+     *
+     * @param previous solver of the previous problem, can be null
+     * @return true if the solver will be warm started
+     */
+    public boolean warmStart(LAPJV<?> previous) {
+        if (previous == null || previous.result == null || previous.sparse != null || sparse != null
+                || previous.rows != rows || previous.cols != cols) {
+            return false;
+        }
+        u = previous.u.clone();
+        v = previous.v.clone();
+        col4row = previous.col4row.clone();
+        row4col = previous.row4col.clone();
+        warm = true;
+        return true;
+    }
+
+    public void run() {
+        logInfo("LAPJV: " + rows + "x" + cols + (sparse == null ? " dense" : " sparse") + " assignment"
+                + (warm ? ", warm started" : ""));
+        if (!warm) {
+            u = new double[n];
+            v = new double[m];
+            col4row = new int[n];
+            row4col = new int[m];
+            Arrays.fill(col4row, -1);
+            Arrays.fill(row4col, -1);
+        }
+        spc = new double[m];
+        path = new int[m];
+        SR = new boolean[n];
+        SC = new boolean[m];
+        Arrays.fill(spc, INF);
+        Arrays.fill(path, -1);
+        if (sparse == null) {
+            int[] toAssign;
+            if (warm) {
+                toAssign = repair();
+                logInfo("LAPJV: " + toAssign.length + " rows to augment again");
+            } else {
+                toAssign = new int[n];
+                for (int i = 0; i < n; i++) {
+                    toAssign[i] = i;
+                }
+            }
+            solveDense(toAssign);
+        } else {
+            solveSparse();
+            padDummies();
+        }
+        result = finish();
+    }
+
+    //-------------------------------dense-----------------------------------
+
+    private double cost(int i, int j) {
+        return sign * data[i * rowStride + j * colStride];
+    }
+
+    /**
+     * Restore the invariants of the augmentation with the reused duals on the new costs:
+     * <ol>
+     *     <li>u[i] + v[j] <= cost(i,j) for all entries, u[i] = min(cost(i,j) - v[j])</li>
+     *     <li>matched entries are tight, otherwise the row is released</li>
+     *     <li>free columns have v[j] = 0 and v[j] <= 0 for all columns</li>
+     * </ol>
+     *
+     * @return released rows to augment
+     */
+    private int[] repair() {
+        // columns released, their potential will be raised to 0
+        int[] freed = new int[m];
+        int freedSize = 0;
+        for (int i = 0; i < n; i++) {
+            double min = INF;
+            for (int j = 0; j < m; j++) {
+                min = Math.min(min, cost(i, j) - v[j]);
+            }
+            u[i] = min;
+            int j = col4row[i];
+            if (j != -1 && !tight(i, j)) {
+                col4row[i] = -1;
+                row4col[j] = -1;
+                freed[freedSize++] = j;
+            }
+        }
+        // raising the potential of a free column may break the tightness of other rows
+        while (freedSize > 0) {
+            int j = freed[--freedSize];
+            if (v[j] == 0) {
+                continue;
+            }
+            v[j] = 0;
+            for (int k = 0; k < n; k++) {
+                double d = cost(k, j);
+                if (d < u[k]) {
+                    u[k] = d;
+                    int c = col4row[k];
+                    if (c != -1 && !tight(k, c)) {
+                        col4row[k] = -1;
+                        row4col[c] = -1;
+                        freed[freedSize++] = c;
+                    }
+                }
+            }
+        }
+        return IntStream.range(0, n).filter(i -> col4row[i] == -1).toArray();
+    }
+
+    private boolean tight(int i, int j) {
+        return cost(i, j) - v[j] - u[i] <= EPS * (1 + Math.abs(u[i]));
+    }
+
+    private void solveDense(int[] toAssign) {
+        int[] remaining = new int[m];
+        for (int curRow : toAssign) {
+            double minVal = 0;
+            int numRemaining = m;
+            for (int it = 0; it < m; it++) {
+                remaining[it] = m - it - 1;
+            }
+            int sink = -1;
+            int i = curRow;
+            while (sink == -1) {
+                int index = -1;
+                double lowest = INF;
+                SR[i] = true;
+                for (int it = 0; it < numRemaining; it++) {
+                    int j = remaining[it];
+                    double r = minVal + cost(i, j) - u[i] - v[j];
+                    if (r < spc[j]) {
+                        path[j] = i;
+                        spc[j] = r;
+                    }
+                    // prefer free columns on ties
+                    if (spc[j] < lowest || (spc[j] == lowest && row4col[j] == -1)) {
+                        lowest = spc[j];
+                        index = it;
+                    }
+                }
+                minVal = lowest;
+                if (minVal == INF) {
+                    throw new IllegalStateException("The assignment problem is infeasible.");
+                }
+                int j = remaining[index];
+                if (row4col[j] == -1) {
+                    sink = j;
+                } else {
+                    i = row4col[j];
+                }
+                SC[j] = true;
+                remaining[index] = remaining[--numRemaining];
+            }
+            // update duals
+            u[curRow] += minVal;
+            for (int r = 0; r < n; r++) {
+                if (SR[r] && r != curRow) {
+                    u[r] += minVal - spc[col4row[r]];
+                }
+            }
+            for (int c = 0; c < m; c++) {
+                if (SC[c]) {
+                    v[c] -= minVal - spc[c];
+                }
+            }
+            augment(curRow, sink);
+            Arrays.fill(SR, false);
+            Arrays.fill(SC, false);
+            Arrays.fill(spc, INF);
+        }
+    }
+
+    private void augment(int curRow, int sink) {
+        int j = sink;
+        while (true) {
+            int i = path[j];
+            row4col[j] = i;
+            int tmp = col4row[i];
+            col4row[i] = j;
+            j = tmp;
+            if (i == curRow) {
+                break;
+            }
+        }
+    }
+
+    //-------------------------------sparse-----------------------------------
+
+    private void solveSparse() {
+        // columns touched and rows scanned by the current search, to be reset
+        int[] touched = new int[m];
+        int[] scanned = new int[n];
+        // indexed binary heap of the touched and unscanned columns
+        int[] heap = new int[m];
+        int[] pos = new int[m];
+        Arrays.fill(pos, -1);
+        for (int curRow = 0; curRow < n; curRow++) {
+            int touchedSize = 0;
+            int scannedSize = 0;
+            int heapSize = 0;
+            double minVal = 0;
+            int sink = -1;
+            int i = curRow;
+            while (sink == -1) {
+                SR[i] = true;
+                scanned[scannedSize++] = i;
+                for (int k = start[i]; k <= start[i + 1]; k++) {
+                    // the last one is the dummy column of row i
+                    int j = k < start[i + 1] ? arcCol[k] : realM + i;
+                    if (SC[j]) {
+                        continue;
+                    }
+                    double c = k < start[i + 1] ? arcCost[k] : 0;
+                    double r = minVal + c - u[i] - v[j];
+                    if (r < spc[j]) {
+                        if (spc[j] == INF) {
+                            touched[touchedSize++] = j;
+                        }
+                        path[j] = i;
+                        spc[j] = r;
+                        if (pos[j] == -1) {
+                            pos[j] = heapSize;
+                            heap[heapSize++] = j;
+                        }
+                        siftUp(heap, pos, pos[j]);
+                    }
+                }
+                if (heapSize == 0) {
+                    throw new IllegalStateException("The assignment problem is infeasible.");
+                }
+                // pop
+                int j = heap[0];
+                pos[j] = -1;
+                if (--heapSize > 0) {
+                    heap[0] = heap[heapSize];
+                    pos[heap[0]] = 0;
+                    siftDown(heap, pos, heapSize);
+                }
+                minVal = spc[j];
+                SC[j] = true;
+                if (row4col[j] == -1) {
+                    sink = j;
+                } else {
+                    i = row4col[j];
+                }
+            }
+            // update duals
+            u[curRow] += minVal;
+            for (int s = 0; s < scannedSize; s++) {
+                int r = scanned[s];
+                if (r != curRow) {
+                    u[r] += minVal - spc[col4row[r]];
+                }
+                SR[r] = false;
+            }
+            for (int t = 0; t < touchedSize; t++) {
+                int c = touched[t];
+                if (SC[c]) {
+                    v[c] -= minVal - spc[c];
+                }
+            }
+            augment(curRow, sink);
+            // reset
+            for (int t = 0; t < touchedSize; t++) {
+                int c = touched[t];
+                SC[c] = false;
+                spc[c] = INF;
+                pos[c] = -1;
+            }
+        }
+    }
+
+    /**
+     * @return true if column a comes before column b, free columns first on ties
+     */
+    private boolean before(int a, int b) {
+        return spc[a] < spc[b] || (spc[a] == spc[b] && row4col[a] == -1 && row4col[b] != -1);
+    }
+
+    private void siftUp(int[] heap, int[] pos, int k) {
+        int j = heap[k];
+        while (k > 0) {
+            int parent = (k - 1) >>> 1;
+            if (!before(j, heap[parent])) {
+                break;
+            }
+            heap[k] = heap[parent];
+            pos[heap[k]] = k;
+            k = parent;
+        }
+        heap[k] = j;
+        pos[j] = k;
+    }
+
+    private void siftDown(int[] heap, int[] pos, int size) {
+        int k = 0;
+        int j = heap[0];
+        while (true) {
+            int child = 2 * k + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], j)) {
+                break;
+            }
+            heap[k] = heap[child];
+            pos[heap[k]] = k;
+            k = child;
+        }
+        heap[k] = j;
+        pos[j] = k;
+    }
+
+    /**
+     * Rows on dummy columns take free real columns, columns of zero entries first.
+     */
+    private void padDummies() {
+        int free = 0;
+        for (int i = 0; i < n; i++) {
+            if (col4row[i] < realM) {
+                continue;
+            }
+            row4col[col4row[i]] = -1;
+            int pick = -1;
+            for (int j = 0; j < realM; j++) {
+                if (row4col[j] == -1 && value(i, j) == 0) {
+                    pick = j;
+                    break;
+                }
+            }
+            if (pick == -1) {
+                while (row4col[free] != -1) {
+                    free++;
+                }
+                pick = free;
+            }
+            col4row[i] = pick;
+            row4col[pick] = i;
+        }
+    }
+
+    private double value(int i, int j) {
+        return transposed ? sparse.get(j, i) : sparse.get(i, j);
+    }
+
+    //-------------------------------result-----------------------------------
+
+    private int[] finish() {
+        int[] result = new int[rows];
+        Arrays.fill(result, -1);
+        for (int i = 0; i < n; i++) {
+            if (transposed) {
+                result[col4row[i]] = i;
+            } else {
+                result[i] = col4row[i];
+            }
+        }
+        return result;
+    }
+
+    public int[] getResult() {
+        assert (result != null);
+        return result;
+    }
+
+    public void setLogger(Logger logger) {
+        this.logger = logger;
+    }
+
+    private void logInfo(String message) {
+        if (logger != null) {
+            logger.info(message);
+        }
+    }
+}
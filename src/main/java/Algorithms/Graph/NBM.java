@@ -3,9 +3,10 @@ package Algorithms.Graph;
 
 import DS.Matrix.SimMat;
 import DS.Network.Graph;
+import DS.Network.NodeIndex;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 
 /**
@@ -51,6 +52,21 @@ public class NBM<V, E> {
     private final Graph<V, E> udG2;
     private final HashMap<V, V> mapping;
     private final SimMat<V> simMat;
+    // receives the values of the adjusted entries before the adjustment, if not null
+    private AdjustListener listener;
+
+    /**
+     * Receives an entry of the matrix before every adjustment, so the values before the adjustments can be kept
+     * without a copy of the matrix.
+     */
+    @FunctionalInterface
+    public interface AdjustListener {
+        /**
+         * @param cell  i * cols + j
+         * @param value the value before this adjustment, an entry can be adjusted more than once
+         */
+        void before(long cell, double value);
+    }
 
     public NBM(Graph<V, E> udG1,
                Graph<V, E> udG2,
@@ -63,35 +79,64 @@ public class NBM<V, E> {
         this.mapping = mapping;
     }
 
+    /**
+     * Hand every adjusted entry to the listener before it is adjusted.
+     */
+    public void recordBefore(AdjustListener listener) {
+        this.listener = listener;
+    }
+
     /**
      * Update only once for all neighbors of all the pairs ready.
      * reward is defined in HGA.
      * Notice : this method return the result associated with the order mapping is iterated.
      */
     public void neighborSimAdjust() {
+        NodeIndex<V> rowIndex = simMat.getRowIndex();
+        NodeIndex<V> colIndex = simMat.getColIndex();
+        // intern the mapping pairs, pairs out of the matrix are not adjusted
+        int[] us = new int[mapping.size()];
+        int[] vs = new int[mapping.size()];
+        double[] sims = new double[mapping.size()];
+        int size = 0;
+        for (Map.Entry<V, V> entry : mapping.entrySet()) {
+            int u = rowIndex.indexOf(entry.getKey());
+            int v = colIndex.indexOf(entry.getValue());
+            if (u != -1 && v != -1) {
+                us[size] = u;
+                vs[size] = v;
+                sims[size++] = simMat.getVal(u, v);
+            }
+        }
         // sort the mapping pairs to add topological effect for the pair with higher similarity first,
         // and it will alleviate the impact brought by update similarity matrix in various orders.
-        List<Map.Entry<V, V>> toAdjust = mapping.entrySet().stream()
-                .sorted(Comparator.comparing(entry ->
-                        simMat.getVal(entry.getKey(), entry.getValue()))).collect(Collectors.toList());
-        Collections.reverse(toAdjust);
+        int[] order = IntStream.range(0, size).boxed()
+                .sorted(Comparator.comparingDouble(k -> sims[k])).mapToInt(k -> k).toArray();
         // no parallel here
-        for (Map.Entry<V, V> entry : toAdjust) {
-            V node1 = entry.getKey();
-            V node2 = entry.getValue();
-            double simUV = simMat.getVal(node1, node2);
+        for (int k = size - 1; k >= 0; k--) {
+            int u = us[order[k]];
+            int v = vs[order[k]];
+            double simUV = simMat.getVal(u, v);
             // direct neighbors of the head node
-            Set<V> neb1 = udG1.getNeb(node1);
-            Set<V> neb2 = udG2.getNeb(node2);
-            // no parallel here! stateful lambda
-            neb1.forEach(n1 -> {
-                int nebNumbNode1 = udG1.getNeb(n1).size();
+            Set<V> neb1 = udG1.getNeb(rowIndex.get(u));
+            int[] neb2 = colIndex.indexesOf(udG2.getNeb(colIndex.get(v)));
+            for (V n1 : neb1) {
+                int i = rowIndex.indexOf(n1);
+                if (i == -1) {
+                    continue;
+                }
+                int nebNumbNode1 = udG1.getNebSize(n1);
                 double reward = simUV / nebNumbNode1;
-                neb2.forEach(n2 -> {
-                    double newWeight = simMat.getVal(n1, n2) + reward;
-                    simMat.put(n1, n2, newWeight);
-                });
-            });
+                for (int j : neb2) {
+                    if (j != -1) {
+                        double val = simMat.getVal(i, j);
+                        if (listener != null) {
+                            listener.before((long) i * colIndex.size() + j, val);
+                        }
+                        simMat.put(i, j, val + reward);
+                    }
+                }
+            }
         }
     }
 
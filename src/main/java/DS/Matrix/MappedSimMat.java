@@ -0,0 +1,350 @@
+package DS.Matrix;
+
+import DS.Network.NodeIndex;
+import org.ejml.data.DMatrixRMaj;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Similarity matrix in a binary file, read by {@link FileChannel#map} without parsing, so loading a large
+ * matrix costs only the name tables. The file is little-endian:
+ * <ol>
+ *     <li>header: int magic, int version, int value bytes(8 for double, 4 for float), int rows, int cols,
+ *     long offset of the values</li>
+ *     <li>names of rows then cols: int length + UTF-8 bytes for each</li>
+ *     <li>values: rows * cols doubles or floats in row-major order, aligned to 8 bytes</li>
+ * </ol>
+ * A file is written by {@link #write(SimMat, String, boolean)}, and the text format can be converted by
+ * {@link IO.Reader.SimMatReader#convertToBinary(String, String, boolean)}.
+ * <p>
+ * The mapping is read-only, which is shared by the OS page cache: put() is not supported, use toDense()
+ * once if a working copy is needed. Since a mapping is limited to 2GB, the values are mapped in segments of
+ * whole rows.
+ * </p>
+ */
+public class MappedSimMat<K> extends SimMat<K> {
+    private static final int MAGIC = 0x4D4D4953;
+    private static final int VERSION = 1;
+    private static final int HEADER = 5 * Integer.BYTES + Long.BYTES;
+    // value bytes, 8 or 4
+    private final int width;
+    private final int cols;
+    private final int rowsPerSegment;
+    private final ByteBuffer[] segments;
+
+    private MappedSimMat(NodeIndex<K> rowIndex, NodeIndex<K> colIndex, ByteBuffer[] segments,
+                         int rowsPerSegment, int width, Class<K> mapKeyType) {
+        super(rowIndex, colIndex, null, mapKeyType);
+        this.segments = segments;
+        this.rowsPerSegment = rowsPerSegment;
+        this.width = width;
+        this.cols = colIndex.size();
+    }
+
+    /**
+     * Map a binary similarity matrix, node names are read as strings.
+     */
+    public static MappedSimMat<String> open(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC) {
+                throw new IOException(path + " is not a binary similarity matrix.");
+            }
+            if (header.getInt() != VERSION) {
+                throw new IOException("Unsupported version of the binary similarity matrix " + path);
+            }
+            int width = header.getInt();
+            int rows = header.getInt();
+            int cols = header.getInt();
+            long offset = header.getLong();
+            ByteBuffer names = channel.map(FileChannel.MapMode.READ_ONLY, HEADER, offset - HEADER)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            NodeIndex<String> rowIndex = new NodeIndex<>(readNames(names, rows));
+            NodeIndex<String> colIndex = new NodeIndex<>(readNames(names, cols));
+            if (channel.size() < offset + (long) rows * cols * width) {
+                throw new IOException("The binary similarity matrix " + path + " is truncated.");
+            }
+            int rowsPerSegment = rowsPerSegment(cols, width);
+            ByteBuffer[] segments = new ByteBuffer[(rows + rowsPerSegment - 1) / rowsPerSegment];
+            for (int s = 0; s < segments.length; s++) {
+                int segRows = Math.min(rowsPerSegment, rows - s * rowsPerSegment);
+                long position = offset + (long) s * rowsPerSegment * cols * width;
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, position, (long) segRows * cols * width)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new MappedSimMat<>(rowIndex, colIndex, segments, rowsPerSegment, width, String.class);
+        }
+    }
+
+    /**
+     * Write the similarity matrix in the binary format, node names are written by toString().
+     *
+     * @param floats store values in float, which halves the file with the precision of float
+     */
+    public static void write(SimMat<?> mat, String path, boolean floats) throws IOException {
+        int width = floats ? Float.BYTES : Double.BYTES;
+        List<?> rowNames = mat.getRowIndex().nodes();
+        List<?> colNames = mat.getColIndex().nodes();
+        int rows = rowNames.size();
+        int cols = colNames.size();
+        rowsPerSegment(cols, width);
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            byte[][] names = new byte[rows + cols][];
+            long offset = HEADER;
+            for (int i = 0; i < names.length; i++) {
+                Object name = i < rows ? rowNames.get(i) : colNames.get(i - rows);
+                names[i] = name.toString().getBytes(StandardCharsets.UTF_8);
+                offset += Integer.BYTES + names[i].length;
+            }
+            // align the values
+            offset = (offset + 7) & ~7L;
+            ByteBuffer header = ByteBuffer.allocate((int) offset).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(rows).putInt(cols).putLong(offset);
+            for (byte[] name : names) {
+                header.putInt(name.length).put(name);
+            }
+            header.position((int) offset);
+            header.flip();
+            writeFully(channel, header);
+            // one row at a time
+            ByteBuffer row = ByteBuffer.allocateDirect(cols * width).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < rows; i++) {
+                row.clear();
+                for (int j = 0; j < cols; j++) {
+                    double val = mat.getVal(i, j);
+                    if (floats) {
+                        row.putFloat((float) val);
+                    } else {
+                        row.putDouble(val);
+                    }
+                }
+                row.flip();
+                writeFully(channel, row);
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static List<String> readNames(ByteBuffer buffer, int size) {
+        List<String> names = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            names.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return names;
+    }
+
+    private static int rowsPerSegment(int cols, int width) throws IOException {
+        long rowBytes = (long) Math.max(1, cols) * width;
+        if (rowBytes > Integer.MAX_VALUE) {
+            throw new IOException("A row of " + cols + " columns can not be mapped.");
+        }
+        return (int) (Integer.MAX_VALUE / rowBytes);
+    }
+
+    @Override
+    protected void initMat(Set<K> g1, Set<K> g2) {
+        // values are mapped
+    }
+
+    @Override
+    public double getVal(int i, int j) {
+        int index = ((i % rowsPerSegment) * cols + j) * width;
+        ByteBuffer segment = segments[i / rowsPerSegment];
+        return width == Double.BYTES ? segment.getDouble(index) : segment.getFloat(index);
+    }
+
+    /**
+     * The mapping is read-only.
+     */
+    @Override
+    public void put(int i, int j, double val) {
+        throw new UnsupportedOperationException("A mapped similarity matrix is read-only, use toDense() first.");
+    }
+
+    /**
+     * Copy rows [from, to) into out from offset, doubles are read in bulk.
+     */
+    private void copyRows(int from, int to, double[] out, int offset) {
+        for (int i = from; i < to; ) {
+            ByteBuffer segment = segments[i / rowsPerSegment].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            int segEnd = Math.min(to, (i / rowsPerSegment + 1) * rowsPerSegment);
+            int start = (i % rowsPerSegment) * cols;
+            int length = (segEnd - i) * cols;
+            if (width == Double.BYTES) {
+                segment.position(start * width);
+                segment.asDoubleBuffer().get(out, offset, length);
+            } else {
+                for (int k = 0; k < length; k++) {
+                    out[offset + k] = segment.getFloat((start + k) * width);
+                }
+            }
+            offset += length;
+            i = segEnd;
+        }
+    }
+
+    /**
+     * Split the matrix which contains only rows in rowSet and cols in colSet, the result is a dense copy.
+     *
+     * @return split result
+     */
+    @Override
+    public SimMat<K> getPart(Collection<K> rowSet, Collection<K> colSet) {
+        assert (getRowSetView().containsAll(rowSet) && getColSetView().containsAll(colSet));
+        if (rowSet.equals(getRowSetView()) && colSet.equals(getColSetView())) {
+            return this;
+        }
+        NodeIndex<K> rows = partIndex(rowIndex, rowSet);
+        NodeIndex<K> cols = partIndex(colIndex, colSet);
+        int[] rowIndexes = rowIndex.indexesOf(rows.nodes());
+        int[] colIndexes = colIndex.indexesOf(cols.nodes());
+        DenseMatrix res = new DenseMatrix(rowIndexes.length, colIndexes.length);
+        double[] data = res.data();
+        for (int i = 0; i < rowIndexes.length; i++) {
+            for (int j = 0; j < colIndexes.length; j++) {
+                data[i * colIndexes.length + j] = getVal(rowIndexes[i], colIndexes[j]);
+            }
+        }
+        return new SimMat<>(rows, cols, res, mapKeyType);
+    }
+
+    /**
+     * Deep copy
+     *
+     * @return a dense copy, which can be modified
+     */
+    @Override
+    public SimMat<K> dup() {
+        return toDense();
+    }
+
+    /**
+     * @return a dense copy of the matrix
+     */
+    @Override
+    public DenseMatrix getMat() {
+        DenseMatrix res = new DenseMatrix(rowIndex.size(), cols);
+        copyRows(0, rowIndex.size(), res.data(), 0);
+        return res;
+    }
+
+    /**
+     * There is no dense storage to swap, use toDense() first.
+     */
+    @Override
+    public void swapMat(SimMat<K> other) {
+        throw new UnsupportedOperationException("A mapped matrix can not be swapped, use toDense() first.");
+    }
+
+    /**
+     * There is no dense storage to view, so this is a dense copy.
+     */
+    @Override
+    public DMatrixRMaj getMatView() {
+        return getMat().getDDRM();
+    }
+
+    /**
+     * There is no dense storage to view, so this is a dense copy.
+     */
+    @Override
+    public double[] getDataView() {
+        return getMat().data();
+    }
+
+    @Override
+    public SimMat<K> toDense() {
+        return new SimMat<>(rowIndex, colIndex, getMat(), mapKeyType);
+    }
+
+    @Override
+    public void setMat(DenseMatrix mat) {
+        throw new UnsupportedOperationException("A mapped similarity matrix can not be set by a dense matrix.");
+    }
+
+    @Override
+    public void setData(double[] out) {
+        throw new UnsupportedOperationException("A mapped similarity matrix can not be set by a dense array.");
+    }
+
+    @Override
+    public void scaleAddTo(double[] data, double factor) {
+        double[] row = new double[cols];
+        for (int i = 0; i < rowIndex.size(); i++) {
+            copyRows(i, i + 1, row, 0);
+            int offset = i * cols;
+            for (int j = 0; j < cols; j++) {
+                data[offset + j] += factor * row[j];
+            }
+        }
+    }
+
+    @Override
+    public void scaleAddRowTo(int row, double[] data, double factor) {
+        double[] values = new double[cols];
+        copyRows(row, row + 1, values, 0);
+        int offset = row * cols;
+        for (int j = 0; j < cols; j++) {
+            data[offset + j] += factor * values[j];
+        }
+    }
+
+    @Override
+    protected double rowSum(int row) {
+        double sum = 0;
+        for (int j = 0; j < cols; j++) {
+            sum += getVal(row, j);
+        }
+        return sum;
+    }
+
+    @Override
+    public K getMax(int row, HashSet<K> assign) {
+        double max = -Double.MAX_VALUE;
+        K res = null;
+        for (int j = 0; j < cols; j++) {
+            K s = colIndex.get(j);
+            double val = getVal(row, j);
+            if (!assign.contains(s) && val > max) {
+                max = val;
+                res = s;
+            }
+        }
+        assign.add(res);
+        return res;
+    }
+
+    @Override
+    public <T> int getNonZero(T r) {
+        int row = rowIndex.indexOf(r);
+        int nonZero = 0;
+        for (int j = 0; j < cols; j++) {
+            if (getVal(row, j) != 0) {
+                nonZero++;
+            }
+        }
+        return nonZero;
+    }
+
+    /**
+     * @return true if values are stored in float
+     */
+    public boolean isFloat() {
+        return width == Float.BYTES;
+    }
+}
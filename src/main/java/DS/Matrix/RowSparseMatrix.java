@@ -0,0 +1,188 @@
+package DS.Matrix;
+
+import org.ejml.data.DMatrixRMaj;
+
+import java.util.Arrays;
+
+/**
+ * Sparse matrix compressed by rows, every row keeps the column indexes of its non-zero entries
+ * in ascending order together with their values.
+ * <p>
+ * Random access costs O(log(k)) where k is the number of non-zero entries in the row,
+ * and row scans only visit the non-zero entries.
+ * </p>
+ */
+public class RowSparseMatrix {
+    private final int rows;
+    private final int cols;
+    // column indexes of non-zero entries for every row
+    private final int[][] colIndexes;
+    // values of non-zero entries for every row
+    private final double[][] values;
+    // non-zero numbers for every row
+    private final int[] sizes;
+
+    public RowSparseMatrix(int rows, int cols) {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("The width and length of the matrix should be a positive integer.");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.colIndexes = new int[rows][];
+        this.values = new double[rows][];
+        this.sizes = new int[rows];
+        Arrays.fill(colIndexes, new int[0]);
+        Arrays.fill(values, new double[0]);
+    }
+
+    public double get(int row, int col) {
+        int idx = Arrays.binarySearch(colIndexes[row], 0, sizes[row], col);
+        return idx < 0 ? 0 : values[row][idx];
+    }
+
+    /**
+     * Set a value, the entry will be removed when val is zero.
+     */
+    public void set(int row, int col, double val) {
+        if (row < 0 || col < 0 || row >= rows || col >= cols) {
+            throw new IllegalArgumentException("The row or column index is illegal.");
+        }
+        int size = sizes[row];
+        int idx = Arrays.binarySearch(colIndexes[row], 0, size, col);
+        // found
+        if (idx >= 0) {
+            if (val != 0) {
+                values[row][idx] = val;
+            } else {
+                System.arraycopy(colIndexes[row], idx + 1, colIndexes[row], idx, size - idx - 1);
+                System.arraycopy(values[row], idx + 1, values[row], idx, size - idx - 1);
+                sizes[row]--;
+            }
+            return;
+        }
+        if (val == 0) {
+            return;
+        }
+        // not found: insert to keep the ascending order
+        int ins = -idx - 1;
+        if (size == colIndexes[row].length) {
+            int capacity = Math.max(4, size + (size >> 1));
+            colIndexes[row] = Arrays.copyOf(colIndexes[row], capacity);
+            values[row] = Arrays.copyOf(values[row], capacity);
+        }
+        System.arraycopy(colIndexes[row], ins, colIndexes[row], ins + 1, size - ins);
+        System.arraycopy(values[row], ins, values[row], ins + 1, size - ins);
+        colIndexes[row][ins] = col;
+        values[row][ins] = val;
+        sizes[row]++;
+    }
+
+    public int numRows() {
+        return rows;
+    }
+
+    public int numCols() {
+        return cols;
+    }
+
+    /**
+     * @return non-zero number within a row
+     */
+    public int nonZeros(int row) {
+        return sizes[row];
+    }
+
+    /**
+     * @return the column index of the k-th non-zero entry within a row
+     */
+    public int nonZeroCol(int row, int k) {
+        return colIndexes[row][k];
+    }
+
+    /**
+     * @return the value of the k-th non-zero entry within a row
+     */
+    public double nonZeroVal(int row, int k) {
+        return values[row][k];
+    }
+
+    public double rowSum(int row) {
+        double sum = 0;
+        for (int k = 0; k < sizes[row]; k++) {
+            sum += values[row][k];
+        }
+        return sum;
+    }
+
+    public double elementSum() {
+        double sum = 0;
+        for (int r = 0; r < rows; r++) {
+            sum += rowSum(r);
+        }
+        return sum;
+    }
+
+    /**
+     * Get all elements from the specified rows and columns, O(nnz) of the selected rows.
+     *
+     * @param rows row indexes
+     * @param cols col indexes
+     * @return sub-matrix
+     */
+    public RowSparseMatrix getMat(int[] rows, int[] cols) {
+        // old column index -> new column index
+        int[] colTo = new int[this.cols];
+        Arrays.fill(colTo, -1);
+        for (int j = 0; j < cols.length; j++) {
+            colTo[cols[j]] = j;
+        }
+        RowSparseMatrix res = new RowSparseMatrix(rows.length, cols.length);
+        for (int i = 0; i < rows.length; i++) {
+            int r = rows[i];
+            for (int k = 0; k < sizes[r]; k++) {
+                int c = colTo[colIndexes[r][k]];
+                if (c != -1) {
+                    res.set(i, c, values[r][k]);
+                }
+            }
+        }
+        return res;
+    }
+
+    public RowSparseMatrix copy() {
+        RowSparseMatrix res = new RowSparseMatrix(rows, cols);
+        for (int r = 0; r < rows; r++) {
+            res.colIndexes[r] = Arrays.copyOf(colIndexes[r], sizes[r]);
+            res.values[r] = Arrays.copyOf(values[r], sizes[r]);
+            res.sizes[r] = sizes[r];
+        }
+        return res;
+    }
+
+    /**
+     * data += factor * this, where data is organized in row-major order.
+     */
+    public void scaleAddTo(double[] data, double factor) {
+        for (int r = 0; r < rows; r++) {
+            scaleAddRowTo(r, data, factor);
+        }
+    }
+
+    /**
+     * data += factor * this, for row r only.
+     */
+    public void scaleAddRowTo(int r, double[] data, double factor) {
+        int offset = r * cols;
+        for (int k = 0; k < sizes[r]; k++) {
+            data[offset + colIndexes[r][k]] += factor * values[r][k];
+        }
+    }
+
+    public DenseMatrix toDense() {
+        double[] data = new double[rows * cols];
+        scaleAddTo(data, 1);
+        DenseMatrix res = new DenseMatrix();
+        res.setMat(new DMatrixRMaj(rows, cols, true, data));
+        return res;
+    }
+}
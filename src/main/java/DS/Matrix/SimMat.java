@@ -1,20 +1,19 @@
 package DS.Matrix;
 
+import DS.Network.NodeIndex;
 import org.ejml.data.DMatrixRMaj;
 import org.ejml.data.MatrixType;
 import org.jgrapht.alg.util.Pair;
 
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class SimMat<K> {
     protected DenseMatrix mat;
-    //------------------similarity matrix----------
-    protected HashMap<K, Integer> rowMap;
-    protected HashMap<K, Integer> colMap;
-    //-----------------index name map---------------------
-    protected HashMap<Integer, K> rowIndexNameMap;
-    protected HashMap<Integer, K> colIndexNameMap;
+    //------------------interned rows and cols, name <-> index----------
+    protected NodeIndex<K> rowIndex;
+    protected NodeIndex<K> colIndex;
     public Class<K> mapKeyType;
 
     // ----------------temporary parameters to mark rows for the hungarian allocation(hga_fix)-------------------
@@ -29,32 +28,16 @@ public class SimMat<K> {
      */
     public SimMat(Set<K> g1, Set<K> g2, Class<K> mapKeyClass) {
         initMat(g1, g2);
-        this.rowMap = new HashMap<>(g1.size());
-        this.colMap = new HashMap<>(g2.size());
-        this.rowIndexNameMap = new HashMap<>(g1.size());
-        this.colIndexNameMap = new HashMap<>(g2.size());
         this.mapKeyType = mapKeyClass;
-        // init row,col Map
-        initRowColMap(g1, g2);
-        getIndexNameMap();
+        // nodes are indexed by the iteration order
+        this.rowIndex = new NodeIndex<>(g1);
+        this.colIndex = new NodeIndex<>(g2);
     }
 
-    private void initMat(Set<K> g1, Set<K> g2) {
+    protected void initMat(Set<K> g1, Set<K> g2) {
         this.mat = new DenseMatrix(g1.size(), g2.size());
     }
 
-
-    private void initRowColMap(Set<K> graph1Nodes, Set<K> graph2Nodes) {
-        int i = 0;
-        for (K node : graph1Nodes) {
-            rowMap.put(node, i++);
-        }
-        i = 0;
-        for (K node : graph2Nodes) {
-            colMap.put(node, i++);
-        }
-    }
-
     /**
      * The rowMat have to be in the same length and same order
      */
@@ -62,52 +45,54 @@ public class SimMat<K> {
                   DenseMatrix Matrix,
                   Class<K> mapKeyType
     ) {
+        this(NodeIndex.of(rowMap), NodeIndex.of(colMap), Matrix, mapKeyType);
+    }
+
+    /**
+     * Rows and cols of the matrix follow the order of the node indexes, which can be shared
+     * by matrices since they are immutable.
+     */
+    public SimMat(NodeIndex<K> rowIndex, NodeIndex<K> colIndex, DenseMatrix Matrix, Class<K> mapKeyType) {
         mat = Matrix;
-        rowIndexNameMap = new HashMap<>(rowMap.size());
-        colIndexNameMap = new HashMap<>(colMap.size());
-        this.rowMap = rowMap;
-        this.colMap = colMap;
+        this.rowIndex = rowIndex;
+        this.colIndex = colIndex;
         this.mapKeyType = mapKeyType;
-        getIndexNameMap();
     }
 
 
     public SimMat(HashMap<K, Integer> rowMap, HashMap<Integer, K> rowIndexNameMap, HashMap<K, Integer> colMap,
                   HashMap<Integer, K> colIndexNameMap, DenseMatrix Matrix) {
-        mat = Matrix;
-        this.rowIndexNameMap = rowIndexNameMap;
-        this.colIndexNameMap = colIndexNameMap;
-        this.rowMap = rowMap;
-        this.colMap = colMap;
+        this(NodeIndex.of(rowMap), NodeIndex.of(colMap), Matrix, null);
     }
 
 
     public void put(K node1, K node2, double val) {
         // only input the nodes in need
-        if (rowMap.containsKey(node1) && colMap.containsKey(node2)) {
-            int i = rowMap.get(node1);
-            int j = colMap.get(node2);
-            mat.set(i, j, val);
+        int i = rowIndex.indexOf(node1);
+        int j = colIndex.indexOf(node2);
+        if (i != -1 && j != -1) {
+            put(i, j, val);
         }
     }
 
-
-    private void getIndexNameMap() {
-        // switch key and value only because of the bi-direction relationship maintained by the NodeList
-        // sorted by natural order of the key
-        TreeMap<K, Integer> colTree = new TreeMap<>(colMap);
-        TreeMap<K, Integer> rowTree = new TreeMap<>(rowMap);
-        // switch
-        colTree.forEach((name, index) -> colIndexNameMap.put(index, name));
-        rowTree.forEach((name, index) -> rowIndexNameMap.put(index, name));
+    public void put(int i, int j, double val) {
+        mat.set(i, j, val);
     }
 
     public double getVal(K node1, K node2) {
-        int i = rowMap.get(node1);
-        int j = colMap.get(node2);
+        int i = indexOf(rowIndex, node1);
+        int j = indexOf(colIndex, node2);
         return getVal(i, j);
     }
 
+    private static <K> int indexOf(NodeIndex<K> index, K node) {
+        int i = index.indexOf(node);
+        if (i == -1) {
+            throw new NoSuchElementException("Node " + node + " is not in the similarity matrix.");
+        }
+        return i;
+    }
+
 
     public double getVal(int i, int j) {
         return mat.get(i, j);
@@ -119,26 +104,22 @@ public class SimMat<K> {
      * @return split result
      */
     public SimMat<K> getPart(Collection<K> rowSet, Collection<K> colSet) {
-        assert (getRowSet().containsAll(rowSet) && getColSet().containsAll(colSet));
-        if (rowSet.equals(this.getRowSet()) && colSet.equals(this.getColSet())) {
+        assert (getRowSetView().containsAll(rowSet) && getColSetView().containsAll(colSet));
+        if (rowSet.equals(getRowSetView()) && colSet.equals(getColSetView())) {
             return this;
         }
-        int i = 0;
-        int j = 0;
-        int[] rowIndexes = new int[rowSet.size()];
-        int[] colIndexes = new int[colSet.size()];
-        HashMap<K, Integer> rowMap = new HashMap<>();
-        HashMap<K, Integer> colMap = new HashMap<>();
-        for (K s : rowSet) {
-            rowIndexes[i] = this.rowMap.get(s);
-            rowMap.put(s, i++);
-        }
-        for (K s : colSet) {
-            colIndexes[j] = this.colMap.get(s);
-            colMap.put(s, j++);
-        }
-        DenseMatrix res = DenseMatrix.getMat((DenseMatrix) mat, rowIndexes, colIndexes);
-        return new SimMat<>(rowMap, colMap, res, mapKeyType);
+        NodeIndex<K> rows = partIndex(rowIndex, rowSet);
+        NodeIndex<K> cols = partIndex(colIndex, colSet);
+        DenseMatrix res = DenseMatrix.getMat((DenseMatrix) mat, rowIndex.indexesOf(rows.nodes()),
+                colIndex.indexesOf(cols.nodes()));
+        return new SimMat<>(rows, cols, res, mapKeyType);
+    }
+
+    /**
+     * @return the index itself when the nodes are its own view, otherwise a new index of the nodes
+     */
+    protected static <K> NodeIndex<K> partIndex(NodeIndex<K> index, Collection<K> nodes) {
+        return nodes == index.asSet() ? index : new NodeIndex<>(nodes);
     }
 
     /**
@@ -147,62 +128,127 @@ public class SimMat<K> {
      * @return deep copy result
      */
     public SimMat<K> dup() {
-        DenseMatrix mat = this.mat.copy();
-        //------------------similarity matrix----------
-        HashMap<K, Integer> rowMap = new HashMap<>(this.rowMap);
-        HashMap<K, Integer> colMap = new HashMap<>(this.colMap);
-        //-----------------index name map---------------------
-        HashMap<Integer, K> rowIndexNameMap = new HashMap<>(this.rowIndexNameMap);
-        HashMap<Integer, K> colIndexNameMap = new HashMap<>(this.colIndexNameMap);
-        return new SimMat<>(rowMap, rowIndexNameMap, colMap, colIndexNameMap,mat);
+        // node indexes are immutable, share them
+        return new SimMat<>(rowIndex, colIndex, this.mat.copy(), mapKeyType);
     }
 
     public DenseMatrix getMat() {
         return mat.copy();
     }
 
+    /**
+     * Exchange the matrix data with another matrix of the same node indexes(e.g. by dup()) without copying,
+     * so two preallocated matrices can swap their roles.
+     */
+    public void swapMat(SimMat<K> other) {
+        if (other.rowIndex != rowIndex || other.colIndex != colIndex) {
+            throw new IllegalArgumentException("Only matrices sharing the node indexes can be swapped.");
+        }
+        if (other.mat == null) {
+            throw new UnsupportedOperationException("A sparse matrix can not be swapped, use toDense() first.");
+        }
+        DenseMatrix tmp = mat;
+        mat = other.mat;
+        other.mat = tmp;
+    }
+
+
+    /**
+     * Read-only view of the matrix data without copying, it must not be modified.
+     * For the dense storage, (i,j) -> data[i * numCols + j].
+     */
+    public DMatrixRMaj getMatView() {
+        return mat.getDDRM();
+    }
+
+    /**
+     * Read-only view of the matrix data in row-major order without copying, it must not be modified.
+     */
+    public double[] getDataView() {
+        return mat.data();
+    }
+
+    /**
+     * The matrix data in row-major order without copying, for kernels which overwrite the matrix in place.
+     */
+    public double[] getDataForWrite() {
+        return mat.data();
+    }
+
+    public Set<K> getRowSetView() {
+        return rowIndex.asSet();
+    }
+
+    public Set<K> getColSetView() {
+        return colIndex.asSet();
+    }
+
+    public Map<K, Integer> getRowMapView() {
+        return rowIndex.asMap();
+    }
+
+    public Map<K, Integer> getColMapView() {
+        return colIndex.asMap();
+    }
+
+    /**
+     * The index -> name view is {@link NodeIndex#nodes()}, names are interned in the index order.
+     */
+    public NodeIndex<K> getRowIndex() {
+        return rowIndex;
+    }
+
+    public NodeIndex<K> getColIndex() {
+        return colIndex;
+    }
 
     public HashMap<Integer, K> getRowIndexNameMap() {
-        return new HashMap<>(rowIndexNameMap);
+        return rowIndex.toIndexNameMap();
     }
 
     public HashMap<Integer, K> getColIndexNameMap() {
-        return new HashMap<>(colIndexNameMap);
+        return colIndex.toIndexNameMap();
     }
 
     public HashMap<K, Integer> getColMap() {
-        return new HashMap<>(colMap);
+        return colIndex.toMap();
     }
 
     public HashMap<K, Integer> getRowMap() {
-        return new HashMap<>(rowMap);
+        return rowIndex.toMap();
     }
 
 
     public HashSet<K> getRowSet() {
 
-        return new HashSet<>(this.rowMap.keySet());
+        return new HashSet<>(rowIndex.nodes());
     }
 
 
     public Set<K> getColSet() {
-        return new HashSet<>(this.colMap.keySet());
+        return new HashSet<>(colIndex.nodes());
     }
 
     public void setColIndexNameMap(HashMap<Integer, K> colIndexNameMap) {
-        this.colIndexNameMap = colIndexNameMap;
+        this.colIndex = NodeIndex.of(swap(colIndexNameMap));
     }
 
     public void setRowIndexNameMap(HashMap<Integer, K> rowIndexNameMap) {
-        this.rowIndexNameMap = rowIndexNameMap;
+        this.rowIndex = NodeIndex.of(swap(rowIndexNameMap));
+    }
+
+    private static <K> HashMap<K, Integer> swap(HashMap<Integer, K> indexNameMap) {
+        HashMap<K, Integer> res = new HashMap<>(indexNameMap.size() * 2);
+        indexNameMap.forEach((index, name) -> res.put(name, index));
+        return res;
     }
 
     public void setColMap(HashMap<K, Integer> colMap) {
-        this.colMap = colMap;
+        this.colIndex = NodeIndex.of(colMap);
     }
 
     public void setRowMap(HashMap<K, Integer> rowMap) {
-        this.rowMap = rowMap;
+        this.rowIndex = NodeIndex.of(rowMap);
     }
 
     public void setMat(DenseMatrix mat) {
@@ -215,25 +261,32 @@ public class SimMat<K> {
      */
     public Pair<SimMat<K>, SimMat<K>> splitByPercentage(double account) {
         Vector<Pair<K, Double>> rowAves = new Vector<>();
-        rowMap.keySet().parallelStream().forEach(r -> {
-            int row = rowMap.get(r);
-            double ave = mat.getRow(row).elementSum()/ colMap.size();
-            rowAves.add(new Pair<>(r, ave));
+        IntStream.range(0, rowIndex.size()).parallel().forEach(row -> {
+            double ave = rowSum(row) / colIndex.size();
+            rowAves.add(new Pair<>(rowIndex.get(row), ave));
         });
         // sort
         List<Pair<K, Double>> res = rowAves.stream().sorted(Comparator.comparingDouble(Pair::getSecond)).collect(Collectors.toList());
-        int num = (int) (account * rowMap.size());
+        int num = (int) (account * rowIndex.size());
         HashSet<K> rows = new HashSet<>();
         for (int i = num; i < res.size(); i++) {
             rows.add(res.get(i).getFirst());
         }
         HashSet<K> left = getRowSet();
         left.removeAll(rows);
-        SimMat<K> H = getPart(rows, getColSet());
-        SimMat<K> G = getPart(left, getColSet());
+        SimMat<K> H = getPart(rows, getColSetView());
+        SimMat<K> G = getPart(left, getColSetView());
         return new Pair<>(H, G);
     }
 
+    /**
+     * @param row row index
+     * @return sum of the row
+     */
+    protected double rowSum(int row) {
+        return mat.getRow(row).elementSum();
+    }
+
     /**
      * find the max value node with tgt nodes not been assigned,
      *
@@ -243,18 +296,54 @@ public class SimMat<K> {
     public K getMax(int row, HashSet<K> assign) {
         double max = -Double.MAX_VALUE;
         K res = null;
-        for (K s : getColSet()) {
-            int j = colMap.get(s);
+        for (int j = 0; j < colIndex.size(); j++) {
+            K s = colIndex.get(j);
             double val = mat.get(row, j);
             if (!assign.contains(s) && val > max) {
                 max = val;
-                res = colIndexNameMap.get(j);
+                res = s;
             }
         }
         assign.add(res);
         return res;
     }
 
+    /**
+     * data += factor * mat, where data is organized in row-major order
+     *
+     * @param data   one dimension array
+     * @param factor scale factor
+     */
+    public void scaleAddTo(double[] data, double factor) {
+        double[] src = mat.data();
+        for (int i = 0; i < src.length; i++) {
+            data[i] += factor * src[i];
+        }
+    }
+
+    /**
+     * The same as scaleAddTo(double[], double) for one row only
+     *
+     * @param row    the row to add
+     * @param data   one dimension array
+     * @param factor scale factor
+     */
+    public void scaleAddRowTo(int row, double[] data, double factor) {
+        double[] src = mat.data();
+        int cols = colIndex.size();
+        int offset = row * cols;
+        for (int j = offset; j < offset + cols; j++) {
+            data[j] += factor * src[j];
+        }
+    }
+
+    /**
+     * @return a similarity matrix with dense storage, itself when it is already dense
+     */
+    public SimMat<K> toDense() {
+        return this;
+    }
+
     /**
      * Set data using array
      * @param out one dimension array
@@ -274,7 +363,7 @@ public class SimMat<K> {
         hungRows = new HashSet<>();
         hungRowsLeft = new HashSet<>();
 
-        rowMap.keySet().parallelStream().forEach(r -> {
+        rowIndex.nodes().parallelStream().forEach(r -> {
             int nonZero = getNonZero(r);
             // hungarian
             if(nonZero >= nonZeros){
@@ -289,8 +378,8 @@ public class SimMat<K> {
         setHungRows(hungRows);
 
         // split the matrix to H and G
-        SimMat<K> H = getPart(hungRows, getColSet());
-        SimMat<K> G = getPart(hungRowsLeft, getColSet());
+        SimMat<K> H = getPart(hungRows, getColSetView());
+        SimMat<K> G = getPart(hungRowsLeft, getColSetView());
         return new Pair<>(H, G);
     }
 
@@ -302,7 +391,7 @@ public class SimMat<K> {
      * @return nonzero number
      */
     public <K> int getNonZero(K r) {
-        StatisticsMatrix row = mat.getRow(rowMap.get(r));
+        StatisticsMatrix row = mat.getRow(rowIndex.indexOf(r));
         int nonZero = 0;
         for (int c = 0; c < row.numCols(); c++) {
             if(row.get(0,c) != 0){
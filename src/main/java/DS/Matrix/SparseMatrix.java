@@ -3,7 +3,12 @@ package DS.Matrix;
 import org.ejml.data.DMatrixSparseCSC;
 import org.ejml.sparse.csc.CommonOps_DSCC;
 
+import java.util.stream.IntStream;
+
 public class SparseMatrix extends StatisticsMatrix {
+    // columns per task of multTransA()
+    private static final int BLOCK = 4096;
+
     public SparseMatrix() {
 
     }
@@ -59,4 +64,29 @@ public class SparseMatrix extends StatisticsMatrix {
         mat.setMatrix(CommonOps_DSCC.identity(tgtSize));
         return mat;
     }
+
+    /**
+     * y = A^T x on the CSC storage, parallel over blocks of columns of A, which are the rows of y, so no two blocks
+     * write the same entry. For a symmetric A, e.g. an adjacency matrix, this is A x.
+     *
+     * @param x a vector of numRows
+     * @param y a vector of numCols, overwritten
+     */
+    public void multTransA(double[] x, double[] y) {
+        DMatrixSparseCSC A = (DMatrixSparseCSC) getMatrix();
+        if (x.length != A.numRows || y.length != A.numCols) {
+            throw new IllegalArgumentException("Illegal vector size.");
+        }
+        int blocks = (A.numCols + BLOCK - 1) / BLOCK;
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            int end = Math.min(A.numCols, (b + 1) * BLOCK);
+            for (int j = b * BLOCK; j < end; j++) {
+                double sum = 0;
+                for (int k = A.col_idx[j]; k < A.col_idx[j + 1]; k++) {
+                    sum += A.nz_values[k] * x[A.nz_rows[k]];
+                }
+                y[j] = sum;
+            }
+        });
+    }
 }
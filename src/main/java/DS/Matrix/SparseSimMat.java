@@ -0,0 +1,210 @@
+package DS.Matrix;
+
+import DS.Network.NodeIndex;
+import org.ejml.data.DMatrixRMaj;
+
+import java.util.*;
+
+/**
+ * Similarity matrix stored by {@link RowSparseMatrix}, which fits BLAST-derived similarity
+ * where most of the entries are zeros. Only non-zero entries are kept, and row based operations
+ * (split, greedy search, non-zero counting) visit the non-zero entries only.
+ * <p>
+ * Notice: getMat() will densify the matrix, use toDense() once if a dense working copy is needed.
+ * </p>
+ */
+public class SparseSimMat<K> extends SimMat<K> {
+    protected RowSparseMatrix sparse;
+
+    /**
+     * Construct a sparse similarity matrix based on nodes from two graph
+     *
+     * @param g1          graph1 all nodes
+     * @param g2          graph2 all nodes
+     * @param mapKeyClass similarity matrix row and column index maps, key class
+     */
+    public SparseSimMat(Set<K> g1, Set<K> g2, Class<K> mapKeyClass) {
+        super(g1, g2, mapKeyClass);
+    }
+
+    /**
+     * The rowMat have to be in the same length and same order
+     */
+    public SparseSimMat(HashMap<K, Integer> rowMap, HashMap<K, Integer> colMap,
+                        RowSparseMatrix matrix,
+                        Class<K> mapKeyType) {
+        super(rowMap, colMap, null, mapKeyType);
+        this.sparse = matrix;
+    }
+
+    public SparseSimMat(HashMap<K, Integer> rowMap, HashMap<Integer, K> rowIndexNameMap, HashMap<K, Integer> colMap,
+                        HashMap<Integer, K> colIndexNameMap, RowSparseMatrix matrix) {
+        super(rowMap, rowIndexNameMap, colMap, colIndexNameMap, null);
+        this.sparse = matrix;
+    }
+
+    public SparseSimMat(NodeIndex<K> rowIndex, NodeIndex<K> colIndex, RowSparseMatrix matrix, Class<K> mapKeyType) {
+        super(rowIndex, colIndex, null, mapKeyType);
+        this.sparse = matrix;
+    }
+
+    @Override
+    protected void initMat(Set<K> g1, Set<K> g2) {
+        this.sparse = new RowSparseMatrix(g1.size(), g2.size());
+    }
+
+    @Override
+    public void put(int i, int j, double val) {
+        sparse.set(i, j, val);
+    }
+
+    @Override
+    public double getVal(int i, int j) {
+        return sparse.get(i, j);
+    }
+
+    /**
+     * Split the matrix which contains only rows in rowSet and cols in colSet, the result is still sparse.
+     *
+     * @return split result
+     */
+    @Override
+    public SimMat<K> getPart(Collection<K> rowSet, Collection<K> colSet) {
+        assert (getRowSetView().containsAll(rowSet) && getColSetView().containsAll(colSet));
+        if (rowSet.equals(getRowSetView()) && colSet.equals(getColSetView())) {
+            return this;
+        }
+        NodeIndex<K> rows = partIndex(rowIndex, rowSet);
+        NodeIndex<K> cols = partIndex(colIndex, colSet);
+        return new SparseSimMat<>(rows, cols,
+                sparse.getMat(rowIndex.indexesOf(rows.nodes()), colIndex.indexesOf(cols.nodes())), mapKeyType);
+    }
+
+    /**
+     * Deep copy
+     *
+     * @return deep copy result, still sparse
+     */
+    @Override
+    public SimMat<K> dup() {
+        return new SparseSimMat<>(rowIndex, colIndex, sparse.copy(), mapKeyType);
+    }
+
+    /**
+     * @return a dense copy of the matrix
+     */
+    @Override
+    public DenseMatrix getMat() {
+        return sparse.toDense();
+    }
+
+    /**
+     * There is no dense storage to swap, use toDense() first.
+     */
+    @Override
+    public void swapMat(SimMat<K> other) {
+        throw new UnsupportedOperationException("A sparse matrix can not be swapped, use toDense() first.");
+    }
+
+    /**
+     * There is no dense storage to view, so this is a dense copy.
+     */
+    @Override
+    public DMatrixRMaj getMatView() {
+        return sparse.toDense().getDDRM();
+    }
+
+    /**
+     * There is no dense storage to view, so this is a dense copy.
+     */
+    @Override
+    public double[] getDataView() {
+        return sparse.toDense().data();
+    }
+
+    /**
+     * There is no dense storage to write.
+     */
+    @Override
+    public double[] getDataForWrite() {
+        throw new UnsupportedOperationException(
+                "A sparse similarity matrix can not be written in place, use toDense() first.");
+    }
+
+    @Override
+    public SimMat<K> toDense() {
+        return new SimMat<>(rowIndex, colIndex, sparse.toDense(), mapKeyType);
+    }
+
+    @Override
+    public void setMat(DenseMatrix mat) {
+        throw new UnsupportedOperationException("A sparse similarity matrix can not be set by a dense matrix.");
+    }
+
+    @Override
+    public void setData(double[] out) {
+        throw new UnsupportedOperationException("A sparse similarity matrix can not be set by a dense array.");
+    }
+
+    @Override
+    public void scaleAddTo(double[] data, double factor) {
+        sparse.scaleAddTo(data, factor);
+    }
+
+    @Override
+    public void scaleAddRowTo(int row, double[] data, double factor) {
+        sparse.scaleAddRowTo(row, data, factor);
+    }
+
+    @Override
+    protected double rowSum(int row) {
+        return sparse.rowSum(row);
+    }
+
+    /**
+     * Find the max value node with tgt nodes not been assigned, only non-zero entries are scanned
+     * unless all of them have been assigned or negative.
+     *
+     * @param assign previous mapping result
+     * @return the best node for mapping by greedy algorithm, null for all nodes has been assigned
+     */
+    @Override
+    public K getMax(int row, HashSet<K> assign) {
+        double max = -Double.MAX_VALUE;
+        K res = null;
+        for (int k = 0; k < sparse.nonZeros(row); k++) {
+            K s = colIndex.get(sparse.nonZeroCol(row, k));
+            double val = sparse.nonZeroVal(row, k);
+            if (!assign.contains(s) && val > max) {
+                max = val;
+                res = s;
+            }
+        }
+        // zero entries
+        if (max < 0 && sparse.nonZeros(row) < sparse.numCols()) {
+            int k = 0;
+            for (int j = 0; j < sparse.numCols(); j++) {
+                if (k < sparse.nonZeros(row) && sparse.nonZeroCol(row, k) == j) {
+                    k++;
+                    continue;
+                }
+                K s = colIndex.get(j);
+                if (!assign.contains(s)) {
+                    res = s;
+                    break;
+                }
+            }
+        }
+        assign.add(res);
+        return res;
+    }
+
+    @Override
+    public <T> int getNonZero(T r) {
+        return sparse.nonZeros(rowIndex.indexOf(r));
+    }
+
+    public RowSparseMatrix getSparse() {
+        return sparse;
+    }
+}
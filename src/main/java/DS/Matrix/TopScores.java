@@ -0,0 +1,237 @@
+package DS.Matrix;
+
+import DS.Network.NodeIndex;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The k best scores of a score vector, kept in a bounded min-heap of primitives keyed by the interned node ids
+ * of a {@link NodeIndex}, so selecting from n scores costs O(n log k) time and O(k) memory without boxing.
+ * <p>
+ * A higher score is better, and the smaller id wins a tie, so the selection is deterministic. Scores below the
+ * threshold or NaN are pruned before the heap. After the offers, rank r -> (id(r), score(r)) is the r-th best.
+ * </p>
+ */
+public final class TopScores {
+    private final int k;
+    private final double threshold;
+    // a min-heap by the order below until sorted, then the best first
+    private int[] ids;
+    private double[] scores;
+    private int size;
+    private boolean sorted;
+
+    /**
+     * @param k the number of scores to keep
+     */
+    public TopScores(int k) {
+        this(k, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * @param k         the number of scores to keep
+     * @param threshold scores below it are never kept
+     */
+    public TopScores(int k, double threshold) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k should not be negative.");
+        }
+        this.k = k;
+        this.threshold = threshold;
+        // grown on demand, a large k is fine for threshold-only pruning
+        int capacity = Math.min(k, 16);
+        this.ids = new int[capacity];
+        this.scores = new double[capacity];
+    }
+
+    /**
+     * @return the best k scores of the vector, id i is scores[i]
+     */
+    public static TopScores of(double[] scores, int k, double threshold) {
+        TopScores top = new TopScores(k, threshold);
+        for (int i = 0; i < scores.length; i++) {
+            top.offer(i, scores[i]);
+        }
+        return top;
+    }
+
+    /**
+     * @return the best k scores of a column, id i is scores(i, column)
+     */
+    public static TopScores of(DMatrixRMaj scores, int column, int k, double threshold) {
+        TopScores top = new TopScores(k, threshold);
+        double[] data = scores.data;
+        int cols = scores.numCols;
+        for (int i = 0, p = column; i < scores.numRows; i++, p += cols) {
+            top.offer(i, data[p]);
+        }
+        return top;
+    }
+
+    /**
+     * Read the column of a sparse matrix in place, the rows not stored are scores of 0.
+     *
+     * @return the best k scores of a column, id i is scores(i, column)
+     */
+    public static TopScores of(DMatrixSparseCSC scores, int column, int k, double threshold) {
+        TopScores top = new TopScores(k, threshold);
+        int start = scores.col_idx[column];
+        int end = scores.col_idx[column + 1];
+        for (int p = start; p < end; p++) {
+            top.offer(scores.nz_rows[p], scores.nz_values[p]);
+        }
+        // the implicit zeros only count when the threshold keeps them
+        if (0 >= threshold) {
+            boolean[] stored = new boolean[scores.numRows];
+            for (int p = start; p < end; p++) {
+                stored[scores.nz_rows[p]] = true;
+            }
+            for (int i = 0; i < scores.numRows; i++) {
+                if (!stored[i]) {
+                    top.offer(i, 0);
+                }
+            }
+        }
+        return top;
+    }
+
+    /**
+     * @return true if the score is kept for now
+     */
+    public boolean offer(int id, double score) {
+        // NaN fails as well
+        if (!(score >= threshold) || k == 0) {
+            return false;
+        }
+        if (sorted) {
+            heapify();
+        }
+        if (size < k) {
+            if (size == ids.length) {
+                int capacity = (int) Math.min(k, 2L * size);
+                ids = Arrays.copyOf(ids, capacity);
+                scores = Arrays.copyOf(scores, capacity);
+            }
+            ids[size] = id;
+            scores[size] = score;
+            siftUp(size++);
+            return true;
+        }
+        // the root is the worst kept
+        if (!better(score, id, scores[0], ids[0])) {
+            return false;
+        }
+        ids[0] = id;
+        scores[0] = score;
+        siftDown(0, size);
+        return true;
+    }
+
+    private static boolean better(double s1, int id1, double s2, int id2) {
+        return s1 > s2 || (s1 == s2 && id1 < id2);
+    }
+
+    /**
+     * heap order: a parent is worse than its children
+     */
+    private boolean worse(int a, int b) {
+        return better(scores[b], ids[b], scores[a], ids[a]);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worse(i, parent)) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i, int end) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= end) {
+                break;
+            }
+            if (child + 1 < end && worse(child + 1, child)) {
+                child++;
+            }
+            if (!worse(child, i)) {
+                break;
+            }
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+
+    private void heapify() {
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i, size);
+        }
+        sorted = false;
+    }
+
+    /**
+     * Heap sort in place, the worst is moved to the end each time.
+     */
+    private void sort() {
+        if (sorted) {
+            return;
+        }
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+        sorted = true;
+    }
+
+    /**
+     * @return the number of kept scores, at most k
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return node id of rank r, 0 is the best
+     */
+    public int id(int r) {
+        sort();
+        return ids[r];
+    }
+
+    /**
+     * @return score of rank r, 0 is the best
+     */
+    public double score(int r) {
+        sort();
+        return scores[r];
+    }
+
+    /**
+     * @return nodes from the best
+     */
+    public <V> List<V> nodes(NodeIndex<V> index) {
+        sort();
+        List<V> res = new ArrayList<>(size);
+        for (int r = 0; r < size; r++) {
+            res.add(index.get(ids[r]));
+        }
+        return res;
+    }
+}
@@ -0,0 +1,134 @@
+package DS.Network;
+
+/**
+ * Adjacency matrix of a graph packed in bits, row i -> bits[i * words, (i + 1) * words), so a graph of 20k
+ * vertices takes 50MB instead of 400MB by boolean[]. It is filled from the edge set in O(|V| + |E|) besides
+ * zeroing the words, and the common neighbors of two vertices are counted by AND and popcount of their rows,
+ * 64 vertices per instruction.
+ * <p>
+ * Vertices are indexed by the iteration order of the vertex set, the same order as {@link Graph#getAdjMat()}.
+ * The bits are one array, so the graph should have at most about 370k vertices, see {@link #fits(int)}.
+ * </p>
+ *
+ * @param <V> vertex type
+ */
+public final class BitAdjacency<V> {
+    private final NodeIndex<V> nodes;
+    // longs per row
+    private final int words;
+    private final long[] bits;
+
+    public BitAdjacency(org.jgrapht.Graph<V, ?> graph) {
+        this(new NodeIndex<>(graph.vertexSet()), graph);
+    }
+
+    private <E> BitAdjacency(NodeIndex<V> nodes, org.jgrapht.Graph<V, E> graph) {
+        this.nodes = nodes;
+        int n = nodes.size();
+        this.words = (n + 63) >>> 6;
+        long length = (long) n * words;
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The adjacency of " + n + " vertices takes " + length
+                    + " longs, more than an array can hold.");
+        }
+        this.bits = new long[(int) length];
+        for (E e : graph.edgeSet()) {
+            int s = nodes.indexOf(graph.getEdgeSource(e));
+            int t = nodes.indexOf(graph.getEdgeTarget(e));
+            set(s, t);
+            set(t, s);
+        }
+    }
+
+    /**
+     * @return true if the bits of a graph of n vertices fit in one array
+     */
+    public static boolean fits(int n) {
+        return (long) n * ((n + 63) >>> 6) <= Integer.MAX_VALUE;
+    }
+
+    private void set(int i, int j) {
+        bits[i * words + (j >>> 6)] |= 1L << j;
+    }
+
+    /**
+     * @return the interned vertices, vertex -> row
+     */
+    public NodeIndex<V> getNodeIndex() {
+        return nodes;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * @return longs of each row, which is also the length of a mask
+     */
+    public int words() {
+        return words;
+    }
+
+    /**
+     * @return true if vertex i and j are connected
+     */
+    public boolean get(int i, int j) {
+        return (bits[i * words + (j >>> 6)] & 1L << j) != 0;
+    }
+
+    /**
+     * @return number of neighbors of vertex i, a self-loop is counted once
+     */
+    public int nebSize(int i) {
+        int count = 0;
+        for (int w = i * words, end = w + words; w < end; w++) {
+            count += Long.bitCount(bits[w]);
+        }
+        return count;
+    }
+
+    /**
+     * @return number of common neighbors of vertex i and j
+     */
+    public int commonNeighbors(int i, int j) {
+        int count = 0;
+        int a = i * words;
+        int b = j * words;
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount(bits[a + w] & bits[b + w]);
+        }
+        return count;
+    }
+
+    /**
+     * @param mask vertices packed in the same layout as a row
+     * @return number of neighbors of vertex i within the mask
+     */
+    public int andCount(int i, long[] mask) {
+        int count = 0;
+        int a = i * words;
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount(bits[a + w] & mask[w]);
+        }
+        return count;
+    }
+
+    /**
+     * The same layout as {@link Graph#getAdjMat()}: A(i,j) -> adjMat[j * s + i], for callers which need it.
+     */
+    public boolean[] toBooleanArray() {
+        int s = nodes.size();
+        boolean[] adjMat = new boolean[s * s];
+        for (int i = 0; i < s; i++) {
+            for (int w = 0; w < words; w++) {
+                long word = bits[i * words + w];
+                while (word != 0) {
+                    int j = (w << 6) + Long.numberOfTrailingZeros(word);
+                    adjMat[j * s + i] = true;
+                    word &= word - 1;
+                }
+            }
+        }
+        return adjMat;
+    }
+}
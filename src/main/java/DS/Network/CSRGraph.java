@@ -0,0 +1,619 @@
+package DS.Network;
+
+import org.jgrapht.GraphType;
+import org.jgrapht.graph.AbstractGraph;
+import org.jgrapht.graph.DefaultGraphType;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Read-only undirected graph in the compressed sparse row(CSR) layout, for analysis workloads which never
+ * mutate the graph. Vertices are interned by a {@link NodeIndex} with int ids, and the neighbors of vertex v are
+ * targets[offsets[v], offsets[v+1]) sorted by id, so the neighbor queries run on ints without allocation:
+ * <pre>
+ *     for (int k = g.start(v); k &lt; g.end(v); k++) {
+ *         int u = g.target(k);
+ *         double w = g.weight(k);
+ *     }
+ * </pre>
+ * <p>
+ * Edges keep the objects of the source graph, edge e -> (source[e], target[e], weight[e]), and the weights are
+ * only stored when some of them differ from the default one. getNeb() and edgesOf() are views over the rows,
+ * and the edge -> id map for the jgrapht queries on edge objects is only built when they are used.
+ * </p>
+ * <p>
+ * Every mutation throws an UnsupportedOperationException.
+ * </p>
+ */
+public class CSRGraph<V, E> extends AbstractGraph<V, E> implements Graph<V, E> {
+    private final NodeIndex<V> nodes;
+    private final int[] offsets;
+    private final int[] targets;
+    // slot -> edge id
+    private final int[] slotEdges;
+    //---------------edges by id------------
+    private final Object[] edges;
+    private final int[] edgeSource;
+    private final int[] edgeTarget;
+    // null if all the weights are the default one
+    private final double[] weights;
+    // edge -> id, built on demand
+    private volatile Map<E, Integer> edgeIndex;
+    private final Set<E> edgeSetView = new EdgeSet();
+
+    /**
+     * Copy an existing graph, vertices are indexed by the iteration order of its vertex set.
+     */
+    public CSRGraph(org.jgrapht.Graph<V, E> graph) {
+        this(new NodeIndex<>(graph.vertexSet()), graph.edgeSet(), graph);
+    }
+
+    /**
+     * Build from the edges of the graph, whose endpoints are all in nodes.
+     */
+    private CSRGraph(NodeIndex<V> nodes, Collection<E> edgeSet, org.jgrapht.Graph<V, E> graph) {
+        this.nodes = nodes;
+        int n = nodes.size();
+        int m = edgeSet.size();
+        edges = new Object[m];
+        edgeSource = new int[m];
+        edgeTarget = new int[m];
+        double[] w = new double[m];
+        boolean weighted = false;
+        int[] degree = new int[n];
+        int id = 0;
+        for (E e : edgeSet) {
+            int s = nodes.indexOf(graph.getEdgeSource(e));
+            int t = nodes.indexOf(graph.getEdgeTarget(e));
+            edges[id] = e;
+            edgeSource[id] = s;
+            edgeTarget[id] = t;
+            w[id] = graph.getEdgeWeight(e);
+            weighted |= w[id] != DEFAULT_EDGE_WEIGHT;
+            degree[s]++;
+            // a self-loop is one neighbor
+            if (s != t) {
+                degree[t]++;
+            }
+            id++;
+        }
+        weights = weighted ? w : null;
+        offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + degree[v];
+        }
+        // (target << 32 | edge) of every slot, sorted within the rows
+        long[] slots = new long[offsets[n]];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int e = 0; e < m; e++) {
+            int s = edgeSource[e];
+            int t = edgeTarget[e];
+            slots[fill[s]++] = (long) t << 32 | e;
+            if (s != t) {
+                slots[fill[t]++] = (long) s << 32 | e;
+            }
+        }
+        targets = new int[slots.length];
+        slotEdges = new int[slots.length];
+        for (int v = 0; v < n; v++) {
+            Arrays.sort(slots, offsets[v], offsets[v + 1]);
+        }
+        for (int k = 0; k < slots.length; k++) {
+            targets[k] = (int) (slots[k] >>> 32);
+            slotEdges[k] = (int) slots[k];
+        }
+    }
+
+    /**
+     * Wrap the arrays of the layout, used by {@link #getSub(Set)} to build from the slots of the rows.
+     */
+    private CSRGraph(NodeIndex<V> nodes, int[] offsets, int[] targets, int[] slotEdges, Object[] edges,
+                     int[] edgeSource, int[] edgeTarget, double[] weights) {
+        this.nodes = nodes;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.slotEdges = slotEdges;
+        this.edges = edges;
+        this.edgeSource = edgeSource;
+        this.edgeTarget = edgeTarget;
+        this.weights = weights;
+    }
+
+    //---------------int queries------------
+
+    /**
+     * @return the interned vertices, vertex id -> vertex
+     */
+    public NodeIndex<V> getNodeIndex() {
+        return nodes;
+    }
+
+    /**
+     * @return id of the vertex, -1 if it is not in the graph
+     */
+    public int indexOf(V vertex) {
+        return nodes.indexOf(vertex);
+    }
+
+    public V vertex(int v) {
+        return nodes.get(v);
+    }
+
+    public int vertexCount() {
+        return nodes.size();
+    }
+
+    /**
+     * @return first slot of the neighbors of vertex v
+     */
+    public int start(int v) {
+        return offsets[v];
+    }
+
+    /**
+     * @return the slot after the last neighbor of vertex v
+     */
+    public int end(int v) {
+        return offsets[v + 1];
+    }
+
+    /**
+     * @return number of neighbors of vertex v, a self-loop is counted once
+     */
+    public int nebSize(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    /**
+     * @return the neighbor in the slot
+     */
+    public int target(int slot) {
+        return targets[slot];
+    }
+
+    /**
+     * @return weight of the edge in the slot
+     */
+    public double weight(int slot) {
+        return weights == null ? DEFAULT_EDGE_WEIGHT : weights[slotEdges[slot]];
+    }
+
+    /**
+     * @return true if u and v are connected, by a binary search in the row of u
+     */
+    public boolean isNeighbor(int u, int v) {
+        return slotOf(u, v) >= 0;
+    }
+
+    public void forEachNeighbor(int v, IntConsumer action) {
+        for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+            action.accept(targets[k]);
+        }
+    }
+
+    /**
+     * @return the slot of v in the row of u, negative if they are not connected
+     */
+    private int slotOf(int u, int v) {
+        return Arrays.binarySearch(targets, offsets[u], offsets[u + 1], v);
+    }
+
+    @SuppressWarnings("unchecked")
+    private E edge(int e) {
+        return (E) edges[e];
+    }
+
+    private Map<E, Integer> edgeIndex() {
+        Map<E, Integer> index = edgeIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = edgeIndex;
+                if (index == null) {
+                    index = new HashMap<>(edges.length * 2);
+                    for (int e = 0; e < edges.length; e++) {
+                        index.put(edge(e), e);
+                    }
+                    edgeIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    private int edgeId(E e) {
+        Integer id = edgeIndex().get(e);
+        if (id == null) {
+            throw new IllegalArgumentException("no such edge in graph: " + e);
+        }
+        return id;
+    }
+
+    private int vertexId(Object vertex) {
+        int v = nodes.indexOf(vertex);
+        if (v == -1) {
+            throw new IllegalArgumentException("no such vertex in graph: " + vertex);
+        }
+        return v;
+    }
+
+    //---------------DS.Network.Graph------------
+
+    /**
+     * @return an unmodifiable view of the neighbors
+     */
+    @Override
+    public Set<V> getNeb(V vertex) {
+        return new NeighborSet(vertexId(vertex));
+    }
+
+    @Override
+    public int getNebSize(V vertex) {
+        return nebSize(vertexId(vertex));
+    }
+
+    /**
+     * Filled from the rows, O(|V| + |E|) besides the matrix itself.
+     */
+    @Override
+    public boolean[] getAdjMat() {
+        int s = nodes.size();
+        boolean[] adjMat = new boolean[s * s];
+        for (int i = 0; i < s; i++) {
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                adjMat[targets[k] * s + i] = true;
+            }
+        }
+        return adjMat;
+    }
+
+    /**
+     * @return the induced subgraph in CSR, built from the slots of the selected rows in O(|V| + |E|), weights are kept
+     */
+    @Override
+    public Graph<V, E> getSub(Set<V> nodes) {
+        NodeIndex<V> subNodes = new NodeIndex<>(nodes);
+        int n = subNodes.size();
+        // vertex id -> id in the subgraph, -1 if not selected
+        int[] subIds = new int[vertexCount()];
+        Arrays.fill(subIds, -1);
+        int[] rows = new int[n];
+        for (int v = 0; v < n; v++) {
+            rows[v] = vertexId(subNodes.get(v));
+            subIds[rows[v]] = v;
+        }
+        // edge id -> id in the subgraph, numbered by the first row which has it
+        int[] subEdgeIds = new int[edges.length];
+        Arrays.fill(subEdgeIds, -1);
+        int[] subOffsets = new int[n + 1];
+        int m = 0;
+        for (int v = 0; v < n; v++) {
+            int degree = 0;
+            for (int k = offsets[rows[v]]; k < offsets[rows[v] + 1]; k++) {
+                if (subIds[targets[k]] != -1) {
+                    degree++;
+                    if (subEdgeIds[slotEdges[k]] == -1) {
+                        subEdgeIds[slotEdges[k]] = m++;
+                    }
+                }
+            }
+            subOffsets[v + 1] = subOffsets[v] + degree;
+        }
+        Object[] subEdges = new Object[m];
+        int[] subSource = new int[m];
+        int[] subTarget = new int[m];
+        double[] subWeights = new double[m];
+        boolean weighted = false;
+        for (int e = 0; e < edges.length; e++) {
+            int id = subEdgeIds[e];
+            if (id != -1) {
+                subEdges[id] = edges[e];
+                subSource[id] = subIds[edgeSource[e]];
+                subTarget[id] = subIds[edgeTarget[e]];
+                subWeights[id] = weights == null ? DEFAULT_EDGE_WEIGHT : weights[e];
+                weighted |= subWeights[id] != DEFAULT_EDGE_WEIGHT;
+            }
+        }
+        // the rows keep their slots, sorted again since the ids in the subgraph have another order
+        int[] subTargets = new int[subOffsets[n]];
+        int[] subSlotEdges = new int[subOffsets[n]];
+        long[] row = new long[0];
+        for (int v = 0; v < n; v++) {
+            int size = subOffsets[v + 1] - subOffsets[v];
+            if (row.length < size) {
+                row = new long[size];
+            }
+            int j = 0;
+            for (int k = offsets[rows[v]]; k < offsets[rows[v] + 1]; k++) {
+                int u = subIds[targets[k]];
+                if (u != -1) {
+                    row[j++] = (long) u << 32 | subEdgeIds[slotEdges[k]];
+                }
+            }
+            Arrays.sort(row, 0, size);
+            for (int i = 0, k = subOffsets[v]; i < size; i++, k++) {
+                subTargets[k] = (int) (row[i] >>> 32);
+                subSlotEdges[k] = (int) row[i];
+            }
+        }
+        return new CSRGraph<>(subNodes, subOffsets, subTargets, subSlotEdges, subEdges, subSource, subTarget,
+                weighted ? subWeights : null);
+    }
+
+    //---------------org.jgrapht.Graph------------
+
+    @Override
+    public Set<E> getAllEdges(V sourceVertex, V targetVertex) {
+        int u = nodes.indexOf(sourceVertex);
+        int v = nodes.indexOf(targetVertex);
+        if (u == -1 || v == -1) {
+            return null;
+        }
+        int slot = slotOf(u, v);
+        return slot < 0 ? Collections.emptySet() : Collections.singleton(edge(slotEdges[slot]));
+    }
+
+    @Override
+    public E getEdge(V sourceVertex, V targetVertex) {
+        int u = nodes.indexOf(sourceVertex);
+        int v = nodes.indexOf(targetVertex);
+        if (u == -1 || v == -1) {
+            return null;
+        }
+        int slot = slotOf(u, v);
+        return slot < 0 ? null : edge(slotEdges[slot]);
+    }
+
+    @Override
+    public boolean containsEdge(V sourceVertex, V targetVertex) {
+        int u = nodes.indexOf(sourceVertex);
+        int v = nodes.indexOf(targetVertex);
+        return u != -1 && v != -1 && isNeighbor(u, v);
+    }
+
+    @Override
+    public boolean containsEdge(E e) {
+        return edgeIndex().containsKey(e);
+    }
+
+    @Override
+    public boolean containsVertex(V v) {
+        return nodes.contains(v);
+    }
+
+    @Override
+    public Set<E> edgeSet() {
+        return edgeSetView;
+    }
+
+    /**
+     * A self-loop is counted twice as the undirected graphs of jgrapht.
+     */
+    @Override
+    public int degreeOf(V vertex) {
+        int v = vertexId(vertex);
+        return nebSize(v) + (isNeighbor(v, v) ? 1 : 0);
+    }
+
+    @Override
+    public Set<E> edgesOf(V vertex) {
+        return new IncidentSet(vertexId(vertex));
+    }
+
+    @Override
+    public int inDegreeOf(V vertex) {
+        return degreeOf(vertex);
+    }
+
+    @Override
+    public Set<E> incomingEdgesOf(V vertex) {
+        return edgesOf(vertex);
+    }
+
+    @Override
+    public int outDegreeOf(V vertex) {
+        return degreeOf(vertex);
+    }
+
+    @Override
+    public Set<E> outgoingEdgesOf(V vertex) {
+        return edgesOf(vertex);
+    }
+
+    @Override
+    public Set<V> vertexSet() {
+        return nodes.asSet();
+    }
+
+    @Override
+    public V getEdgeSource(E e) {
+        return nodes.get(edgeSource[edgeId(e)]);
+    }
+
+    @Override
+    public V getEdgeTarget(E e) {
+        return nodes.get(edgeTarget[edgeId(e)]);
+    }
+
+    @Override
+    public GraphType getType() {
+        return new DefaultGraphType.Builder().undirected().weighted(weights != null)
+                .allowMultipleEdges(false).allowSelfLoops(true).modifiable(false).build();
+    }
+
+    @Override
+    public double getEdgeWeight(E e) {
+        return weights == null ? DEFAULT_EDGE_WEIGHT : weights[edgeId(e)];
+    }
+
+    @Override
+    public Supplier<V> getVertexSupplier() {
+        return null;
+    }
+
+    @Override
+    public Supplier<E> getEdgeSupplier() {
+        return null;
+    }
+
+    //---------------read-only------------
+
+    @Override
+    public E addEdge(V sourceVertex, V targetVertex) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean addEdge(V sourceVertex, V targetVertex, E e) {
+        throw readOnly();
+    }
+
+    @Override
+    public V addVertex() {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean addVertex(V v) {
+        throw readOnly();
+    }
+
+    @Override
+    public E removeEdge(V sourceVertex, V targetVertex) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeEdge(E e) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeVertex(V v) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setEdgeWeight(E e, double weight) {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("A CSR graph is read-only.");
+    }
+
+    //---------------views------------
+
+    private class NeighborSet extends AbstractSet<V> {
+        private final int v;
+
+        NeighborSet(int v) {
+            this.v = v;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            int u = nodes.indexOf(o);
+            return u != -1 && isNeighbor(v, u);
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return new Iterator<V>() {
+                private int k = offsets[v];
+
+                @Override
+                public boolean hasNext() {
+                    return k < offsets[v + 1];
+                }
+
+                @Override
+                public V next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return nodes.get(targets[k++]);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return nebSize(v);
+        }
+    }
+
+    private class IncidentSet extends AbstractSet<E> {
+        private final int v;
+
+        IncidentSet(int v) {
+            this.v = v;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean contains(Object o) {
+            Integer e = edgeIndex().get((E) o);
+            return e != null && (edgeSource[e] == v || edgeTarget[e] == v);
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<E>() {
+                private int k = offsets[v];
+
+                @Override
+                public boolean hasNext() {
+                    return k < offsets[v + 1];
+                }
+
+                @Override
+                public E next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return edge(slotEdges[k++]);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return nebSize(v);
+        }
+    }
+
+    private class EdgeSet extends AbstractSet<E> {
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean contains(Object o) {
+            return edgeIndex().containsKey((E) o);
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<E>() {
+                private int e;
+
+                @Override
+                public boolean hasNext() {
+                    return e < edges.length;
+                }
+
+                @Override
+                public E next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return edge(e++);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return edges.length;
+        }
+    }
+}
@@ -11,6 +11,16 @@ public interface Graph<V,E> extends org.jgrapht.Graph<V, E> {
      */
     Set<V> getNeb(V vertex);
 
+    /**
+     * Number of neighbors of a vertex, the same as getNeb(vertex).size().
+     *
+     * @param vertex the target vertex
+     * @return size of the neighbors
+     */
+    default int getNebSize(V vertex) {
+        return getNeb(vertex).size();
+    }
+
     /**
      * Get a boolean matrix to describe the graph connections,
      * and A(i,j) = true means Vi and Vj is connected.
@@ -19,10 +29,28 @@ public interface Graph<V,E> extends org.jgrapht.Graph<V, E> {
      */
     boolean[] getAdjMat();
 
+    /**
+     * Bit-packed alternative of getAdjMat() for large graphs, in the same vertex order.
+     *
+     * @return adjacency matrix in bits
+     */
+    default BitAdjacency<V> getBitAdjMat() {
+        return new BitAdjacency<>(this);
+    }
+
     /**
      * Extract a subnetwork based on given nodes
      * @param nodes nodes from the subnetwork
      * @return a subgraph
      */
     Graph<V,E> getSub(Set<V> nodes);
+
+    /**
+     * Read-only view of the subnetwork induced by given nodes, nothing but the node set is copied.
+     * @param nodes nodes from the subnetwork
+     * @return a masked view of this graph
+     */
+    default Graph<V,E> getSubView(Set<V> nodes) {
+        return new SubGraphView<>(this, nodes);
+    }
 }
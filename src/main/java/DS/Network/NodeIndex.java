@@ -0,0 +1,240 @@
+package DS.Network;
+
+import java.util.*;
+
+/**
+ * Interned nodes with dense indexes 0..n-1, which are shared by similarity matrices and graph algorithms
+ * so that hot loops run on ints.
+ * <p>
+ * index -> node is kept in an immutable array, and node -> index is kept in an open-addressing
+ * hash table with linear probing, so neither direction boxes an Integer.
+ * </p>
+ *
+ * @param <V> node type
+ */
+public final class NodeIndex<V> {
+    private static final int EMPTY = -1;
+    // index -> node
+    private final Object[] nodes;
+    // slot -> index, EMPTY for free slots
+    private final int[] table;
+    private final int mask;
+    //---------------read-only views-------------
+    private final Set<V> setView = new SetView();
+    private final Map<V, Integer> mapView = new MapView();
+
+    /**
+     * Nodes are indexed in the order they are iterated, duplicates are not allowed.
+     *
+     * @param nodes nodes to intern
+     */
+    public NodeIndex(Collection<? extends V> nodes) {
+        this(nodes.toArray());
+    }
+
+    private NodeIndex(Object[] nodes) {
+        this.nodes = nodes;
+        // load factor <= 0.5
+        int capacity = Integer.highestOneBit(Math.max(2, nodes.length) * 2 - 1) << 1;
+        this.table = new int[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(table, EMPTY);
+        for (int i = 0; i < nodes.length; i++) {
+            Object node = Objects.requireNonNull(nodes[i], "A node can not be null.");
+            int slot = slot(node);
+            while (table[slot] != EMPTY) {
+                if (nodes[table[slot]].equals(node)) {
+                    throw new IllegalArgumentException("Duplicate node: " + node);
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i;
+        }
+    }
+
+    /**
+     * Build the index from a node -> index map, the indexes have to be dense, i.e. 0..n-1.
+     *
+     * @param map node -> index
+     * @return node index
+     */
+    public static <V> NodeIndex<V> of(Map<V, Integer> map) {
+        Object[] nodes = new Object[map.size()];
+        map.forEach((node, i) -> {
+            if (i < 0 || i >= nodes.length || nodes[i] != null) {
+                throw new IllegalArgumentException("Indexes of nodes should be distinct and within [0," + nodes.length + ").");
+            }
+            nodes[i] = node;
+        });
+        return new NodeIndex<>(nodes);
+    }
+
+    private int slot(Object node) {
+        int h = node.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * @return the index of the node, -1 if it is not indexed
+     */
+    public int indexOf(Object node) {
+        if (node == null) {
+            return EMPTY;
+        }
+        int slot = slot(node);
+        int i;
+        while ((i = table[slot]) != EMPTY) {
+            if (nodes[i].equals(node)) {
+                return i;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    /**
+     * @return the node with the index
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int index) {
+        return (V) nodes[index];
+    }
+
+    public boolean contains(Object node) {
+        return indexOf(node) != EMPTY;
+    }
+
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * @return an unmodifiable list view of nodes in the index order
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> nodes() {
+        return Collections.unmodifiableList((List<V>) Arrays.asList(nodes));
+    }
+
+    /**
+     * @return an unmodifiable set view of nodes, which iterates in the index order and
+     * answers contains() by the hash table
+     */
+    public Set<V> asSet() {
+        return setView;
+    }
+
+    /**
+     * @return an unmodifiable node -> index map view
+     */
+    public Map<V, Integer> asMap() {
+        return mapView;
+    }
+
+    /**
+     * @return indexes of nodes, -1 for nodes not indexed
+     */
+    public int[] indexesOf(Collection<? extends V> nodes) {
+        int[] res = new int[nodes.size()];
+        int i = 0;
+        for (V node : nodes) {
+            res[i++] = indexOf(node);
+        }
+        return res;
+    }
+
+    /**
+     * @return a new node -> index map
+     */
+    @SuppressWarnings("unchecked")
+    public HashMap<V, Integer> toMap() {
+        HashMap<V, Integer> res = new HashMap<>(nodes.length * 2);
+        for (int i = 0; i < nodes.length; i++) {
+            res.put((V) nodes[i], i);
+        }
+        return res;
+    }
+
+    /**
+     * @return a new index -> node map
+     */
+    @SuppressWarnings("unchecked")
+    public HashMap<Integer, V> toIndexNameMap() {
+        HashMap<Integer, V> res = new HashMap<>(nodes.length * 2);
+        for (int i = 0; i < nodes.length; i++) {
+            res.put(i, (V) nodes[i]);
+        }
+        return res;
+    }
+
+    private class SetView extends AbstractSet<V> {
+        @Override
+        public boolean contains(Object o) {
+            return indexOf(o) != EMPTY;
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return nodes().iterator();
+        }
+
+        @Override
+        public int size() {
+            return nodes.length;
+        }
+    }
+
+    private class MapView extends AbstractMap<V, Integer> {
+        @Override
+        public boolean containsKey(Object key) {
+            return indexOf(key) != EMPTY;
+        }
+
+        @Override
+        public Integer get(Object key) {
+            int i = indexOf(key);
+            return i == EMPTY ? null : i;
+        }
+
+        @Override
+        public Set<V> keySet() {
+            return setView;
+        }
+
+        @Override
+        public int size() {
+            return nodes.length;
+        }
+
+        @Override
+        public Set<Entry<V, Integer>> entrySet() {
+            return new AbstractSet<Entry<V, Integer>>() {
+                @Override
+                public Iterator<Entry<V, Integer>> iterator() {
+                    return new Iterator<Entry<V, Integer>>() {
+                        private int i = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return i < nodes.length;
+                        }
+
+                        @Override
+                        public Entry<V, Integer> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            V node = NodeIndex.this.get(i);
+                            return new AbstractMap.SimpleImmutableEntry<>(node, i++);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return nodes.length;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package DS.Network;
+
+import org.jgrapht.GraphType;
+import org.jgrapht.graph.AbstractGraph;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Read-only induced subgraph masked over a graph, nothing is copied but the node set: a vertex is in the view if
+ * it is in the mask, and an edge is in the view if both of its ends are. Queries of a vertex filter the ones of
+ * the base graph, so they cost the degree of the vertex in the base graph, and edgeSet() is collected from the
+ * masked vertices on every call.
+ * <p>
+ * Edges, weights and neighbors are the ones of the base graph, so later changes of the base graph are seen by
+ * the view, except vertices added to it, which are not in the mask. Use {@link Graph#getSub(Set)} for a copy
+ * that can be modified.
+ * </p>
+ * <p>
+ * Every mutation throws an UnsupportedOperationException.
+ * </p>
+ */
+public class SubGraphView<V, E> extends AbstractGraph<V, E> implements Graph<V, E> {
+    private final Graph<V, E> base;
+    private final NodeIndex<V> mask;
+
+    /**
+     * @param base  the graph to mask
+     * @param nodes nodes of the view, in the vertex order of the view
+     * @throws IllegalArgumentException if some node is not in the base graph
+     */
+    public SubGraphView(Graph<V, E> base, Set<V> nodes) {
+        for (V n : nodes) {
+            if (!base.containsVertex(n)) {
+                throw new IllegalArgumentException("The node " + n + " is not in the graph.");
+            }
+        }
+        this.base = base;
+        this.mask = new NodeIndex<>(nodes);
+    }
+
+    private V masked(V vertex) {
+        if (!mask.contains(vertex)) {
+            throw new IllegalArgumentException("no such vertex in graph: " + vertex);
+        }
+        return vertex;
+    }
+
+    private V opposite(V v, E e) {
+        V source = base.getEdgeSource(e);
+        return source.equals(v) ? base.getEdgeTarget(e) : source;
+    }
+
+    //---------------DS.Network.Graph------------
+
+    @Override
+    public Set<V> getNeb(V vertex) {
+        Set<V> neb = new LinkedHashSet<>();
+        for (V u : base.getNeb(masked(vertex))) {
+            if (mask.contains(u)) {
+                neb.add(u);
+            }
+        }
+        return Collections.unmodifiableSet(neb);
+    }
+
+    @Override
+    public int getNebSize(V vertex) {
+        int size = 0;
+        for (V u : base.getNeb(masked(vertex))) {
+            if (mask.contains(u)) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Filled from the incident edges of the masked vertices, in the order of the mask.
+     */
+    @Override
+    public boolean[] getAdjMat() {
+        int s = mask.size();
+        boolean[] adjMat = new boolean[s * s];
+        for (int i = 0; i < s; i++) {
+            V v = mask.get(i);
+            for (E e : base.edgesOf(v)) {
+                int j = mask.indexOf(opposite(v, e));
+                if (j != -1) {
+                    adjMat[j * s + i] = true;
+                }
+            }
+        }
+        return adjMat;
+    }
+
+    /**
+     * @return a modifiable copy of the base graph induced by nodes, which must be in the view
+     */
+    @Override
+    public Graph<V, E> getSub(Set<V> nodes) {
+        nodes.forEach(this::masked);
+        return base.getSub(nodes);
+    }
+
+    @Override
+    public Graph<V, E> getSubView(Set<V> nodes) {
+        nodes.forEach(this::masked);
+        return new SubGraphView<>(base, nodes);
+    }
+
+    //---------------org.jgrapht.Graph------------
+
+    @Override
+    public Set<E> getAllEdges(V sourceVertex, V targetVertex) {
+        if (!mask.contains(sourceVertex) || !mask.contains(targetVertex)) {
+            return null;
+        }
+        return base.getAllEdges(sourceVertex, targetVertex);
+    }
+
+    @Override
+    public E getEdge(V sourceVertex, V targetVertex) {
+        if (!mask.contains(sourceVertex) || !mask.contains(targetVertex)) {
+            return null;
+        }
+        return base.getEdge(sourceVertex, targetVertex);
+    }
+
+    @Override
+    public boolean containsEdge(E e) {
+        return base.containsEdge(e) && mask.contains(base.getEdgeSource(e)) && mask.contains(base.getEdgeTarget(e));
+    }
+
+    @Override
+    public boolean containsVertex(V v) {
+        return mask.contains(v);
+    }
+
+    /**
+     * Collected from the masked vertices, every edge once.
+     */
+    @Override
+    public Set<E> edgeSet() {
+        Set<E> edges = new LinkedHashSet<>();
+        for (V v : mask.nodes()) {
+            for (E e : base.edgesOf(v)) {
+                if (base.getEdgeSource(e).equals(v) && mask.contains(base.getEdgeTarget(e))) {
+                    edges.add(e);
+                }
+            }
+        }
+        return Collections.unmodifiableSet(edges);
+    }
+
+    /**
+     * A self-loop is counted twice as the undirected graphs of jgrapht.
+     */
+    @Override
+    public int degreeOf(V vertex) {
+        int degree = 0;
+        for (E e : base.edgesOf(masked(vertex))) {
+            V u = opposite(vertex, e);
+            if (u.equals(vertex)) {
+                degree += 2;
+            } else if (mask.contains(u)) {
+                degree++;
+            }
+        }
+        return degree;
+    }
+
+    @Override
+    public Set<E> edgesOf(V vertex) {
+        Set<E> edges = new LinkedHashSet<>();
+        for (E e : base.edgesOf(masked(vertex))) {
+            if (mask.contains(opposite(vertex, e))) {
+                edges.add(e);
+            }
+        }
+        return Collections.unmodifiableSet(edges);
+    }
+
+    @Override
+    public int inDegreeOf(V vertex) {
+        return degreeOf(vertex);
+    }
+
+    @Override
+    public Set<E> incomingEdgesOf(V vertex) {
+        return edgesOf(vertex);
+    }
+
+    @Override
+    public int outDegreeOf(V vertex) {
+        return degreeOf(vertex);
+    }
+
+    @Override
+    public Set<E> outgoingEdgesOf(V vertex) {
+        return edgesOf(vertex);
+    }
+
+    @Override
+    public Set<V> vertexSet() {
+        return mask.asSet();
+    }
+
+    @Override
+    public V getEdgeSource(E e) {
+        return base.getEdgeSource(e);
+    }
+
+    @Override
+    public V getEdgeTarget(E e) {
+        return base.getEdgeTarget(e);
+    }
+
+    @Override
+    public GraphType getType() {
+        return base.getType().asUnmodifiable();
+    }
+
+    @Override
+    public double getEdgeWeight(E e) {
+        return base.getEdgeWeight(e);
+    }
+
+    @Override
+    public Supplier<V> getVertexSupplier() {
+        return base.getVertexSupplier();
+    }
+
+    @Override
+    public Supplier<E> getEdgeSupplier() {
+        return base.getEdgeSupplier();
+    }
+
+    //---------------read-only------------
+
+    @Override
+    public E addEdge(V sourceVertex, V targetVertex) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean addEdge(V sourceVertex, V targetVertex, E e) {
+        throw readOnly();
+    }
+
+    @Override
+    public V addVertex() {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean addVertex(V v) {
+        throw readOnly();
+    }
+
+    @Override
+    public E removeEdge(V sourceVertex, V targetVertex) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeEdge(E e) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeVertex(V v) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setEdgeWeight(E e, double weight) {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("A subgraph view is read-only.");
+    }
+}
@@ -2,23 +2,104 @@ package DS.Network;
 
 import org.jgrapht.graph.DefaultUndirectedWeightedGraph;
 
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @SuppressWarnings("unchecked")
 public class UndirectedGraph<V, E> extends DefaultUndirectedWeightedGraph<V, E> implements Graph<V, E> {
 
     private final Class<? extends E> edgeClass;
+    // immutable neighbor sets built on the first query, dropped when an edge of the vertex changes
+    private Map<V, Set<V>> nebCache = new ConcurrentHashMap<>();
 
     public UndirectedGraph(Class<? extends E> edgeClass) {
         super(edgeClass);
         this.edgeClass = edgeClass;
     }
 
+    /**
+     * The set is cached until an edge of the vertex is added or removed, so repeated queries cost O(1).
+     */
     @Override
     public Set<V> getNeb(V vertex) {
-        Set<E> edges = this.edgesOf(vertex);
-        return edges.stream().map(e -> neb(vertex, e)).collect(Collectors.toUnmodifiableSet());
+        return nebCache.computeIfAbsent(vertex, v ->
+                this.edgesOf(v).stream().map(e -> neb(v, e)).collect(Collectors.toUnmodifiableSet()));
+    }
+
+    /**
+     * O(1) without building the set, there is an edge per neighbor since multiple edges are not allowed.
+     */
+    @Override
+    public int getNebSize(V vertex) {
+        Set<V> neb = nebCache.get(vertex);
+        return neb != null ? neb.size() : edgesOf(vertex).size();
+    }
+
+    //---------------mutations invalidating the neighbor cache------------
+
+    @Override
+    public E addEdge(V sourceVertex, V targetVertex) {
+        E e = super.addEdge(sourceVertex, targetVertex);
+        if (e != null) {
+            invalidate(sourceVertex, targetVertex);
+        }
+        return e;
+    }
+
+    @Override
+    public boolean addEdge(V sourceVertex, V targetVertex, E e) {
+        boolean added = super.addEdge(sourceVertex, targetVertex, e);
+        if (added) {
+            invalidate(sourceVertex, targetVertex);
+        }
+        return added;
+    }
+
+    @Override
+    public E removeEdge(V sourceVertex, V targetVertex) {
+        E e = super.removeEdge(sourceVertex, targetVertex);
+        if (e != null) {
+            invalidate(sourceVertex, targetVertex);
+        }
+        return e;
+    }
+
+    @Override
+    public boolean removeEdge(E e) {
+        if (!containsEdge(e)) {
+            return false;
+        }
+        V source = getEdgeSource(e);
+        V target = getEdgeTarget(e);
+        super.removeEdge(e);
+        invalidate(source, target);
+        return true;
+    }
+
+    @Override
+    public boolean removeVertex(V v) {
+        if (!containsVertex(v)) {
+            return false;
+        }
+        edgesOf(v).forEach(e -> invalidate(getEdgeSource(e), getEdgeTarget(e)));
+        return super.removeVertex(v);
+    }
+
+    private void invalidate(V source, V target) {
+        nebCache.remove(source);
+        nebCache.remove(target);
+    }
+
+    /**
+     * The copy starts with an empty neighbor cache of its own, the cache is not shared by the shallow clone.
+     */
+    @Override
+    public Object clone() {
+        UndirectedGraph<V, E> copy = (UndirectedGraph<V, E>) super.clone();
+        copy.nebCache = new ConcurrentHashMap<>();
+        return copy;
     }
 
     @Override
@@ -38,30 +119,31 @@ public class UndirectedGraph<V, E> extends DefaultUndirectedWeightedGraph<V, E>
     }
 
     /**
-     * Extract a subnetwork based on given nodes
+     * Extract a subnetwork based on given nodes, every edge inside is copied once with its weight, so it costs the
+     * degrees of the nodes. Use {@link #getSubView(Set)} if the subnetwork is only read.
      *
      * @param nodes nodes from the subnetwork
      * @return a subgraph
+     * @throws IllegalArgumentException if some node is not in the graph
      */
     @Override
     public Graph<V, E> getSub(Set<V> nodes) {
-        // check all nodes are in the subgraph
-        assert(vertexSet().containsAll(nodes));
-        Graph<V,E> sub = new UndirectedGraph<>(edgeClass);
+        UndirectedGraph<V, E> sub = new UndirectedGraph<>(edgeClass);
         // add all vertexes
         nodes.forEach(sub::addVertex);
-        // add all edges
-        nodes.forEach(n->{
-            Set<E> edges = this.edgesOf(n);
-            // check every edges
-            edges.forEach(e->{
-                V source = this.getEdgeSource(e);
+        // add all edges, each from its source, a self-loop is incident to its node once
+        for (V n : nodes) {
+            for (E e : this.edgesOf(n)) {
                 V target = this.getEdgeTarget(e);
-                if(nodes.contains(source) && nodes.contains(target)){
-                    sub.addEdge(source,target);
+                if (this.getEdgeSource(e).equals(n) && nodes.contains(target)) {
+                    E copy = sub.addEdge(n, target);
+                    double weight = this.getEdgeWeight(e);
+                    if (weight != DEFAULT_EDGE_WEIGHT) {
+                        sub.setEdgeWeight(copy, weight);
+                    }
                 }
-            });
-        });
+            }
+        }
         return sub;
     }
 
@@ -1,6 +1,7 @@
 package IO.Reader;
 
 import java.io.BufferedReader;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
@@ -11,6 +12,7 @@ public abstract class AbstractFileReader {
     protected BufferedReader reader;
     protected String inputFilePath;
     protected Pattern splitter;
+    protected LineTokenizer tokenizer;
 
     public AbstractFileReader() {
 
@@ -21,6 +23,14 @@ public abstract class AbstractFileReader {
         reader = new BufferedReader(new FileReader(filePath));
     }
 
+    /**
+     * Read the file by a {@link LineTokenizer} instead of the line reader.
+     */
+    protected void setInputFileTokenizer(String filePath) throws FileNotFoundException {
+        this.inputFilePath = filePath;
+        tokenizer = new LineTokenizer(new FileInputStream(filePath));
+    }
+
     public void setSplitter(String regex) {
         splitter = Pattern.compile(regex);
     }
@@ -0,0 +1,84 @@
+package IO.Reader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Edges parsed from a newline-aligned chunk of an edge list, kept in primitive arrays in the file order:
+ * edge k -> (src[k], tgt[k], weight[k]), nodes are ids of the shared interner.
+ * <p>
+ * The format is the same as {@link GraphFileReader#readToUndirectedGraph(String, boolean)}, an edge of a line
+ * with two nodes has no weight.
+ * </p>
+ */
+class EdgeChunk {
+    int[] src = new int[1024];
+    int[] tgt = new int[1024];
+    double[] weight = new double[1024];
+    // edges without weight
+    final BitSet unweighted = new BitSet();
+    int size;
+
+    /**
+     * Parse the remaining bytes of the buffer, names are interned by ids, every id is given to one name only.
+     */
+    static EdgeChunk parse(ByteBuffer buffer, ConcurrentHashMap<String, Integer> ids, AtomicInteger nextId)
+            throws IOException {
+        EdgeChunk chunk = new EdgeChunk();
+        // names of the chunk are the same instances, look them up locally first
+        Map<String, Integer> local = new HashMap<>();
+        LineTokenizer line = new LineTokenizer(buffer);
+        while (line.nextLine()) {
+            int size = line.size();
+            // blank line
+            if (size == 0) continue;
+            if (size == 2) {
+                chunk.add(id(line.name(0), local, ids, nextId), id(line.name(1), local, ids, nextId), Double.NaN);
+                chunk.unweighted.set(chunk.size - 1);
+            } else if ((size - 1) % 2 != 0 || size == 1) {
+                throw new IOException("The file reader format is not correct.");
+            } else {
+                int src = id(line.name(0), local, ids, nextId);
+                for (int index = 1; index < size; index += 2) {
+                    int tgt = id(line.name(index), local, ids, nextId);
+                    double weight;
+                    try {
+                        weight = line.parseDouble(index + 1);
+                    } catch (NumberFormatException e) {
+                        throw new IOException("The file reader format is not correct. Plus: some name-value pairs are incorrect!");
+                    }
+                    chunk.add(src, tgt, weight);
+                }
+            }
+        }
+        return chunk;
+    }
+
+    private static int id(String name, Map<String, Integer> local,
+                          ConcurrentHashMap<String, Integer> ids, AtomicInteger nextId) {
+        Integer id = local.get(name);
+        if (id == null) {
+            id = ids.computeIfAbsent(name, k -> nextId.getAndIncrement());
+            local.put(name, id);
+        }
+        return id;
+    }
+
+    private void add(int s, int t, double w) {
+        if (size == src.length) {
+            src = Arrays.copyOf(src, size * 2);
+            tgt = Arrays.copyOf(tgt, size * 2);
+            weight = Arrays.copyOf(weight, size * 2);
+        }
+        src[size] = s;
+        tgt[size] = t;
+        weight[size] = w;
+        size++;
+    }
+}
@@ -3,9 +3,17 @@ package IO.Reader;
 import DS.Network.UndirectedGraph;
 
 import java.io.IOException;
-import java.util.Vector;
-
-import static Tools.Functions.isDouble;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 
 /**
@@ -27,6 +35,8 @@ public class GraphFileReader<V, E> extends AbstractFileReader {
     Class<V> vertexClass;
     Class<E> edgeClass;
     private UndirectedGraph<V, E> udG;
+    // bytes
+    private static final long MIN_CHUNK = 1 << 20;
 
     public GraphFileReader(Class<V> vertexClass, Class<E> edgeClass) {
         this.vertexClass = vertexClass;
@@ -34,33 +44,122 @@ public class GraphFileReader<V, E> extends AbstractFileReader {
     }
 
     public UndirectedGraph<V,E> readToUndirectedGraph(String inputFilePath, boolean closeWhenFinished) throws IOException {
-        // matches sequence of one or more whitespace characters.
-        setInputFilePath(inputFilePath);
+        // tokens are split by whitespace
+        setInputFileTokenizer(inputFilePath);
         udG = new UndirectedGraph<>(edgeClass);
-        setSplitter("\\s+");
-        Vector<V> sifLine = new Vector<>();
-        String line;
-        while ((line = reader.readLine()) != null) {
-            String[] tokens = splitter.split(line);
-            if (tokens.length == 0) continue;
-            //  it will be handled in pareLine()
+        while (tokenizer.nextLine()) {
+            // blank line
+            if (tokenizer.size() == 0) continue;
+            //  it will be handled in parseForGraph()
             // which will throw an IOException if not the right case.
-            for (String token : tokens) {
-                if (token.length() != 0) {
-                    sifLine.add((V) token);
-                }
-            }
-            parseForGraph(udG, sifLine);
-            // clean for each line
-            sifLine.clear();
+            parseForGraph(udG, tokenizer);
         }
         if (closeWhenFinished) {
-            reader.close();
+            tokenizer.close();
         }
         return udG;
     }
 
 
+    /**
+     * Same as {@link #readToUndirectedGraph(String, boolean)} for large edge lists: the file is split into
+     * newline-aligned chunks, which are mapped and parsed in parallel into primitive edge arrays with a shared
+     * name -> id interner, then the graph is built once in the file order, so nodes, edges and weights are the
+     * same as the sequential reading.
+     */
+    public UndirectedGraph<V, E> readToUndirectedGraphParallel(String inputFilePath) throws IOException {
+        long size = Files.size(Paths.get(inputFilePath));
+        // a few chunks per core for the balance, but not smaller than MIN_CHUNK
+        long chunks = Math.min(Runtime.getRuntime().availableProcessors() * 4L, size / MIN_CHUNK);
+        return readToUndirectedGraphParallel(inputFilePath, (int) Math.max(1, chunks));
+    }
+
+    /**
+     * @param chunks number of chunks to split the file into
+     */
+    UndirectedGraph<V, E> readToUndirectedGraphParallel(String inputFilePath, int chunks) throws IOException {
+        this.inputFilePath = inputFilePath;
+        long[] bounds;
+        EdgeChunk[] parsed;
+        ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+        AtomicInteger nextId = new AtomicInteger();
+        try (FileChannel channel = FileChannel.open(Paths.get(inputFilePath), StandardOpenOption.READ)) {
+            bounds = chunkBounds(channel, chunks);
+            parsed = new EdgeChunk[bounds.length - 1];
+            IntStream.range(0, parsed.length).parallel().forEach(c -> {
+                try {
+                    ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, bounds[c], bounds[c + 1] - bounds[c]);
+                    parsed[c] = EdgeChunk.parse(buffer, ids, nextId);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        // build in bulk
+        Object[] names = new Object[nextId.get()];
+        ids.forEach((name, id) -> names[id] = name);
+        boolean[] added = new boolean[names.length];
+        udG = new UndirectedGraph<>(edgeClass);
+        for (EdgeChunk chunk : parsed) {
+            for (int k = 0; k < chunk.size; k++) {
+                V src = (V) names[chunk.src[k]];
+                V tgt = (V) names[chunk.tgt[k]];
+                if (!added[chunk.src[k]]) {
+                    udG.addVertex(src);
+                    added[chunk.src[k]] = true;
+                }
+                if (!added[chunk.tgt[k]]) {
+                    udG.addVertex(tgt);
+                    added[chunk.tgt[k]] = true;
+                }
+                E edge = udG.addEdge(src, tgt);
+                if (chunk.unweighted.get(k)) {
+                    continue;
+                }
+                udG.setEdgeWeight(edge == null ? udG.getEdge(src, tgt) : edge, chunk.weight[k]);
+            }
+        }
+        return udG;
+    }
+
+    /**
+     * @return offsets of the chunks, every chunk but the last one ends right after a '\n'
+     */
+    private static long[] chunkBounds(FileChannel channel, int chunks) throws IOException {
+        long size = channel.size();
+        long chunkSize = Math.min(Integer.MAX_VALUE / 2, Math.max(1, (size + chunks - 1) / chunks));
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long start = 0;
+        while (start < size) {
+            long end = start + chunkSize;
+            // align to the next line
+            while (end < size) {
+                probe.clear();
+                int read = channel.read(probe, end);
+                int newline = -1;
+                for (int i = 0; i < read && newline < 0; i++) {
+                    if (probe.get(i) == '\n') {
+                        newline = i;
+                    }
+                }
+                if (newline >= 0) {
+                    end += newline + 1;
+                    break;
+                }
+                end += read;
+            }
+            end = Math.min(end, size);
+            bounds.add(end);
+            start = end;
+        }
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+
     /**
      * <ol>
      *     <li>node1 node2 value12</li>
@@ -75,9 +174,9 @@ public class GraphFileReader<V, E> extends AbstractFileReader {
      * </p>
      *
      * @param graph   graph
-     * @param sifLine result very line
+     * @param sifLine tokens of the current line
      */
-    private void parseForGraph(UndirectedGraph<V, E> graph, Vector<V> sifLine) throws IOException {
+    private void parseForGraph(UndirectedGraph<V, E> graph, LineTokenizer sifLine) throws IOException {
 
         int sifSize = sifLine.size();
         if (sifSize == 0) {
@@ -85,27 +184,28 @@ public class GraphFileReader<V, E> extends AbstractFileReader {
         }
         if (sifSize == 2) {
             // node1 node1 val1 // a circle
-            V src = sifLine.get(0);
-            V tgt = sifLine.get(1);
+            V src = (V) sifLine.name(0);
+            V tgt = (V) sifLine.name(1);
             graph.addVertex(src);
             graph.addVertex(tgt);
             graph.addEdge(src, tgt);
         } else if ((sifSize - 1) % 2 != 0 || sifSize == 1) {
             throw new IOException("The file reader format is not correct.");
         } else {
-            V src = sifLine.get(0);
+            V src = (V) sifLine.name(0);
             graph.addVertex(src);
             for (int index = 1; index < sifSize; index += 2) {
                 // name
-                V tgt = sifLine.get(index);
-                V val = sifLine.get(index + 1);
-                graph.addVertex(tgt);
-                graph.addEdge(src, tgt);
-                if (isDouble((String) val)) {
-                    graph.setEdgeWeight(src, tgt, Double.parseDouble((String) val));
-                } else {
+                V tgt = (V) sifLine.name(index);
+                double weight;
+                try {
+                    weight = sifLine.parseDouble(index + 1);
+                } catch (NumberFormatException e) {
                     throw new IOException("The file reader format is not correct. Plus: some name-value pairs are incorrect!");
                 }
+                graph.addVertex(tgt);
+                graph.addEdge(src, tgt);
+                graph.setEdgeWeight(src, tgt, weight);
             }
         }
     }
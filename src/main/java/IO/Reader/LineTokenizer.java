@@ -0,0 +1,306 @@
+package IO.Reader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Whitespace tokenizer working on the raw bytes of a file in a single pass, shared by the readers instead of a
+ * regex split per line.
+ * <p>
+ * Tokens of the current line are slices [start, end) of the read buffer, the slice arrays are reused for every
+ * line, so nothing is allocated until a token is asked for. Names are interned by their bytes, a name repeated
+ * over the file is the same String instance(its hash code is cached as well). Numbers are parsed from the bytes
+ * directly, see {@link #parseDouble(int)}.
+ * </p>
+ * <p>
+ * Whitespace is the same as the regex \s: ' ', \t, \n, \u000B, \f and \r. Names are decoded in UTF-8.
+ * </p>
+ */
+public class LineTokenizer implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    // exact powers of ten in double
+    private static final double[] POW10 = new double[23];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    private final InputStream in;
+    private byte[] buf = new byte[BUFFER_SIZE];
+    // unread bytes are in [pos, limit)
+    private int pos;
+    private int limit;
+    private boolean eof;
+    //---------------tokens of the current line------------
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int size;
+    //---------------interned names, open addressing------------
+    private String[] names = new String[1024];
+    private byte[][] keys = new byte[1024][];
+    private int[] hashes = new int[1024];
+    private int interned;
+
+    public LineTokenizer(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Tokenize the remaining bytes of the buffer, e.g. a mapped chunk of a file.
+     */
+    public LineTokenizer(ByteBuffer buffer) {
+        this(new InputStream() {
+            @Override
+            public int read() {
+                return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (!buffer.hasRemaining()) {
+                    return -1;
+                }
+                len = Math.min(len, buffer.remaining());
+                buffer.get(b, off, len);
+                return len;
+            }
+        });
+    }
+
+    /**
+     * Move to the next line and split it into tokens, slices of the previous line are invalid afterwards.
+     *
+     * @return false if there is no more line
+     */
+    public boolean nextLine() throws IOException {
+        int end = findLineEnd();
+        if (end < 0) {
+            size = 0;
+            return false;
+        }
+        size = 0;
+        int p = pos;
+        while (p < end) {
+            while (p < end && isSpace(buf[p])) {
+                p++;
+            }
+            if (p == end) {
+                break;
+            }
+            int start = p;
+            while (p < end && !isSpace(buf[p])) {
+                p++;
+            }
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = p;
+            size++;
+        }
+        // skip '\n'
+        pos = end < limit ? end + 1 : end;
+        return true;
+    }
+
+    /**
+     * @return the end of the next line in the buffer, the buffer is refilled or grown until the line is complete,
+     * -1 if nothing is left
+     */
+    private int findLineEnd() throws IOException {
+        int scanned = pos;
+        while (true) {
+            for (int p = scanned; p < limit; p++) {
+                if (buf[p] == '\n') {
+                    return p;
+                }
+            }
+            if (eof) {
+                return pos < limit ? limit : -1;
+            }
+            // keep the incomplete line
+            int kept = limit - pos;
+            if (pos > 0) {
+                System.arraycopy(buf, pos, buf, 0, kept);
+            } else if (kept == buf.length) {
+                buf = Arrays.copyOf(buf, buf.length * 2);
+            }
+            pos = 0;
+            limit = kept;
+            scanned = kept;
+            int read = in.read(buf, limit, buf.length - limit);
+            if (read < 0) {
+                eof = true;
+            } else {
+                limit += read;
+            }
+        }
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\f' || b == 0x0B || b == '\n';
+    }
+
+    /**
+     * @return tokens of the current line
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the k-th token of the current line as a new String
+     */
+    public String token(int k) {
+        return new String(buf, starts[k], ends[k] - starts[k], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the k-th token of the current line, the same instance for the same bytes over the file
+     */
+    public String name(int k) {
+        int from = starts[k];
+        int to = ends[k];
+        int hash = 1;
+        for (int p = from; p < to; p++) {
+            hash = 31 * hash + buf[p];
+        }
+        int mask = names.length - 1;
+        int slot = slot(hash, mask);
+        while (names[slot] != null) {
+            if (hashes[slot] == hash && Arrays.equals(keys[slot], 0, keys[slot].length, buf, from, to)) {
+                return names[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        String name = new String(buf, from, to - from, StandardCharsets.UTF_8);
+        names[slot] = name;
+        keys[slot] = Arrays.copyOfRange(buf, from, to);
+        hashes[slot] = hash;
+        // load factor <= 0.5
+        if (++interned * 2 > names.length) {
+            rehash();
+        }
+        return name;
+    }
+
+    private static int slot(int hash, int mask) {
+        int h = hash * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void rehash() {
+        String[] oldNames = names;
+        byte[][] oldKeys = keys;
+        int[] oldHashes = hashes;
+        names = new String[oldNames.length * 2];
+        keys = new byte[names.length][];
+        hashes = new int[names.length];
+        int mask = names.length - 1;
+        for (int i = 0; i < oldNames.length; i++) {
+            if (oldNames[i] == null) {
+                continue;
+            }
+            int slot = slot(oldHashes[i], mask);
+            while (names[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            names[slot] = oldNames[i];
+            keys[slot] = oldKeys[i];
+            hashes[slot] = oldHashes[i];
+        }
+    }
+
+    /**
+     * Parse the k-th token as a double without creating a String.
+     * <p>
+     * Decimals with at most 15 significant digits and a decimal exponent within [-22, 22] are exact in double,
+     * so one multiplication or division of them by an exact power of ten is correctly rounded, the same as
+     * {@link Double#parseDouble(String)}. Other tokens(long decimals, NaN, Infinity, hex) fall back to it.
+     * </p>
+     *
+     * @throws NumberFormatException if the token is not a number
+     */
+    public double parseDouble(int k) {
+        int p = starts[k];
+        int end = ends[k];
+        boolean negative = false;
+        if (p < end && (buf[p] == '-' || buf[p] == '+')) {
+            negative = buf[p] == '-';
+            p++;
+        }
+        long mantissa = 0;
+        int significant = 0;
+        int exp = 0;
+        int digits = 0;
+        for (; p < end && isDigit(buf[p]); p++, digits++) {
+            if (mantissa != 0 || buf[p] != '0') {
+                mantissa = mantissa * 10 + (buf[p] - '0');
+                significant++;
+            }
+            if (significant > 15) {
+                return slowParse(k);
+            }
+        }
+        if (p < end && buf[p] == '.') {
+            p++;
+            for (; p < end && isDigit(buf[p]); p++, digits++) {
+                if (mantissa != 0 || buf[p] != '0') {
+                    mantissa = mantissa * 10 + (buf[p] - '0');
+                    significant++;
+                }
+                exp--;
+                if (significant > 15) {
+                    return slowParse(k);
+                }
+            }
+        }
+        if (digits == 0) {
+            return slowParse(k);
+        }
+        if (p < end && (buf[p] == 'e' || buf[p] == 'E')) {
+            p++;
+            boolean negativeExp = false;
+            if (p < end && (buf[p] == '-' || buf[p] == '+')) {
+                negativeExp = buf[p] == '-';
+                p++;
+            }
+            int e = 0;
+            int expDigits = 0;
+            for (; p < end && isDigit(buf[p]) && expDigits < 4; p++, expDigits++) {
+                e = e * 10 + (buf[p] - '0');
+            }
+            if (expDigits == 0) {
+                return slowParse(k);
+            }
+            exp += negativeExp ? -e : e;
+        }
+        if (p != end || exp < -22 || exp > 22) {
+            return slowParse(k);
+        }
+        double val = mantissa;
+        val = exp < 0 ? val / POW10[-exp] : val * POW10[exp];
+        return negative ? -val : val;
+    }
+
+    private double slowParse(int k) {
+        return Double.parseDouble(token(k));
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -1,6 +1,8 @@
 package IO.Reader;
 
+import DS.Matrix.MappedSimMat;
 import DS.Matrix.SimMat;
+import DS.Matrix.SparseSimMat;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.Row;
@@ -11,9 +13,6 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.Set;
-import java.util.Vector;
-
-import static Tools.Functions.isDouble;
 
 /**
  * Reader class for matrix reading
@@ -25,7 +24,14 @@ public class SimMatReader<V> extends AbstractFileReader {
     private final SimMat<V> simMat;
 
     public SimMatReader(Set<V> g1, Set<V> g2, Class<V> typeParameterClass) {
-        this.simMat =new SimMat<>(g1, g2, typeParameterClass);
+        this(g1, g2, typeParameterClass, false);
+    }
+
+    /**
+     * @param sparse read into a {@link SparseSimMat}, which only stores non-zero similarities
+     */
+    public SimMatReader(Set<V> g1, Set<V> g2, Class<V> typeParameterClass, boolean sparse) {
+        this.simMat = sparse ? new SparseSimMat<>(g1, g2, typeParameterClass) : new SimMat<>(g1, g2, typeParameterClass);
         this.typeParameterClass = typeParameterClass;
     }
     public SimMat<V> readToSimMatExcel(String sourcePath) throws IOException {
@@ -63,31 +69,32 @@ public class SimMatReader<V> extends AbstractFileReader {
      * include checking whether simMat contains all nodes
      */
     public SimMat<V> readToSimMat(String sourcePath,boolean closeWhenFinished) throws IOException {
-        setInputFilePath(sourcePath);
-        // matches sequence of one or more whitespace characters.
-        setSplitter("\\s+");
-        Vector<String> sifLine = new Vector<>();
-        String line;
-        while ((line = reader.readLine()) != null) {
-            String[] tokens = splitter.split(line);
-            if (tokens.length == 0) continue;
-            //  it will be handled in pareLine()
+        // tokens are split by whitespace
+        setInputFileTokenizer(sourcePath);
+        while (tokenizer.nextLine()) {
+            // blank line
+            if (tokenizer.size() == 0) continue;
+            //  it will be handled in parseForSimMat()
             // which will throw an IOException if not the right case.
-            for (String token : tokens) {
-                if (token.length() != 0) {
-                    sifLine.add(token);
-                }
-            }
-            parseForSimMat((Vector<V>) sifLine);
-            // clean for each line
-            sifLine.clear();
+            parseForSimMat(tokenizer);
         }
         if (closeWhenFinished) {
-            reader.close();
+            tokenizer.close();
         }
         return simMat;
     }
 
+    /**
+     * Convert a text similarity matrix to the binary format of {@link MappedSimMat}, which can be mapped by
+     * {@link MappedSimMat#open(String)} later instead of parsing. Values are stored as read by
+     * {@link #readToSimMat(String, boolean)}, i.e. after the transformation of the weights.
+     *
+     * @param floats store values in float
+     */
+    public void convertToBinary(String sourcePath, String binaryPath, boolean floats) throws IOException {
+        MappedSimMat.write(readToSimMat(sourcePath, true), binaryPath, floats);
+    }
+
     /**
      * <ol>
      *     <li>node1 node2 value12</li>
@@ -103,37 +110,39 @@ public class SimMatReader<V> extends AbstractFileReader {
      *
      * <p>NOTICE:add() -> use sortAdd()</p>
      *
-     * @param sifLine result very line
+     * @param sifLine tokens of the current line
      */
-    private void parseForSimMat(Vector<V> sifLine) throws IOException {
+    private void parseForSimMat(LineTokenizer sifLine) throws IOException {
         int sifSize = sifLine.size();
         if (sifSize == 0) {
             throw new IOException("Nothing has been reader!.");
         }
         if (sifSize == 2) {
-            V src = sifLine.get(0);
-            V tgt = sifLine.get(1);
+            V src = (V) sifLine.name(0);
+            V tgt = (V) sifLine.name(1);
             simMat.put(src, tgt,0.);
         } else if ((sifSize - 1) % 2 != 0) {
             throw new IOException("The file reader format is not correct.");
         } else {
-            V src = sifLine.get(0);
+            V src = (V) sifLine.name(0);
+            int i = simMat.getRowIndex().indexOf(src);
             // name value ... and it has already checked (sifSize -1) % 2 == 0
             for (int index = 1; index < sifSize; index += 2) {
-                V tgt = sifLine.get(index);
-                V val = sifLine.get(index + 1);
-                if (!isDouble((String)val)) {
+                V tgt = (V) sifLine.name(index);
+                double weight;
+                try {
+                    weight = sifLine.parseDouble(index + 1);
+                } catch (NumberFormatException e) {
                     throw new IOException("The file reader format is not correct. Plus: some name-value pairs are incorrect!");
                 }
-                double weight = Double.parseDouble((String)val);
                 double v = 1 / (1 - 1 / Math.log(weight));
                 // make sure only nodes in selection will be put into the simMat
-                if (weight != 0 && simMat.getRowMap().containsKey(src) && simMat.getColMap().containsKey(tgt)) {
-                    simMat.put(src, tgt, v);
+                int j = simMat.getColIndex().indexOf(tgt);
+                if (weight != 0 && i != -1 && j != -1) {
+                    simMat.put(i, j, v);
                 }
             }
         }
-        sifLine.clear();
     }
 
 
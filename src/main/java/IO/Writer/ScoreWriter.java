@@ -0,0 +1,62 @@
+package IO.Writer;
+
+import DS.Matrix.TopScores;
+import DS.Network.NodeIndex;
+import org.ejml.data.DMatrixRMaj;
+
+import java.io.IOException;
+
+/**
+ * Write node scores as "name score" lines straight into the buffered writer, instead of collecting a String
+ * per node into a Vector first. Set path before using it.
+ */
+public class ScoreWriter extends AbstractFileWriter {
+
+    /**
+     * Write the kept scores from the best.
+     *
+     * @param nodes node id -> name
+     */
+    public <V> void write(NodeIndex<V> nodes, TopScores top, boolean close) throws IOException {
+        try {
+            for (int r = 0; r < top.size(); r++) {
+                writeLine(nodes.get(top.id(r)), top.score(r));
+            }
+        } finally {
+            finish(close);
+        }
+    }
+
+    /**
+     * Stream a column of scores in the node order, scores below the threshold or NaN are skipped.
+     *
+     * @param nodes node id -> name, the row of the scores
+     */
+    public <V> void write(NodeIndex<V> nodes, DMatrixRMaj scores, int column, double threshold, boolean close)
+            throws IOException {
+        try {
+            for (int i = 0, p = column; i < scores.numRows; i++, p += scores.numCols) {
+                double score = scores.data[p];
+                if (score >= threshold) {
+                    writeLine(nodes.get(i), score);
+                }
+            }
+        } finally {
+            finish(close);
+        }
+    }
+
+    private void writeLine(Object name, double score) throws IOException {
+        bufWriter.write(name.toString());
+        bufWriter.write(' ');
+        bufWriter.write(Double.toString(score));
+        bufWriter.write('\n');
+    }
+
+    private void finish(boolean close) throws IOException {
+        bufWriter.flush();
+        if (close) {
+            bufWriter.close();
+        }
+    }
+}
@@ -1,30 +1,38 @@
 package Algorithms.Graph.Alignment.HGA;
 
 
+import DS.Matrix.DenseMatrix;
 import DS.Matrix.SimMat;
 import DS.Network.UndirectedGraph;
 import IO.Reader.GraphFileReader;
 import IO.Reader.SimMatReader;
 import org.jgrapht.graph.DefaultEdge;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.HashMap;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DisplayName("The HGA is able to ")
 class HGASpc{
-    HGA hga;
+    HGA<String, DefaultEdge> hga;
 
     private UndirectedGraph<String, DefaultEdge> udG1;
     private UndirectedGraph<String, DefaultEdge> udG2;
     private SimMat<String> simMat;
+    private String debugOutputPath;
 
     @BeforeEach
     void init() throws IOException {
+        debugOutputPath = HGA.debugOutputPath;
         GraphFileReader<String, DefaultEdge> reader = new GraphFileReader<>(String.class,DefaultEdge.class);
         udG1 = reader.readToUndirectedGraph( "src/test/java/resources/AlgTest/HGA/graph1.txt",false);
         udG2 = reader.readToUndirectedGraph( "src/test/java/resources/AlgTest/HGA/graph2.txt",false);
@@ -33,6 +41,21 @@ class HGASpc{
         hga = new HGA<>(simMat, udG1, udG2, (float) 0.5, true,  0.5,0.01);
     }
 
+    // the flags are static, restore them even if a test fails
+    @AfterEach
+    void resetFlags() {
+        HGA.CSR = false;
+        HGA.closedForm = false;
+        HGA.GPU = false;
+        HGA.solver = HGA.Solver.hungarian;
+        HGA.doubleBuffer = false;
+        HGA.streamingCheck = false;
+        HGA.debugOut = true;
+        HGA.asyncTrace = false;
+        HGA.traceEvery = 1;
+        HGA.debugOutputPath = debugOutputPath;
+    }
+
     @DisplayName("Greedily map")
     @Test
     void greedMap() {
@@ -66,6 +89,155 @@ class HGASpc{
         hga.addAllTopology();
     }
 
+    @DisplayName("CSR kernel is consistent with the per-pair topology")
+    @Test
+    void addAllTopoCSR() throws IOException {
+        hga.addAllTopology();
+        DenseMatrix perPair = hga.simMat.getMat();
+        SimMatReader<String> simMatReader = new SimMatReader<>(udG1.vertexSet(),udG2.vertexSet(),String.class);
+        SimMat<String> mat = simMatReader.readToSimMat("src/test/java/resources/AlgTest/HGA/simMat.txt",true);
+        HGA<String, DefaultEdge> csr = new HGA<>(mat, udG1, udG2, (float) 0.5, true,  0.5,0.01);
+        HGA.CSR = true;
+        csr.addAllTopology();
+        assertArrayEquals(perPair.data(), csr.simMat.getMat().data(), 1e-10);
+    }
+
+    @DisplayName("closed-form non-neighbor term is consistent with the double loop")
+    @Test
+    void addAllTopoClosedForm() throws IOException {
+        HGA.CSR = true;
+        hga.addAllTopology();
+        DenseMatrix loop = hga.simMat.getMat();
+        HGA.closedForm = true;
+        for (boolean gpu : new boolean[]{false, true}) {
+            SimMatReader<String> simMatReader = new SimMatReader<>(udG1.vertexSet(),udG2.vertexSet(),String.class);
+            SimMat<String> mat = simMatReader.readToSimMat("src/test/java/resources/AlgTest/HGA/simMat.txt",true);
+            HGA<String, DefaultEdge> closed = new HGA<>(mat, udG1, udG2, (float) 0.5, true,  0.5,0.01);
+            HGA.GPU = gpu;
+            closed.addAllTopology();
+            assertArrayEquals(loop.data(), closed.simMat.getMat().data(), 1e-10);
+        }
+    }
+
+    @DisplayName("sparse similarity input is consistent with the dense one")
+    @Test
+    void addAllTopoSparse() throws IOException {
+        HGA.CSR = true;
+        hga.addAllTopology();
+        DenseMatrix dense = hga.simMat.getMat();
+        SimMatReader<String> simMatReader = new SimMatReader<>(udG1.vertexSet(),udG2.vertexSet(),String.class, true);
+        SimMat<String> mat = simMatReader.readToSimMat("src/test/java/resources/AlgTest/HGA/simMat.txt",true);
+        HGA<String, DefaultEdge> sparse = new HGA<>(mat, udG1, udG2, (float) 0.5, true,  0.5,0.01);
+        sparse.addAllTopology();
+        assertArrayEquals(dense.data(), sparse.simMat.getMat().data(), 1e-10);
+        // the GPU kernel takes the original densified once, the same for every iteration
+        HGA.GPU = true;
+        hga.addAllTopology();
+        sparse.addAllTopology();
+        assertArrayEquals(hga.simMat.getMat().data(), sparse.simMat.getMat().data(), 1e-10);
+        hga.addAllTopology();
+        sparse.addAllTopology();
+        assertArrayEquals(hga.simMat.getMat().data(), sparse.simMat.getMat().data(), 1e-10);
+    }
+
+    @DisplayName("LAPJV mapping is optimal for the rectangular matrix")
+    @Test
+    void mappingLAPJV() {
+        HashMap<String, String> hungarian = hga.getMappingFromHA(simMat);
+        HGA.solver = HGA.Solver.lapjv;
+        HashMap<String, String> lapjv = hga.getMappingFromHA(simMat);
+        assertEquals(hungarian.size(), lapjv.size());
+        double h = hungarian.entrySet().stream().mapToDouble(e -> simMat.getVal(e.getKey(), e.getValue())).sum();
+        double l = lapjv.entrySet().stream().mapToDouble(e -> simMat.getVal(e.getKey(), e.getValue())).sum();
+        // 10x9, the optimum by enumeration
+        assertEquals(5.513609459920138, l, 1e-10);
+        assertTrue(l >= h - 1e-10);
+    }
+
+    @DisplayName("double buffers give the same result as the streaming check")
+    @Test
+    void runDoubleBuffer() throws IOException {
+        // debug output resolves its path once per JVM
+        HGA.debugOut = false;
+        HGA.streamingCheck = true;
+        hga.run();
+        HGA.streamingCheck = false;
+        SimMatReader<String> simMatReader = new SimMatReader<>(udG1.vertexSet(),udG2.vertexSet(),String.class);
+        SimMat<String> mat = simMatReader.readToSimMat("src/test/java/resources/AlgTest/HGA/simMat.txt",true);
+        HGA<String, DefaultEdge> buffered = new HGA<>(mat, udG1, udG2, (float) 0.5, true,  0.5,0.01);
+        HGA.doubleBuffer = true;
+        buffered.run();
+        // no matrix is recorded, the convergence is checked on the scalars
+        assertTrue(buffered.stackMat.isEmpty());
+        assertEquals(hga.getTracker().getDif1s(), buffered.getTracker().getDif1s());
+        assertEquals(hga.iterCount, buffered.iterCount);
+        assertEquals(hga.getIter_res(), buffered.getIter_res());
+        assertEquals(hga.getScore_res(), buffered.getScore_res());
+        assertEquals(hga.getMappingResult(), buffered.getMappingResult());
+        assertArrayEquals(hga.getMatrix_res().getDDRM().data, buffered.getMatrix_res().getDDRM().data, 1e-10);
+    }
+
+    @DisplayName("streaming check takes the max-abs change of every kernel")
+    @Test
+    void addAllTopoDelta() throws IOException {
+        HGA.streamingCheck = true;
+        for (int kernel = 0; kernel < 4; kernel++) {
+            HGA.CSR = kernel == 1 || kernel == 2;
+            HGA.closedForm = kernel == 2;
+            HGA.GPU = kernel == 3;
+            SimMatReader<String> simMatReader = new SimMatReader<>(udG1.vertexSet(),udG2.vertexSet(),String.class);
+            SimMat<String> mat = simMatReader.readToSimMat("src/test/java/resources/AlgTest/HGA/simMat.txt",true);
+            HGA<String, DefaultEdge> streaming = new HGA<>(mat, udG1, udG2, (float) 0.5, true,  0.5,0.01);
+            DenseMatrix before = streaming.simMat.getMat();
+            streaming.addAllTopology();
+            double delta = streaming.simMat.getMat().minus(before).elementMaxAbs();
+            assertEquals(delta, streaming.getTracker().getDif1s().get(0), 1e-12);
+            // S(t-1) is read from the back buffer before the rows are overwritten, except by the GPU kernel
+            streaming.addAllTopology();
+            double delta2 = streaming.simMat.getMat().minus(before).elementMaxAbs();
+            assertEquals(HGA.GPU ? Double.NaN : delta2, streaming.getTracker().getDif2s().get(1), 1e-12);
+        }
+    }
+
+    @DisplayName("streaming check converges one iteration earlier than the snapshots")
+    @Test
+    void runStreamingCheck() throws IOException {
+        HGA.debugOut = false;
+        hga.run();
+        SimMatReader<String> simMatReader = new SimMatReader<>(udG1.vertexSet(),udG2.vertexSet(),String.class);
+        SimMat<String> mat = simMatReader.readToSimMat("src/test/java/resources/AlgTest/HGA/simMat.txt",true);
+        HGA<String, DefaultEdge> streaming = new HGA<>(mat, udG1, udG2, (float) 0.5, true,  0.5,0.01);
+        HGA.streamingCheck = true;
+        streaming.run();
+        // the same differences are known one iteration earlier
+        assertEquals(hga.iterCount - 1, streaming.iterCount);
+        assertEquals(streaming.iterCount, streaming.getTracker().getDif1s().size());
+        assertTrue(streaming.getScore_res() <= hga.getScore_res());
+        assertTrue(streaming.stackMat.isEmpty());
+    }
+
+    @DisplayName("trace every k-th iteration in binary on a background thread")
+    @Test
+    void runAsyncTrace() throws IOException {
+        String out = "target/trace/";
+        for (String dir : new String[]{"matrix", "scoring", "mapping"}) {
+            Files.createDirectories(Paths.get(out, dir));
+        }
+        HGA.debugOutputPath = out;
+        HGA.asyncTrace = true;
+        HGA.traceEvery = 2;
+        hga.run();
+        String path = HGA.debugOutputPath;
+        for (int i = 0; i < hga.iterCount; i++) {
+            assertEquals(i % 2 == 0, Files.exists(Paths.get(path, "matrix", "matrix_" + i + ".bin")));
+            assertEquals(i % 2 == 0, Files.exists(Paths.get(path, "mapping", "mapping_" + i + ".txt")));
+        }
+        DenseMatrix res = TraceSink.readMatrix(path + "matrix/matrixResult_" + hga.getIter_res() + ".bin");
+        assertArrayEquals(hga.getMatrix_res().getDDRM().data, res.data());
+        assertEquals(hga.getMappingResult().size(),
+                Files.readAllLines(Paths.get(path, "mapping", "mappingResult_" + hga.getIter_res() + ".txt")).size());
+    }
+
     @DisplayName("score mapping")
     @Test
     void score() {
@@ -0,0 +1,47 @@
+package Algorithms.Graph.Alignment.HGA;
+
+import DS.Matrix.DenseMatrix;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceSinkTest {
+
+    @DisplayName("A matrix larger than a chunk is written and read back")
+    @Test
+    void matrix(@TempDir Path dir) throws IOException {
+        int rows = 300;
+        int cols = TraceSink.CHUNK / Double.BYTES / 100 + 7;
+        double[] data = new Random(3).doubles((long) rows * cols).toArray();
+        TraceSink sink = new TraceSink(dir.toString(), 2);
+        sink.matrix("matrix/m", data, rows, cols);
+        sink.close();
+        Path file = dir.resolve("matrix/m.bin");
+        assertEquals(8 + 8L * rows * cols, Files.size(file));
+        DenseMatrix mat = TraceSink.readMatrix(file.toString());
+        assertEquals(rows, mat.numRows());
+        assertEquals(cols, mat.numCols());
+        assertArrayEquals(data, mat.data());
+    }
+
+    @DisplayName("A failure of the writer is thrown by close")
+    @Test
+    void failure(@TempDir Path dir) throws IOException {
+        // a file where the directory of the dumps should be
+        Files.createFile(dir.resolve("matrix"));
+        TraceSink sink = new TraceSink(dir.toString(), 2);
+        sink.matrix("matrix/m", new double[4], 2, 2);
+        sink.text("scoring/s", () -> List.of("1"));
+        assertThrows(UncheckedIOException.class, sink::close);
+        assertEquals(List.of("1"), Files.readAllLines(dir.resolve("scoring/s.txt")));
+    }
+}
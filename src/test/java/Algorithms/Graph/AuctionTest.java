@@ -0,0 +1,65 @@
+package Algorithms.Graph;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuctionTest {
+    private final Random random = new Random(11);
+
+    private static double total(double[] data, int rows, int cols, int[] res) {
+        boolean[] used = new boolean[cols];
+        int assigned = 0;
+        double sum = 0;
+        for (int r = 0; r < rows; r++) {
+            if (res[r] != -1) {
+                assertFalse(used[res[r]]);
+                used[res[r]] = true;
+                assigned++;
+                sum += data[r * cols + res[r]];
+            }
+        }
+        assertEquals(Math.min(rows, cols), assigned);
+        return sum;
+    }
+
+    @DisplayName("Within the duality gap of the optimum by LAPJV")
+    @Test
+    void run() {
+        int[][] shapes = {{50, 50}, {30, 60}, {60, 30}, {1, 4}};
+        ForkJoinPool pool = new ForkJoinPool(2);
+        for (int[] shape : shapes) {
+            int rows = shape[0];
+            int cols = shape[1];
+            double[] data = new double[rows * cols];
+            for (int i = 0; i < data.length; i++) {
+                // ties are frequent with small integers
+                data[i] = i % 2 == 0 ? random.nextDouble() : random.nextInt(3);
+            }
+            for (Hungarian.ProblemType type : Hungarian.ProblemType.values()) {
+                LAPJV<String> lapjv = new LAPJV<>(data, rows, cols, type);
+                lapjv.run();
+                Auction<String> auction = new Auction<>(data, rows, cols, type);
+                auction.setPool(pool);
+                auction.run();
+                double opt = total(data, rows, cols, lapjv.getResult());
+                double res = total(data, rows, cols, auction.getResult());
+                assertTrue(auction.getGap() <= Auction.DEFAULT_EPSILON * 3 + 1e-12);
+                assertEquals(opt, res, auction.getGap() + 1e-9);
+                // a coarser epsilon bounds the gap the same way
+                Auction<String> coarse = new Auction<>(data, rows, cols, type, 1e-3);
+                coarse.setPool(pool);
+                coarse.run();
+                assertTrue(coarse.getGap() <= 1e-3 * 3 + 1e-12);
+                assertEquals(opt, total(data, rows, cols, coarse.getResult()), coarse.getGap() + 1e-9);
+            }
+        }
+        pool.shutdown();
+        assertThrows(IllegalArgumentException.class, () -> new Auction<String>(new double[1], 1, 1,
+                Hungarian.ProblemType.maxLoc, 0));
+    }
+}
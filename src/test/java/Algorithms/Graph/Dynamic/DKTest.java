@@ -1,9 +1,12 @@
 package Algorithms.Graph.Dynamic;
 
 import Algorithms.Graph.Dynamic.Diffusion_Kernel.DK;
+import Algorithms.Graph.Dynamic.Diffusion_Kernel.DiffusionModel;
+import Algorithms.Graph.Dynamic.Diffusion_Kernel.NeumannSeries;
 import DS.Matrix.DenseMatrix;
 import DS.Matrix.SparseMatrix;
 import DS.Matrix.StatisticsMatrix;
+import DS.Matrix.TopScores;
 import DS.Network.UndirectedGraph;
 import IO.Reader.GraphFileReader;
 import IO.Writer.AbstractFileWriter;
@@ -11,16 +14,24 @@ import org.checkerframework.checker.units.qual.A;
 import org.ejml.data.DMatrix;
 import org.ejml.data.DMatrixSparse;
 import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.MatrixType;
 import org.jgrapht.graph.DefaultWeightedEdge;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import javax.swing.text.BadLocationException;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.Vector;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class DKTest {
     UndirectedGraph<String, DefaultWeightedEdge> graph;
@@ -45,6 +56,173 @@ class DKTest {
     }
 
 
+    @Test
+    void cg() throws IOException {
+        for (String path : new String[]{"src/test/java/resources/AlgTest/small/sGraph1.txt",
+                "src/test/java/resources/AlgTest/HGA/graph1.txt"}) {
+            graph = reader.readToUndirectedGraph(path, true);
+            Set<String> src = new HashSet<>(new Vector<>(graph.vertexSet()).subList(0, 2));
+            DK<String, DefaultWeightedEdge> inverse = new DK<>(src, graph, 0.5);
+            inverse.run();
+            DK.solver = DK.Solver.cg;
+            try {
+                DK<String, DefaultWeightedEdge> cg = new DK<>(src, graph, 0.5);
+                cg.run();
+                assertTrue(cg.getResult().isIdentical(inverse.getResult(), 1e-8));
+            } finally {
+                DK.solver = DK.Solver.inverse;
+            }
+        }
+    }
+
+    @Test
+    void runBatch() throws IOException {
+        graph = reader.readToUndirectedGraph("src/test/java/resources/AlgTest/HGA/graph1.txt", true);
+        Vector<String> nodes = new Vector<>(graph.vertexSet());
+        // more queries than a block
+        List<Set<String>> queries = new ArrayList<>();
+        for (int c = 0; c < 10; c++) {
+            queries.add(new HashSet<>(nodes.subList(c % nodes.size(), Math.min(nodes.size(), c % nodes.size() + 3))));
+        }
+        queries.add(new HashSet<>());
+        for (DK.Solver solver : DK.Solver.values()) {
+            DK.solver = solver;
+            try {
+                StatisticsMatrix scores = new DK<>(graph, 0.5).run(queries);
+                assertEquals(graph.vertexSet().size(), scores.numRows());
+                assertEquals(queries.size(), scores.numCols());
+                for (int c = 0; c < queries.size(); c++) {
+                    DK<String, DefaultWeightedEdge> dk = new DK<>(queries.get(c), graph, 0.5);
+                    dk.run();
+                    assertTrue(scores.extractVector(false, c).isIdentical(dk.getResult(), 1e-8));
+                }
+            } finally {
+                DK.solver = DK.Solver.inverse;
+            }
+        }
+    }
+
+    @Test
+    void sharedModel() throws IOException {
+        graph = reader.readToUndirectedGraph("src/test/java/resources/AlgTest/HGA/graph1.txt", true);
+        Vector<String> nodes = new Vector<>(graph.vertexSet());
+        DiffusionModel<String> model = new DiffusionModel<>(graph);
+        // a new loss refactors, and the cached factor is used again
+        for (double loss : new double[]{0.5, 2, 2, 0.5}) {
+            for (int c = 0; c < 3; c++) {
+                Set<String> src = new HashSet<>(nodes.subList(c, c + 2));
+                DK<String, DefaultWeightedEdge> inverse = new DK<>(src, graph, loss);
+                inverse.run();
+                for (DK.Solver solver : new DK.Solver[]{DK.Solver.cg, DK.Solver.cholesky}) {
+                    DK.solver = solver;
+                    try {
+                        DK<String, DefaultWeightedEdge> dk = new DK<>(src, model, loss);
+                        dk.run();
+                        assertTrue(dk.getResult().isIdentical(inverse.getResult(), 1e-8));
+                    } finally {
+                        DK.solver = DK.Solver.inverse;
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void sharedModelByThreads() throws IOException {
+        graph = reader.readToUndirectedGraph("src/test/java/resources/AlgTest/HGA/graph1.txt", true);
+        Vector<String> nodes = new Vector<>(graph.vertexSet());
+        DiffusionModel<String> model = new DiffusionModel<>(graph);
+        DK.solver = DK.Solver.cg;
+        try {
+            // the solver is shared without a lock, every query gets its own statistics
+            IntStream.range(0, 16).parallel().forEach(c -> {
+                Set<String> src = new HashSet<>(nodes.subList(c % 4, c % 4 + 2));
+                double[] x = model.solve(DK.Solver.cg, 0.5, model.queryVector(src));
+                DK<String, DefaultWeightedEdge> dk = new DK<>(src, model, 0.5);
+                dk.run();
+                assertArrayEquals(x, dk.getResult().getDDRM().data, 1e-12);
+            });
+        } finally {
+            DK.solver = DK.Solver.inverse;
+        }
+    }
+
+    @Test
+    void getTop() throws IOException {
+        graph = reader.readToUndirectedGraph("src/test/java/resources/AlgTest/HGA/graph1.txt", true);
+        Set<String> src = new HashSet<>(new Vector<>(graph.vertexSet()).subList(0, 2));
+        DK<String, DefaultWeightedEdge> dk = new DK<>(src, graph, 0.5);
+        dk.run();
+        TopScores top = dk.getTop(3, 0);
+        assertEquals(3, top.size());
+        double max = Arrays.stream(dk.getResult().getDDRM().data).max().orElseThrow();
+        assertEquals(max, top.score(0));
+        assertEquals(max, dk.getResult().get(dk.getNodeIndex().indexOf(top.nodes(dk.getNodeIndex()).get(0)), 0));
+        assertTrue(top.score(1) >= top.score(2));
+
+        // the scores are not converted
+        StatisticsMatrix sparse = new StatisticsMatrix(dk.getResult().numRows(), 1, MatrixType.DSCC);
+        sparse.set(2, 0, 3);
+        sparse.set(5, 0, -1);
+        TopScores sparseTop = DK.getTop(sparse, 0, 2, 0);
+        assertEquals(MatrixType.DSCC, sparse.getType());
+        assertEquals(2, sparseTop.id(0));
+        assertEquals(0, sparseTop.score(1));
+    }
+
+    @Test
+    void series() throws IOException {
+        graph = reader.readToUndirectedGraph("src/test/java/resources/AlgTest/HGA/graph1.txt", true);
+        Set<String> src = new HashSet<>(new Vector<>(graph.vertexSet()).subList(0, 2));
+        DK<String, DefaultWeightedEdge> inverse = new DK<>(src, graph, 0.5);
+        inverse.run();
+        double[] exact = inverse.getResult().getDDRM().data;
+        // the error is within the bound at every length
+        DiffusionModel<String> model = new DiffusionModel<>(graph);
+        SparseMatrix adj = new SparseMatrix();
+        adj.setMat(model.getAdjacency());
+        NeumannSeries series = new NeumannSeries(adj, model.getDegrees(), 0.5);
+        assertTrue(series.getRho() < 1);
+        double[] q = model.queryVector(src);
+        for (int steps : new int[]{0, 1, 5, 20}) {
+            double[] x = new double[q.length];
+            double bound = series.apply(q, x, 0, steps);
+            for (int i = 0; i < x.length; i++) {
+                assertTrue(Math.abs(exact[i] - x[i]) <= bound + 1e-12);
+            }
+        }
+        DK.solver = DK.Solver.series;
+        double tolerance = DK.seriesTolerance;
+        int maxSteps = DK.maxSteps;
+        DK.seriesTolerance = 1e-12;
+        DK.maxSteps = 10000;
+        try {
+            DK<String, DefaultWeightedEdge> dk = new DK<>(src, graph, 0.5);
+            dk.run();
+            assertTrue(dk.getResult().isIdentical(inverse.getResult(), 1e-8));
+            assertTrue(dk.getSeriesBound() <= 1e-12 * Arrays.stream(dk.getResult().getDDRM().data).max().orElseThrow());
+            // too few steps for the tolerance, the truncated scores are within the bound
+            DK.maxSteps = 1;
+            dk.run();
+            double[] truncated = dk.getResult().getDDRM().data;
+            double bound = dk.getSeriesBound();
+            assertTrue(bound > 1e-12 * Arrays.stream(truncated).max().orElseThrow());
+            for (int i = 0; i < exact.length; i++) {
+                assertTrue(Math.abs(exact[i] - truncated[i]) <= bound + 1e-12);
+            }
+            DK<String, DefaultWeightedEdge> batch = new DK<>(graph, 0.5);
+            batch.run(List.of(src, src));
+            assertEquals(bound, batch.getSeriesBound(), 1e-12);
+            DK.solver = DK.Solver.cg;
+            dk.run();
+            assertTrue(Double.isNaN(dk.getSeriesBound()));
+        } finally {
+            DK.solver = DK.Solver.inverse;
+            DK.seriesTolerance = tolerance;
+            DK.maxSteps = maxSteps;
+        }
+    }
+
     @Test
     void test_nCov_host_diffuse() throws IOException {
         // get all data
@@ -0,0 +1,77 @@
+package Algorithms.Graph;
+
+import DS.Matrix.SimMat;
+import DS.Network.UndirectedGraph;
+import IO.Reader.GraphFileReader;
+import IO.Reader.SimMatReader;
+import org.jgrapht.graph.DefaultEdge;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GreedyMatcherTest {
+    private SimMat<String> simMat;
+
+    @BeforeEach
+    void init() throws IOException {
+        GraphFileReader<String, DefaultEdge> reader = new GraphFileReader<>(String.class, DefaultEdge.class);
+        UndirectedGraph<String, DefaultEdge> udG1 = reader.readToUndirectedGraph("src/test/java/resources/AlgTest/HGA/graph1.txt", false);
+        UndirectedGraph<String, DefaultEdge> udG2 = reader.readToUndirectedGraph("src/test/java/resources/AlgTest/HGA/graph2.txt", false);
+        simMat = new SimMatReader<>(udG1.vertexSet(), udG2.vertexSet(), String.class)
+                .readToSimMat("src/test/java/resources/AlgTest/HGA/simMat.txt", true);
+    }
+
+    private void assertSameAsGetMax(GreedyMatcher matcher) {
+        HashSet<String> assign = new HashSet<>();
+        int[] res = matcher.match(new BitSet(), null);
+        for (int i = 0; i < res.length; i++) {
+            String expected = simMat.getMax(i, assign);
+            assertEquals(expected, res[i] == -1 ? null : simMat.getColIndex().get(res[i]));
+        }
+    }
+
+    @DisplayName("Match the same columns as getMax() row by row")
+    @Test
+    void match() {
+        // a small k forces the fall back to the row scan
+        for (int k : new int[]{1, 2, GreedyMatcher.DEFAULT_K}) {
+            GreedyMatcher matcher = new GreedyMatcher(k);
+            matcher.update(simMat);
+            assertSameAsGetMax(matcher);
+        }
+    }
+
+    @DisplayName("Reuse the matcher after the matrix changes")
+    @Test
+    void update() {
+        GreedyMatcher matcher = new GreedyMatcher(2);
+        matcher.update(simMat);
+        int cols = simMat.getColIndex().size();
+        for (int i = 0; i < simMat.getRowIndex().size(); i++) {
+            simMat.put(i, cols - 1 - i % cols, 10 + i);
+        }
+        matcher.update(simMat);
+        assertSameAsGetMax(matcher);
+    }
+
+    @DisplayName("Skip mapped rows and assigned columns")
+    @Test
+    void skip() {
+        GreedyMatcher matcher = new GreedyMatcher();
+        matcher.update(simMat);
+        BitSet assigned = new BitSet();
+        assigned.set(0, simMat.getColIndex().size());
+        BitSet skipped = new BitSet();
+        skipped.set(0);
+        int[] res = matcher.match(assigned, skipped);
+        for (int c : res) {
+            assertEquals(-1, c);
+        }
+    }
+}
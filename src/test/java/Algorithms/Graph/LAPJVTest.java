@@ -0,0 +1,151 @@
+package Algorithms.Graph;
+
+import DS.Matrix.RowSparseMatrix;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LAPJVTest {
+    private final Random random = new Random(7);
+
+    private static double total(double[] data, int cols, int[] res) {
+        double sum = 0;
+        for (int r = 0; r < res.length; r++) {
+            if (res[r] != -1) {
+                sum += data[r * cols + res[r]];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Enumerate all assignments of the shorter side.
+     */
+    private static double brute(double[] data, int rows, int cols, boolean max, int r, boolean[] used, int left) {
+        if (left == 0 || r == rows) {
+            return left == 0 ? 0 : (max ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY);
+        }
+        // rows can be skipped only when rows > cols
+        double best = rows > cols ? brute(data, rows, cols, max, r + 1, used, left) :
+                (max ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY);
+        for (int c = 0; c < cols; c++) {
+            if (!used[c]) {
+                used[c] = true;
+                double val = data[r * cols + c] + brute(data, rows, cols, max, r + 1, used, left - 1);
+                used[c] = false;
+                best = max ? Math.max(best, val) : Math.min(best, val);
+            }
+        }
+        return best;
+    }
+
+    private static void assertValid(int[] res, int rows, int cols) {
+        boolean[] used = new boolean[cols];
+        int assigned = 0;
+        for (int c : res) {
+            if (c != -1) {
+                assertFalse(used[c]);
+                used[c] = true;
+                assigned++;
+            }
+        }
+        assertEquals(Math.min(rows, cols), assigned);
+    }
+
+    @DisplayName("Optimal for square and rectangular dense matrices")
+    @Test
+    void dense() {
+        int[][] shapes = {{6, 6}, {4, 7}, {7, 4}, {1, 5}};
+        for (int[] shape : shapes) {
+            int rows = shape[0];
+            int cols = shape[1];
+            for (int t = 0; t < 5; t++) {
+                double[] data = new double[rows * cols];
+                for (int i = 0; i < data.length; i++) {
+                    data[i] = random.nextInt(10) - 3;
+                }
+                for (Hungarian.ProblemType type : Hungarian.ProblemType.values()) {
+                    LAPJV<String> lapjv = new LAPJV<>(data, rows, cols, type);
+                    lapjv.run();
+                    int[] res = lapjv.getResult();
+                    assertValid(res, rows, cols);
+                    boolean max = type == Hungarian.ProblemType.maxLoc;
+                    assertEquals(brute(data, rows, cols, max, 0, new boolean[cols], Math.min(rows, cols)),
+                            total(data, cols, res), 1e-9);
+                }
+            }
+        }
+    }
+
+    @DisplayName("Sparse matrices only keep non-zero entries")
+    @Test
+    void sparse() {
+        int[][] shapes = {{30, 30}, {20, 35}, {35, 20}};
+        for (int[] shape : shapes) {
+            int rows = shape[0];
+            int cols = shape[1];
+            RowSparseMatrix sparse = new RowSparseMatrix(rows, cols);
+            double[] data = new double[rows * cols];
+            for (int r = 0; r < rows; r++) {
+                for (int k = 0; k < 3; k++) {
+                    int c = random.nextInt(cols);
+                    double val = random.nextDouble();
+                    sparse.set(r, c, val);
+                    data[r * cols + c] = val;
+                }
+            }
+            LAPJV<String> sparseSolver = new LAPJV<>(sparse, Hungarian.ProblemType.maxLoc);
+            sparseSolver.run();
+            LAPJV<String> denseSolver = new LAPJV<>(data, rows, cols, Hungarian.ProblemType.maxLoc);
+            denseSolver.run();
+            assertValid(sparseSolver.getResult(), rows, cols);
+            assertEquals(total(data, cols, denseSolver.getResult()), total(data, cols, sparseSolver.getResult()), 1e-9);
+        }
+        // the dummy columns are only optimal for maxLoc with non-negative values
+        RowSparseMatrix sparse = new RowSparseMatrix(2, 2);
+        sparse.set(0, 0, 5);
+        sparse.set(0, 1, 1);
+        sparse.set(1, 0, 1);
+        assertThrows(IllegalArgumentException.class, () -> new LAPJV<String>(sparse, Hungarian.ProblemType.minLoc));
+        sparse.set(1, 1, -1);
+        assertThrows(IllegalArgumentException.class, () -> new LAPJV<String>(sparse, Hungarian.ProblemType.maxLoc));
+    }
+
+    @DisplayName("Warm start by the previous solver after the matrix moves")
+    @Test
+    void warmStart() {
+        int[][] shapes = {{40, 40}, {30, 50}, {50, 30}};
+        for (int[] shape : shapes) {
+            int rows = shape[0];
+            int cols = shape[1];
+            double[] data = new double[rows * cols];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = random.nextDouble();
+            }
+            LAPJV<String> previous = new LAPJV<>(data, rows, cols, Hungarian.ProblemType.maxLoc);
+            previous.run();
+            for (int t = 0; t < 10; t++) {
+                double[] moved = data.clone();
+                // a few rows move slightly, one of them moves a lot
+                for (int k = 0; k < 3; k++) {
+                    int r = random.nextInt(rows);
+                    for (int c = 0; c < cols; c++) {
+                        moved[r * cols + c] += (random.nextDouble() - 0.5) * (k == 0 ? 1 : 0.01);
+                    }
+                }
+                LAPJV<String> warm = new LAPJV<>(moved, rows, cols, Hungarian.ProblemType.maxLoc);
+                assertTrue(warm.warmStart(previous));
+                warm.run();
+                LAPJV<String> cold = new LAPJV<>(moved, rows, cols, Hungarian.ProblemType.maxLoc);
+                cold.run();
+                assertValid(warm.getResult(), rows, cols);
+                assertEquals(total(moved, cols, cold.getResult()), total(moved, cols, warm.getResult()), 1e-9);
+                previous = warm;
+                data = moved;
+            }
+        }
+    }
+}
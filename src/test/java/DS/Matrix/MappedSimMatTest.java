@@ -0,0 +1,76 @@
+package DS.Matrix;
+
+import DS.Network.UndirectedGraph;
+import IO.Reader.GraphFileReader;
+import IO.Reader.SimMatReader;
+import org.jgrapht.alg.util.Pair;
+import org.jgrapht.graph.DefaultEdge;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedSimMatTest {
+    private UndirectedGraph<String, DefaultEdge> udG1;
+    private UndirectedGraph<String, DefaultEdge> udG2;
+    private SimMat<String> dense;
+
+    @BeforeEach
+    void init() throws IOException {
+        GraphFileReader<String, DefaultEdge> reader = new GraphFileReader<>(String.class, DefaultEdge.class);
+        udG1 = reader.readToUndirectedGraph("src/test/java/resources/AlgTest/HGA/graph1.txt", false);
+        udG2 = reader.readToUndirectedGraph("src/test/java/resources/AlgTest/HGA/graph2.txt", false);
+        dense = new SimMatReader<>(udG1.vertexSet(), udG2.vertexSet(), String.class)
+                .readToSimMat("src/test/java/resources/AlgTest/HGA/simMat.txt", true);
+    }
+
+    @DisplayName("Converted text matrix is mapped with the same names and values")
+    @Test
+    void convert(@TempDir Path dir) throws IOException {
+        String path = dir.resolve("simMat.bin").toString();
+        new SimMatReader<>(udG1.vertexSet(), udG2.vertexSet(), String.class)
+                .convertToBinary("src/test/java/resources/AlgTest/HGA/simMat.txt", path, false);
+        MappedSimMat<String> mapped = MappedSimMat.open(path);
+        assertEquals(dense.getRowIndex().nodes(), mapped.getRowIndex().nodes());
+        assertEquals(dense.getColIndex().nodes(), mapped.getColIndex().nodes());
+        assertArrayEquals(dense.getMat().data(), mapped.getMat().data());
+        dense.getRowSet().forEach(r -> dense.getColSet().forEach(c ->
+                assertEquals(dense.getVal(r, c), mapped.getVal(r, c))));
+        assertThrows(UnsupportedOperationException.class, () -> mapped.put("A", "A", 0));
+        SimMat<String> copy = mapped.toDense();
+        copy.put("A", "A", 0);
+        assertEquals(0, copy.getVal("A", "A"));
+    }
+
+    @DisplayName("Float values keep the precision of float")
+    @Test
+    void floats(@TempDir Path dir) throws IOException {
+        String path = dir.resolve("simMat.bin").toString();
+        MappedSimMat.write(dense, path, true);
+        MappedSimMat<String> mapped = MappedSimMat.open(path);
+        assertTrue(mapped.isFloat());
+        double[] expected = dense.getMat().data();
+        double[] actual = mapped.getMat().data();
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals((float) expected[i], actual[i]);
+        }
+    }
+
+    @DisplayName("Split by none zeros as the dense one")
+    @Test
+    void split(@TempDir Path dir) throws IOException {
+        String path = dir.resolve("simMat.bin").toString();
+        MappedSimMat.write(dense, path, false);
+        MappedSimMat<String> mapped = MappedSimMat.open(path);
+        Pair<SimMat<String>, SimMat<String>> d = dense.splitByNoneZeros(2);
+        Pair<SimMat<String>, SimMat<String>> m = mapped.splitByNoneZeros(2);
+        assertEquals(d.getFirst().getRowSet(), m.getFirst().getRowSet());
+        d.getFirst().getRowSet().forEach(r -> d.getFirst().getColSet().forEach(c ->
+                assertEquals(d.getFirst().getVal(r, c), m.getFirst().getVal(r, c))));
+    }
+}
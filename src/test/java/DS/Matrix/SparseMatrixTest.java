@@ -1,9 +1,14 @@
 package DS.Matrix;
 
+import org.ejml.data.DMatrixRMaj;
 import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class SparseMatrixTest {
@@ -22,4 +27,24 @@ class SparseMatrixTest {
         csc.set(1, 1, 2.2);
         csc.set(2,0,1.2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void multTransA() {
+        // more columns than a block
+        Random random = new Random(3);
+        int rows = 300;
+        int cols = 9000;
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(rows, cols, 20000, random);
+        SparseMatrix mat = new SparseMatrix();
+        mat.setMat(A);
+        double[] x = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            x[i] = random.nextDouble();
+        }
+        double[] y = new double[cols];
+        mat.multTransA(x, y);
+        DMatrixRMaj expected = new DMatrixRMaj(cols, 1);
+        CommonOps_DSCC.multTransA(A, DMatrixRMaj.wrap(rows, 1, x), expected, null);
+        assertArrayEquals(expected.data, y, 1e-12);
+    }
+}
@@ -0,0 +1,82 @@
+package DS.Matrix;
+
+import DS.Network.UndirectedGraph;
+import IO.Reader.GraphFileReader;
+import IO.Reader.SimMatReader;
+import org.jgrapht.alg.util.Pair;
+import org.jgrapht.graph.DefaultEdge;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SparseSimMatTest {
+    private SimMat<String> dense;
+    private SimMat<String> sparse;
+
+    @BeforeEach
+    void init() throws IOException {
+        GraphFileReader<String, DefaultEdge> reader = new GraphFileReader<>(String.class, DefaultEdge.class);
+        UndirectedGraph<String, DefaultEdge> udG1 = reader.readToUndirectedGraph("src/test/java/resources/AlgTest/HGA/graph1.txt", false);
+        UndirectedGraph<String, DefaultEdge> udG2 = reader.readToUndirectedGraph("src/test/java/resources/AlgTest/HGA/graph2.txt", false);
+        dense = new SimMatReader<>(udG1.vertexSet(), udG2.vertexSet(), String.class)
+                .readToSimMat("src/test/java/resources/AlgTest/HGA/simMat.txt", true);
+        sparse = new SimMatReader<>(udG1.vertexSet(), udG2.vertexSet(), String.class, true)
+                .readToSimMat("src/test/java/resources/AlgTest/HGA/simMat.txt", true);
+    }
+
+    @DisplayName("Sparse storage keeps the same values as the dense one")
+    @Test
+    void read() {
+        assertTrue(sparse instanceof SparseSimMat);
+        assertArrayEquals(dense.getMat().data(), sparse.getMat().data());
+        sparse.put("A", "A", 0);
+        assertEquals(0, sparse.getVal("A", "A"));
+        // no dense storage to write in place
+        assertSame(dense.getDataView(), dense.getDataForWrite());
+        assertThrows(UnsupportedOperationException.class, sparse::getDataForWrite);
+    }
+
+    @DisplayName("Rows are added the same as the whole matrix")
+    @Test
+    void scaleAddRowTo() {
+        double[] whole = new double[dense.getDataView().length];
+        double[] rows = new double[whole.length];
+        sparse.scaleAddTo(whole, 0.5);
+        for (int r = 0; r < sparse.getRowSet().size(); r++) {
+            sparse.scaleAddRowTo(r, rows, 0.5);
+        }
+        assertArrayEquals(whole, rows);
+        dense.scaleAddTo(whole, -0.5);
+        for (int r = 0; r < dense.getRowSet().size(); r++) {
+            dense.scaleAddRowTo(r, rows, -0.5);
+        }
+        assertArrayEquals(whole, rows);
+    }
+
+    @DisplayName("Split by none zeros without densifying")
+    @Test
+    void split() {
+        Pair<SimMat<String>, SimMat<String>> d = dense.splitByNoneZeros(2);
+        Pair<SimMat<String>, SimMat<String>> s = sparse.splitByNoneZeros(2);
+        assertTrue(s.getFirst() instanceof SparseSimMat);
+        assertEquals(d.getFirst().getRowSet(), s.getFirst().getRowSet());
+        d.getFirst().getRowSet().forEach(r -> d.getFirst().getColSet().forEach(c ->
+                assertEquals(d.getFirst().getVal(r, c), s.getFirst().getVal(r, c))));
+    }
+
+    @DisplayName("Greedy search visits non-zero entries")
+    @Test
+    void getMax() {
+        for (int i = 0; i < dense.getRowSet().size(); i++) {
+            String row = dense.getRowIndexNameMap().get(i);
+            String d = dense.getMax(i, new HashSet<>());
+            String s = sparse.getMax(sparse.getRowMap().get(row), new HashSet<>());
+            assertEquals(dense.getVal(row, d), sparse.getVal(row, s));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package DS.Matrix;
+
+import DS.Network.NodeIndex;
+import IO.Writer.ScoreWriter;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.ops.DConvertMatrixStruct;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopScoresTest {
+
+    @DisplayName("The same as sorting all the scores")
+    @Test
+    void of() {
+        Random random = new Random(7);
+        double[] scores = new double[1000];
+        for (int i = 0; i < scores.length; i++) {
+            // ties on purpose
+            scores[i] = random.nextInt(100) / 10.;
+        }
+        int[] expected = IntStream.range(0, scores.length).boxed()
+                .sorted(Comparator.<Integer>comparingDouble(i -> -scores[i]).thenComparingInt(i -> i))
+                .mapToInt(Integer::intValue).toArray();
+        for (int k : new int[]{0, 1, 10, 1000, 5000}) {
+            TopScores top = TopScores.of(scores, k, Double.NEGATIVE_INFINITY);
+            assertEquals(Math.min(k, scores.length), top.size());
+            for (int r = 0; r < top.size(); r++) {
+                assertEquals(expected[r], top.id(r));
+                assertEquals(scores[expected[r]], top.score(r));
+            }
+        }
+        // pruned by the threshold
+        TopScores top = TopScores.of(scores, Integer.MAX_VALUE, 9.5);
+        assertEquals(Arrays.stream(scores).filter(s -> s >= 9.5).count(), top.size());
+    }
+
+    @DisplayName("A sparse column is the same as its dense copy, the rows not stored are zeros")
+    @Test
+    void ofSparse() {
+        Random random = new Random(11);
+        DMatrixSparseCSC scores = new DMatrixSparseCSC(200, 3, 0);
+        for (int n = 0; n < 150; n++) {
+            scores.set(random.nextInt(200), random.nextInt(3), random.nextInt(21) / 10. - 1);
+        }
+        DMatrixRMaj dense = DConvertMatrixStruct.convert(scores, (DMatrixRMaj) null);
+        for (int column = 0; column < 3; column++) {
+            for (double threshold : new double[]{Double.NEGATIVE_INFINITY, -0.5, 0, 0.5}) {
+                TopScores expected = TopScores.of(dense, column, 40, threshold);
+                TopScores top = TopScores.of(scores, column, 40, threshold);
+                assertEquals(expected.size(), top.size());
+                for (int r = 0; r < top.size(); r++) {
+                    assertEquals(expected.id(r), top.id(r));
+                    assertEquals(expected.score(r), top.score(r));
+                }
+            }
+        }
+    }
+
+    @DisplayName("Offers after reading the ranks and NaN")
+    @Test
+    void offer() {
+        TopScores top = new TopScores(2);
+        assertFalse(top.offer(0, Double.NaN));
+        top.offer(1, 1);
+        top.offer(2, 3);
+        assertEquals(2, top.id(0));
+        top.offer(3, 2);
+        assertFalse(top.offer(4, 0.5));
+        assertEquals(2, top.id(0));
+        assertEquals(3, top.id(1));
+        assertEquals(List.of("c", "d"), top.nodes(new NodeIndex<>(List.of("a", "b", "c", "d", "e"))));
+    }
+
+    @DisplayName("Write the best scores and a pruned column")
+    @Test
+    void write(@TempDir Path dir) throws IOException {
+        NodeIndex<String> nodes = new NodeIndex<>(List.of("a", "b", "c"));
+        DMatrixRMaj scores = new DMatrixRMaj(3, 2, true, 0.1, 3, 0.5, 2, 0.2, 1);
+        String path = dir.resolve("top.txt").toString();
+        ScoreWriter writer = new ScoreWriter();
+        writer.setPath(path);
+        writer.write(nodes, TopScores.of(scores, 0, 2, 0), true);
+        assertEquals(List.of("b 0.5", "c 0.2"), Files.readAllLines(Path.of(path)));
+
+        writer.setPath(path);
+        writer.write(nodes, scores, 1, 2, true);
+        assertEquals(List.of("a 3.0", "b 2.0"), Files.readAllLines(Path.of(path)));
+    }
+}
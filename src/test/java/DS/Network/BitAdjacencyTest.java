@@ -0,0 +1,69 @@
+package DS.Network;
+
+import IO.Reader.GraphFileReader;
+import org.jgrapht.graph.DefaultEdge;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitAdjacencyTest {
+    private UndirectedGraph<String, DefaultEdge> graph;
+    private BitAdjacency<String> adj;
+
+    @BeforeEach
+    void init() throws IOException {
+        GraphFileReader<String, DefaultEdge> reader = new GraphFileReader<>(String.class, DefaultEdge.class);
+        graph = reader.readToUndirectedGraph("src/test/java/resources/AlgTest/HGA/graph2.txt", true);
+        adj = graph.getBitAdjMat();
+    }
+
+    @DisplayName("Bits are the same as the boolean adjacent matrix")
+    @Test
+    void getAdjMat() {
+        assertArrayEquals(graph.getAdjMat(), adj.toBooleanArray());
+        NodeIndex<String> nodes = adj.getNodeIndex();
+        for (int i = 0; i < adj.size(); i++) {
+            assertEquals(graph.getNeb(nodes.get(i)).size(), adj.nebSize(i));
+            for (int j = 0; j < adj.size(); j++) {
+                assertEquals(graph.containsEdge(nodes.get(i), nodes.get(j)), adj.get(i, j));
+            }
+        }
+    }
+
+    @DisplayName("Count common neighbors by AND and popcount")
+    @Test
+    void commonNeighbors() {
+        NodeIndex<String> nodes = adj.getNodeIndex();
+        for (int i = 0; i < adj.size(); i++) {
+            for (int j = 0; j < adj.size(); j++) {
+                Set<String> common = new HashSet<>(graph.getNeb(nodes.get(i)));
+                common.retainAll(graph.getNeb(nodes.get(j)));
+                assertEquals(common.size(), adj.commonNeighbors(i, j));
+            }
+            long[] mask = new long[adj.words()];
+            mask[0] = 0b1011;
+            int expected = 0;
+            for (int j = 0; j < Math.min(4, adj.size()); j++) {
+                if (j != 2 && adj.get(i, j)) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, adj.andCount(i, mask));
+        }
+    }
+
+    @DisplayName("A graph too large for one array of bits is rejected")
+    @Test
+    void fits() {
+        assertTrue(BitAdjacency.fits(adj.size()));
+        assertTrue(BitAdjacency.fits(370_000));
+        assertFalse(BitAdjacency.fits(371_000));
+        assertFalse(BitAdjacency.fits(Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,101 @@
+package DS.Network;
+
+import IO.Reader.GraphFileReader;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CSRGraphTest {
+    private UndirectedGraph<String, DefaultWeightedEdge> graph;
+    private CSRGraph<String, DefaultWeightedEdge> csr;
+
+    @BeforeEach
+    void init() throws IOException {
+        GraphFileReader<String, DefaultWeightedEdge> reader = new GraphFileReader<>(String.class, DefaultWeightedEdge.class);
+        graph = reader.readToUndirectedGraph("src/test/java/resources/AlgTest/HGA/graph1.txt", true);
+        // a self-loop and a weight
+        graph.addEdge("A", "A");
+        graph.setEdgeWeight(graph.getEdge("A", "A"), 0.5);
+        csr = new CSRGraph<>(graph);
+    }
+
+    @DisplayName("Neighbors, degrees, edges and weights are the same as the source graph")
+    @Test
+    void copy() {
+        assertEquals(new ArrayList<>(graph.vertexSet()), new ArrayList<>(csr.vertexSet()));
+        assertEquals(graph.edgeSet(), csr.edgeSet());
+        for (String v : graph.vertexSet()) {
+            assertEquals(graph.getNeb(v), csr.getNeb(v));
+            assertEquals(graph.degreeOf(v), csr.degreeOf(v));
+            assertEquals(graph.edgesOf(v), csr.edgesOf(v));
+            int id = csr.indexOf(v);
+            assertEquals(graph.getNeb(v).size(), csr.nebSize(id));
+            for (int k = csr.start(id); k < csr.end(id); k++) {
+                String u = csr.vertex(csr.target(k));
+                assertEquals(graph.getEdgeWeight(graph.getEdge(v, u)), csr.weight(k));
+                assertTrue(csr.containsEdge(u, v));
+            }
+        }
+        for (DefaultWeightedEdge e : graph.edgeSet()) {
+            assertEquals(graph.getEdgeWeight(e), csr.getEdgeWeight(e));
+            assertEquals(e, csr.getEdge(graph.getEdgeSource(e), graph.getEdgeTarget(e)));
+            assertEquals(new HashSet<>(Arrays.asList(graph.getEdgeSource(e), graph.getEdgeTarget(e))),
+                    new HashSet<>(Arrays.asList(csr.getEdgeSource(e), csr.getEdgeTarget(e))));
+        }
+        assertTrue(csr.getType().isWeighted());
+        assertArrayEquals(graph.getAdjMat(), csr.getAdjMat());
+    }
+
+    @DisplayName("Induced subgraph keeps the weights")
+    @Test
+    void getSub() {
+        Set<String> nodes = new HashSet<>();
+        new ArrayList<>(graph.vertexSet()).subList(0, graph.vertexSet().size() / 2).forEach(nodes::add);
+        nodes.add("A");
+        Graph<String, DefaultWeightedEdge> sub = csr.getSub(nodes);
+        assertEquals(nodes, sub.vertexSet());
+        for (DefaultWeightedEdge e : graph.edgeSet()) {
+            boolean inside = nodes.contains(graph.getEdgeSource(e)) && nodes.contains(graph.getEdgeTarget(e));
+            assertEquals(inside, sub.containsEdge(e));
+            if (inside) {
+                assertEquals(graph.getEdgeWeight(e), sub.getEdgeWeight(e));
+            }
+        }
+        nodes.forEach(v -> assertEquals(
+                graph.getNeb(v).stream().filter(nodes::contains).collect(Collectors.toSet()),
+                sub.getNeb(v)));
+        // the rows are sorted by the ids of the subgraph and keep the weights of the slots
+        CSRGraph<String, DefaultWeightedEdge> csrSub = (CSRGraph<String, DefaultWeightedEdge>) sub;
+        assertTrue(csrSub.getType().isWeighted());
+        for (int v = 0; v < csrSub.vertexCount(); v++) {
+            for (int k = csrSub.start(v); k < csrSub.end(v); k++) {
+                if (k > csrSub.start(v)) {
+                    assertTrue(csrSub.target(k - 1) < csrSub.target(k));
+                }
+                DefaultWeightedEdge e = graph.getEdge(csrSub.vertex(v), csrSub.vertex(csrSub.target(k)));
+                assertEquals(graph.getEdgeWeight(e), csrSub.weight(k));
+                assertEquals(e, csrSub.getEdge(csrSub.vertex(v), csrSub.vertex(csrSub.target(k))));
+            }
+        }
+    }
+
+    @DisplayName("Mutations are not supported")
+    @Test
+    void readOnly() {
+        assertThrows(UnsupportedOperationException.class, () -> csr.addVertex("Z"));
+        assertThrows(UnsupportedOperationException.class, () -> csr.addEdge("A", "B"));
+        assertThrows(UnsupportedOperationException.class, () -> csr.removeVertex("A"));
+        assertThrows(IllegalArgumentException.class, () -> csr.getNeb("Z"));
+        assertNull(csr.getEdge("A", "Z"));
+    }
+}
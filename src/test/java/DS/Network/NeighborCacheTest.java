@@ -0,0 +1,76 @@
+package DS.Network;
+
+import org.jgrapht.graph.DefaultEdge;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NeighborCacheTest {
+    private UndirectedGraph<String, DefaultEdge> graph;
+
+    @BeforeEach
+    void init() {
+        graph = new UndirectedGraph<>(DefaultEdge.class);
+        for (String v : new String[]{"A", "B", "C", "D"}) {
+            graph.addVertex(v);
+        }
+        graph.addEdge("A", "B");
+        graph.addEdge("A", "C");
+        graph.addEdge("A", "A");
+    }
+
+    @DisplayName("Neighbors are cached until an edge changes")
+    @Test
+    void getNeb() {
+        Set<String> neb = graph.getNeb("A");
+        assertEquals(Set.of("A", "B", "C"), neb);
+        assertSame(neb, graph.getNeb("A"));
+        assertEquals(3, graph.getNebSize("A"));
+
+        graph.addEdge("A", "D");
+        assertEquals(Set.of("A", "B", "C", "D"), graph.getNeb("A"));
+        assertEquals(Set.of("A"), graph.getNeb("D"));
+
+        graph.removeEdge("A", "B");
+        assertEquals(Set.of("A", "C", "D"), graph.getNeb("A"));
+        assertEquals(Set.of(), graph.getNeb("B"));
+
+        graph.removeEdge(graph.getEdge("A", "C"));
+        assertEquals(Set.of("A", "D"), graph.getNeb("A"));
+        assertEquals(Set.of(), graph.getNeb("C"));
+
+        graph.getNeb("D");
+        graph.removeVertex("A");
+        assertEquals(Set.of(), graph.getNeb("D"));
+        assertEquals(0, graph.getNebSize("D"));
+        assertThrows(IllegalArgumentException.class, () -> graph.getNeb("A"));
+    }
+
+    @DisplayName("A clone caches its neighbors on its own")
+    @Test
+    void cloneCache() {
+        graph.getNeb("A");
+        UndirectedGraph<String, DefaultEdge> copy = (UndirectedGraph<String, DefaultEdge>) graph.clone();
+        assertEquals(Set.of("A", "B", "C"), copy.getNeb("A"));
+        copy.addEdge("A", "D");
+        assertEquals(Set.of("A", "B", "C", "D"), copy.getNeb("A"));
+        assertEquals(Set.of("A", "B", "C"), graph.getNeb("A"));
+        assertEquals(3, graph.getNebSize("A"));
+        graph.removeEdge("A", "B");
+        assertEquals(Set.of("A", "B", "C", "D"), copy.getNeb("A"));
+    }
+
+    @DisplayName("The size without the set is the same")
+    @Test
+    void getNebSize() {
+        for (String v : graph.vertexSet()) {
+            // before the set is cached
+            int size = graph.getNebSize(v);
+            assertEquals(graph.getNeb(v).size(), size);
+        }
+    }
+}
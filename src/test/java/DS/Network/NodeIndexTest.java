@@ -0,0 +1,56 @@
+package DS.Network;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NodeIndexTest {
+
+    @DisplayName("Nodes are indexed by the iteration order in both directions")
+    @Test
+    void index() {
+        List<String> nodes = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            nodes.add("node" + i);
+        }
+        NodeIndex<String> index = new NodeIndex<>(nodes);
+        assertEquals(nodes.size(), index.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            assertEquals(i, index.indexOf(nodes.get(i)));
+            assertEquals(nodes.get(i), index.get(i));
+        }
+        assertEquals(-1, index.indexOf("node1000"));
+        assertEquals(-1, index.indexOf(null));
+        assertArrayEquals(new int[]{2, -1, 0}, index.indexesOf(Arrays.asList("node2", "A", "node0")));
+    }
+
+    @DisplayName("Build from maps and reject duplicates")
+    @Test
+    void of() {
+        HashMap<Character, Integer> map = new HashMap<>();
+        map.put('B', 0);
+        map.put('A', 1);
+        NodeIndex<Character> index = NodeIndex.of(map);
+        assertEquals('B', index.get(0));
+        assertEquals(map, index.toMap());
+        map.put('C', 0);
+        assertThrows(IllegalArgumentException.class, () -> NodeIndex.of(map));
+        assertThrows(IllegalArgumentException.class, () -> new NodeIndex<>(Arrays.asList('A', 'A')));
+    }
+
+    @DisplayName("Read-only views follow the index")
+    @Test
+    void views() {
+        NodeIndex<String> index = new NodeIndex<>(Arrays.asList("B", "A", "C"));
+        assertEquals(new HashSet<>(Arrays.asList("A", "B", "C")), index.asSet());
+        assertTrue(index.asSet().contains("C"));
+        assertEquals(index.toMap(), index.asMap());
+        assertEquals(1, index.asMap().get("A"));
+        assertNull(index.asMap().get("D"));
+        assertThrows(UnsupportedOperationException.class, () -> index.asSet().add("D"));
+        assertThrows(UnsupportedOperationException.class, () -> index.asMap().put("D", 3));
+    }
+}
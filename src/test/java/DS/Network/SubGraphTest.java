@@ -0,0 +1,70 @@
+package DS.Network;
+
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubGraphTest {
+    private UndirectedGraph<String, DefaultWeightedEdge> graph;
+
+    @BeforeEach
+    void init() {
+        graph = new UndirectedGraph<>(DefaultWeightedEdge.class);
+        for (String v : new String[]{"A", "B", "C", "D"}) {
+            graph.addVertex(v);
+        }
+        graph.setEdgeWeight(graph.addEdge("A", "B"), 0.5);
+        graph.setEdgeWeight(graph.addEdge("B", "C"), 2);
+        graph.addEdge("C", "D");
+        graph.setEdgeWeight(graph.addEdge("A", "A"), 3);
+    }
+
+    @DisplayName("The induced subgraph keeps the weights, every edge once")
+    @Test
+    void getSub() {
+        Graph<String, DefaultWeightedEdge> sub = graph.getSub(Set.of("A", "B", "C"));
+        assertEquals(Set.of("A", "B", "C"), sub.vertexSet());
+        assertEquals(3, sub.edgeSet().size());
+        assertEquals(0.5, sub.getEdgeWeight(sub.getEdge("B", "A")));
+        assertEquals(2, sub.getEdgeWeight(sub.getEdge("B", "C")));
+        assertEquals(3, sub.getEdgeWeight(sub.getEdge("A", "A")));
+        assertFalse(sub.containsVertex("D"));
+        // a copy
+        sub.setEdgeWeight(sub.getEdge("A", "B"), 1);
+        assertEquals(0.5, graph.getEdgeWeight(graph.getEdge("A", "B")));
+        assertThrows(IllegalArgumentException.class, () -> graph.getSub(Set.of("A", "E")));
+    }
+
+    @DisplayName("The view masks the graph without copying it")
+    @Test
+    void getSubView() {
+        Graph<String, DefaultWeightedEdge> view = graph.getSubView(Set.of("B", "C", "D"));
+        assertEquals(Set.of("B", "C", "D"), view.vertexSet());
+        assertEquals(2, view.edgeSet().size());
+        assertSame(graph.getEdge("B", "C"), view.getEdge("C", "B"));
+        assertNull(view.getEdge("A", "B"));
+        assertEquals(Set.of("C"), view.getNeb("B"));
+        assertEquals(1, view.getNebSize("B"));
+        assertEquals(2, view.degreeOf("C"));
+        assertEquals(1, view.edgesOf("B").size());
+        assertEquals(2, view.getEdgeWeight(view.getEdge("B", "C")));
+        assertEquals(graph.getSub(Set.of("B", "C", "D")).edgeSet().size(), view.edgeSet().size());
+        assertThrows(IllegalArgumentException.class, () -> view.getNeb("A"));
+        assertThrows(UnsupportedOperationException.class, () -> view.addEdge("B", "D"));
+
+        // changes of the graph are seen
+        graph.addEdge("B", "D");
+        assertEquals(Set.of("C", "D"), view.getNeb("B"));
+        List<String> order = new ArrayList<>(view.vertexSet());
+        boolean[] adj = view.getAdjMat();
+        assertTrue(adj[order.indexOf("D") * 3 + order.indexOf("B")]);
+        assertFalse(adj[order.indexOf("B") * 3 + order.indexOf("B")]);
+    }
+}
@@ -0,0 +1,82 @@
+package IO.Reader;
+
+import DS.Network.UndirectedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GraphFileReaderTest {
+
+    private static void assertSameGraph(UndirectedGraph<String, DefaultWeightedEdge> expected,
+                                        UndirectedGraph<String, DefaultWeightedEdge> actual) {
+        // the same insertion order, which decides the node indexes of the similarity matrices
+        assertEquals(new ArrayList<>(expected.vertexSet()), new ArrayList<>(actual.vertexSet()));
+        assertEquals(expected.edgeSet().size(), actual.edgeSet().size());
+        expected.edgeSet().forEach(e -> {
+            String s = expected.getEdgeSource(e);
+            String t = expected.getEdgeTarget(e);
+            assertEquals(expected.getEdgeWeight(e), actual.getEdgeWeight(actual.getEdge(s, t)));
+        });
+    }
+
+    @DisplayName("Parallel reading builds the same graph as the sequential one")
+    @Test
+    void readParallel() throws IOException {
+        GraphFileReader<String, DefaultWeightedEdge> reader = new GraphFileReader<>(String.class, DefaultWeightedEdge.class);
+        for (String path : new String[]{"src/test/java/resources/AlgTest/HGA/graph1.txt",
+                "src/test/java/resources/AlgTest/HGA/graph2.txt"}) {
+            UndirectedGraph<String, DefaultWeightedEdge> sequential = reader.readToUndirectedGraph(path, true);
+            for (int chunks : new int[]{1, 3, 64}) {
+                assertSameGraph(sequential, reader.readToUndirectedGraphParallel(path, chunks));
+            }
+            assertSameGraph(sequential, reader.readToUndirectedGraphParallel(path));
+        }
+    }
+
+    @DisplayName("Chunks are aligned to lines of a large random edge list")
+    @Test
+    void readParallelRandom(@TempDir Path dir) throws IOException {
+        Path path = dir.resolve("edges.txt");
+        Random random = new Random(0);
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            for (int i = 0; i < 20000; i++) {
+                int src = random.nextInt(3000);
+                if (i % 7 == 0) {
+                    // no weight, and repeated edges keep their weights
+                    writer.write("n" + src + "\tn" + random.nextInt(3000) + "\r\n");
+                    continue;
+                }
+                writer.write("n" + src);
+                for (int k = random.nextInt(3); k >= 0; k--) {
+                    writer.write(" n" + random.nextInt(3000) + " " + random.nextInt(1000) / 1000.);
+                }
+                writer.write("\n");
+            }
+        }
+        GraphFileReader<String, DefaultWeightedEdge> reader = new GraphFileReader<>(String.class, DefaultWeightedEdge.class);
+        UndirectedGraph<String, DefaultWeightedEdge> sequential = reader.readToUndirectedGraph(path.toString(), true);
+        for (int chunks : new int[]{2, 7, 100}) {
+            assertSameGraph(sequential, reader.readToUndirectedGraphParallel(path.toString(), chunks));
+        }
+    }
+
+    @DisplayName("Malformed lines fail as the sequential reading")
+    @Test
+    void readParallelMalformed(@TempDir Path dir) throws IOException {
+        Path path = dir.resolve("edges.txt");
+        Files.write(path, "A B 1\nC D x\n".getBytes());
+        GraphFileReader<String, DefaultWeightedEdge> reader = new GraphFileReader<>(String.class, DefaultWeightedEdge.class);
+        assertThrows(IOException.class, () -> reader.readToUndirectedGraphParallel(path.toString(), 2));
+    }
+}
@@ -0,0 +1,124 @@
+package IO.Reader;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineTokenizerTest {
+
+    private static LineTokenizer of(String text) {
+        return new LineTokenizer(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @DisplayName("Split lines by whitespace as the regex \\s+")
+    @Test
+    void split() throws IOException {
+        LineTokenizer tokenizer = of("  A\tB 1.5\r\n\nC  D 2 E 3\nF");
+        assertTrue(tokenizer.nextLine());
+        assertEquals(3, tokenizer.size());
+        assertEquals("A", tokenizer.token(0));
+        assertEquals("B", tokenizer.name(1));
+        assertEquals(1.5, tokenizer.parseDouble(2));
+        assertTrue(tokenizer.nextLine());
+        assertEquals(0, tokenizer.size());
+        assertTrue(tokenizer.nextLine());
+        assertEquals(5, tokenizer.size());
+        assertEquals("E", tokenizer.token(3));
+        assertTrue(tokenizer.nextLine());
+        assertEquals(1, tokenizer.size());
+        assertEquals("F", tokenizer.token(0));
+        assertFalse(tokenizer.nextLine());
+    }
+
+    @DisplayName("Lines longer than the buffer")
+    @Test
+    void longLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 50000; i++) {
+            line.append("node").append(i).append(' ');
+        }
+        LineTokenizer tokenizer = of(line + "\nlast");
+        assertTrue(tokenizer.nextLine());
+        assertEquals(50000, tokenizer.size());
+        assertEquals("node49999", tokenizer.token(49999));
+        assertTrue(tokenizer.nextLine());
+        assertEquals("last", tokenizer.token(0));
+    }
+
+    @DisplayName("Names are interned by their bytes")
+    @Test
+    void name() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            text.append("蛋白").append(i % 2000).append('\n');
+        }
+        LineTokenizer tokenizer = of(text.toString());
+        String[] first = new String[2000];
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(tokenizer.nextLine());
+            String name = tokenizer.name(0);
+            assertEquals("蛋白" + i % 2000, name);
+            if (first[i % 2000] == null) {
+                first[i % 2000] = name;
+            }
+            assertSame(first[i % 2000], name);
+        }
+    }
+
+    @DisplayName("Parse doubles the same as Double.parseDouble")
+    @Test
+    void parseDouble() throws IOException {
+        String[] tokens = {"0", "-0", "+3", "1.", ".5", "0.001", "1e-5", "2.5E+10", "123456789012345",
+                "1234567890123456789", "0.1234567890123456789", "1e300", "4.9e-324", "NaN", "-Infinity",
+                "00000000000000000012.5", "7.0E-10", "1d"};
+        StringBuilder text = new StringBuilder();
+        for (String token : tokens) {
+            text.append(token).append(' ');
+        }
+        Random random = new Random(0);
+        for (int i = 0; i < 10000; i++) {
+            text.append(random.nextDouble() * Math.pow(10, random.nextInt(40) - 20)).append(' ');
+            text.append(random.nextInt(100000) / 1000.).append(' ');
+        }
+        String[] expected = text.toString().trim().split("\\s+");
+        LineTokenizer tokenizer = of(text.toString());
+        assertTrue(tokenizer.nextLine());
+        assertEquals(expected.length, tokenizer.size());
+        for (int k = 0; k < expected.length; k++) {
+            assertEquals(Double.parseDouble(expected[k]), tokenizer.parseDouble(k), expected[k]);
+        }
+        for (String invalid : new String[]{"A", "-", "1e", "1.2.3", "."}) {
+            LineTokenizer bad = of(invalid);
+            bad.nextLine();
+            assertThrows(NumberFormatException.class, () -> bad.parseDouble(0), invalid);
+        }
+    }
+
+    @DisplayName("Refill from a stream returning short reads")
+    @Test
+    void shortReads() throws IOException {
+        byte[] bytes = "A B 1\nC D 2\nE F 3\n".getBytes(StandardCharsets.UTF_8);
+        InputStream in = new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 2));
+            }
+        };
+        LineTokenizer tokenizer = new LineTokenizer(in);
+        int lines = 0;
+        double sum = 0;
+        while (tokenizer.nextLine()) {
+            lines++;
+            sum += tokenizer.parseDouble(2);
+        }
+        assertEquals(3, lines);
+        assertEquals(6, sum);
+    }
+}
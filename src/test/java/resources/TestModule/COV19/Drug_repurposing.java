@@ -1,18 +1,15 @@
 package resources.TestModule.COV19;
 
 import Algorithms.Graph.Dynamic.Diffusion_Kernel.DK;
-import DS.Matrix.StatisticsMatrix;
 import DS.Network.UndirectedGraph;
 import IO.Reader.GraphFileReader;
-import IO.Writer.AbstractFileWriter;
+import IO.Writer.ScoreWriter;
 import org.jgrapht.graph.DefaultWeightedEdge;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.Vector;
-import java.util.concurrent.atomic.AtomicInteger;
 
 public class Drug_repurposing {
     private UndirectedGraph<String, DefaultWeightedEdge> host;
@@ -26,29 +23,14 @@ public class Drug_repurposing {
 
     }
     @Test
-    void DK() throws FileNotFoundException {
+    void DK() throws IOException {
         // build the disease module
         DK<String, DefaultWeightedEdge> dk = new DK<>(host.vertexSet(),humanPPI,0.5);
         dk.run();
-        StatisticsMatrix res = dk.getResult();
-        AbstractFileWriter writer = new AbstractFileWriter() {
-            // set path before using it
-            @Override
-            public void write(Vector<String> context, boolean close) {
-                super.write(context, close);
-            }
-        };
+        ScoreWriter writer = new ScoreWriter();
         writer.setPath("src/test/java/resources/cov19/Cytoscape/nCoV_host_DK_score.txt");
-        Vector<String> context = new Vector<>();
-        AtomicInteger i = new AtomicInteger(0);
-        // vertex set order will not change
-        host.vertexSet().forEach(t->{
-            double score = res.get(i.get(),0);
-            i.addAndGet(1);
-            context.add(t+" "+ score+"\n");
-        });
-        // output
-        writer.write(context, true);
+        // rows of the scores are the nodes of humanPPI, streamed without collecting the lines
+        writer.write(dk.getNodeIndex(), dk.getTop(Integer.MAX_VALUE, Double.NEGATIVE_INFINITY), true);
     }
 
     @Test